@@ -0,0 +1,17 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+import lombok.Value;
+
+@Value
+public class ApiKeyStats {
+
+    String maskedKey;
+
+    boolean active;
+
+    int remainingQuota;
+
+    long totalRequests;
+
+    String disabledReason;
+}
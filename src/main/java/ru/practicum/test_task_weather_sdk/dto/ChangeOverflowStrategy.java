@@ -0,0 +1,7 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+public enum ChangeOverflowStrategy {
+    DROP_OLDEST,
+    DROP_LATEST,
+    LATEST_PER_CITY
+}
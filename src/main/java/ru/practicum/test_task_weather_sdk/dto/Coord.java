@@ -0,0 +1,17 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+import com.fasterxml.jackson.annotation.*;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Coord {
+
+    @JsonProperty("lat")
+    private Double lat;
+
+    @JsonProperty("lon")
+    private Double lon;
+
+    Coord() {}
+}
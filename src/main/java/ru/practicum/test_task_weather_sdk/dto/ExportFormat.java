@@ -0,0 +1,6 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+public enum ExportFormat {
+    JSON_ARRAY,
+    NDJSON
+}
@@ -0,0 +1,42 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Value;
+
+@Value
+public class Forecast {
+
+    public static final int STEP_SECONDS = 3600;
+    public static final int STRIDE = ForecastMetric.values().length;
+
+    @Getter(AccessLevel.NONE)
+    long[] timestamps;
+
+    @Getter(AccessLevel.NONE)
+    float[] values;
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    public long timestamp(int hour) {
+        return timestamps[hour];
+    }
+
+    public float value(ForecastMetric metric, int hour) {
+        return values[hour * STRIDE + metric.ordinal()];
+    }
+
+    public long[] getTimestamps() {
+        return timestamps.clone();
+    }
+
+    public float[] values(ForecastMetric metric) {
+        float[] result = new float[timestamps.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = value(metric, i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+public enum ForecastMetric {
+    TEMPERATURE,
+    FEELS_LIKE,
+    WIND_SPEED,
+    PRECIPITATION_PROBABILITY
+}
@@ -0,0 +1,43 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Value;
+
+@Value
+public class ForecastSlice {
+
+    @Getter(AccessLevel.NONE)
+    Forecast forecast;
+
+    int offset;
+
+    int length;
+
+    public int size() {
+        return length;
+    }
+
+    public long timestamp(int hour) {
+        return forecast.timestamp(index(hour));
+    }
+
+    public float value(ForecastMetric metric, int hour) {
+        return forecast.value(metric, index(hour));
+    }
+
+    public float[] values(ForecastMetric metric) {
+        float[] result = new float[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = forecast.value(metric, offset + i);
+        }
+        return result;
+    }
+
+    private int index(int hour) {
+        if (hour < 0 || hour >= length) {
+            throw new IndexOutOfBoundsException("Hour " + hour + " is outside of slice of " + length + " hours");
+        }
+        return offset + hour;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+import lombok.Value;
+
+@Value
+public class HistorySeries {
+
+    HistoryMetric metric;
+
+    long[] timestamps;
+
+    double[] values;
+
+    public int size() {
+        return timestamps.length;
+    }
+}
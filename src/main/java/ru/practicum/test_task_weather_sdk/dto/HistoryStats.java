@@ -0,0 +1,15 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+import lombok.Value;
+
+@Value
+public class HistoryStats {
+
+    int count;
+
+    double min;
+
+    double max;
+
+    double avg;
+}
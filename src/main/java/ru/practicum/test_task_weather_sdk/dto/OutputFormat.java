@@ -0,0 +1,7 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+public enum OutputFormat {
+    JSON,
+    CBOR,
+    SMILE
+}
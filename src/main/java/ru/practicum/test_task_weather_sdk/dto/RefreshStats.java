@@ -0,0 +1,23 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+import lombok.Value;
+
+@Value
+public class RefreshStats {
+
+    long cycles;
+
+    long refreshes;
+
+    long unchanged;
+
+    long fresh;
+
+    long expiryMisses;
+
+    long overloadedCycles;
+
+    public double getUnchangedRatio() {
+        return refreshes == 0 ? 0 : (double) unchanged / refreshes;
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+public enum SdkEventType {
+    CACHE_LOOKUP,
+    FETCH,
+    RETRY,
+    REFRESH
+}
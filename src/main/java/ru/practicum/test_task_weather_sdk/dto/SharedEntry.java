@@ -0,0 +1,11 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+import lombok.Value;
+
+@Value
+public class SharedEntry {
+
+    String data;
+
+    long expiresAtEpochMillis;
+}
@@ -2,16 +2,22 @@ package ru.practicum.test_task_weather_sdk.dto;
 
 import com.fasterxml.jackson.annotation.*;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 @Data
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Sun {
 
+    @JsonProperty("country")
+    private String country;
+
+    @NotNull(message = "Sunrise time cannot be null")
     @Min(value = 1, message = "Sunrise time cannot be zero or negative")
     @JsonProperty("sunrise")
     private Long sunrise;
 
+    @NotNull(message = "Sunset time cannot be null")
     @Min(value = 1, message = "Sunset time cannot be zero or negative")
     @JsonProperty("sunset")
     private Long sunset;
@@ -1,18 +1,18 @@
 package ru.practicum.test_task_weather_sdk.dto;
 
 import com.fasterxml.jackson.annotation.*;
-import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 @Data
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Temperature {
 
-    @Min(value = 0, message = "Temperature cannot be negative")
+    @NotNull(message = "Temperature cannot be null")
     @JsonProperty("temp")
     private Double temp;
 
-    @Min(value = 0, message = "Feels-like temperature cannot be negative")
+    @NotNull(message = "Feels-like temperature cannot be null")
     @JsonProperty("feels_like")
     private Double feelsLike;
 
@@ -0,0 +1,13 @@
+package ru.practicum.test_task_weather_sdk.dto;
+
+import lombok.Value;
+
+@Value
+public class WeatherChangeEvent {
+
+    String cityName;
+
+    String previousData;
+
+    String data;
+}
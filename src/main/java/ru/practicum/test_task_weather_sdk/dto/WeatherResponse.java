@@ -10,16 +10,17 @@ import lombok.Data;
 public class WeatherResponse {
 
     @Valid
-    @NotNull(message = "Weather cannot be null")
+    @NotEmpty(message = "Weather cannot be empty")
     @JsonProperty("weather")
     private Weather[] weather;
 
     @Valid
     @NotNull(message = "Temperature cannot be null")
-    @JsonProperty("temperature")
+    @JsonProperty("main")
     private Temperature temperature;
 
-    @Min(value = 1, message = "Visibility cannot be zero or negative")
+    @NotNull(message = "Visibility cannot be null")
+    @Min(value = 0, message = "Visibility cannot be negative")
     @JsonProperty("visibility")
     private Integer visibility;
 
@@ -28,19 +29,28 @@ public class WeatherResponse {
     @JsonProperty("wind")
     private Wind wind;
 
+    @NotNull(message = "DateTime cannot be null")
     @Min(value = 1, message = "DateTime cannot be zero or negative")
-    @JsonProperty("datetime")
+    @JsonProperty("dt")
     private Long datetime;
 
     @Valid
     @NotNull(message = "Sun cannot be null")
-    @JsonProperty("sun")
+    @JsonProperty("sys")
     private Sun sun;
 
-    @Min(value = 1, message = "Timezone cannot be zero or negative")
+    @NotNull(message = "Timezone cannot be null")
+    @Min(value = -43200, message = "Timezone cannot be west of UTC-12")
+    @Max(value = 50400, message = "Timezone cannot be east of UTC+14")
     @JsonProperty("timezone")
     private Integer timezone;
 
+    @JsonProperty("coord")
+    private Coord coord;
+
+    @JsonProperty("id")
+    private Long id;
+
     @NotBlank(message = "Name cannot be empty")
     @JsonProperty("name")
     private String name;
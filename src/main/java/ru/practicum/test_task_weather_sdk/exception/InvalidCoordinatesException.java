@@ -0,0 +1,7 @@
+package ru.practicum.test_task_weather_sdk.exception;
+
+public class InvalidCoordinatesException extends WeatherSdkException {
+    public InvalidCoordinatesException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.test_task_weather_sdk.exception;
+
+public class InvalidWeatherDataException extends WeatherSdkException {
+    public InvalidWeatherDataException(String message, String violations) {
+        super(message + ": " + violations, 0, violations);
+    }
+}
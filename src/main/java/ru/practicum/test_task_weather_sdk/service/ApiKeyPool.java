@@ -0,0 +1,160 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.test_task_weather_sdk.dto.ApiKeyStats;
+import ru.practicum.test_task_weather_sdk.exception.InvalidApiKeyException;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class ApiKeyPool {
+
+    public static final int DEFAULT_REQUESTS_PER_MINUTE = 60;
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final List<PooledKey> keys;
+    private final int requestsPerMinute;
+    private final Ticker ticker;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    public ApiKeyPool(List<String> apiKeys) {
+        this(apiKeys, DEFAULT_REQUESTS_PER_MINUTE, Ticker.systemTicker());
+    }
+
+    public ApiKeyPool(List<String> apiKeys, int requestsPerMinute, Ticker ticker) {
+        if (apiKeys == null || apiKeys.isEmpty()) {
+            throw new InvalidApiKeyException("API key pool cannot be null or empty");
+        }
+        if (requestsPerMinute <= 0) {
+            throw new WeatherSdkException("Requests per minute must be greater than 0");
+        }
+        List<PooledKey> pooledKeys = new ArrayList<>();
+        for (String apiKey : new LinkedHashSet<>(apiKeys)) {
+            if (apiKey == null || apiKey.trim().isEmpty()) {
+                throw new InvalidApiKeyException("API key cannot be null or empty");
+            }
+            pooledKeys.add(new PooledKey(apiKey));
+        }
+        this.keys = List.copyOf(pooledKeys);
+        this.requestsPerMinute = requestsPerMinute;
+        this.ticker = ticker;
+    }
+
+    public String acquire() {
+        while (true) {
+            long now = ticker.read();
+            int size = keys.size();
+            int start = Math.floorMod(cursor.getAndIncrement(), size);
+            PooledKey best = null;
+            int bestRemaining = -1;
+            for (int i = 0; i < size; i++) {
+                PooledKey key = keys.get((start + i) % size);
+                if (!key.active) {
+                    continue;
+                }
+                int remaining = key.remaining(now);
+                if (remaining > bestRemaining) {
+                    best = key;
+                    bestRemaining = remaining;
+                }
+            }
+            if (best == null) {
+                throw new InvalidApiKeyException("No active API keys left in the pool");
+            }
+            if (bestRemaining == 0) {
+                log.debug("All API keys exhausted their quota, falling back to round-robin");
+                best.record(now);
+                return best.value;
+            }
+            if (best.tryAcquire(now)) {
+                return best.value;
+            }
+        }
+    }
+
+    public void disable(String apiKey, String reason) {
+        for (PooledKey key : keys) {
+            if (key.value.equals(apiKey) && key.active) {
+                key.disabledReason = reason;
+                key.active = false;
+                log.warn("API key {} taken out of rotation: {}", mask(apiKey), reason);
+            }
+        }
+    }
+
+    public boolean hasActiveKeys() {
+        for (PooledKey key : keys) {
+            if (key.active) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public List<ApiKeyStats> getStats() {
+        long now = ticker.read();
+        List<ApiKeyStats> stats = new ArrayList<>(keys.size());
+        for (PooledKey key : keys) {
+            stats.add(new ApiKeyStats(mask(key.value), key.active, key.active ? key.remaining(now) : 0,
+                    key.totalRequests(), key.disabledReason));
+        }
+        return stats;
+    }
+
+    private static String mask(String apiKey) {
+        return apiKey.length() <= 4 ? "****" : "****" + apiKey.substring(apiKey.length() - 4);
+    }
+
+    private final class PooledKey {
+
+        private final String value;
+        private volatile boolean active = true;
+        private volatile String disabledReason;
+        private long windowStart = Long.MIN_VALUE;
+        private int usedInWindow;
+        private long totalRequests;
+
+        private PooledKey(String value) {
+            this.value = value;
+        }
+
+        private synchronized int remaining(long now) {
+            return windowExpired(now) ? requestsPerMinute : Math.max(0, requestsPerMinute - usedInWindow);
+        }
+
+        private synchronized boolean tryAcquire(long now) {
+            if (!windowExpired(now) && usedInWindow >= requestsPerMinute) {
+                return false;
+            }
+            record(now);
+            return true;
+        }
+
+        private synchronized void record(long now) {
+            if (windowExpired(now)) {
+                windowStart = now;
+                usedInWindow = 0;
+            }
+            usedInWindow++;
+            totalRequests++;
+        }
+
+        private synchronized long totalRequests() {
+            return totalRequests;
+        }
+
+        private boolean windowExpired(long now) {
+            return windowStart == Long.MIN_VALUE || now - windowStart >= WINDOW_NANOS;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ru.practicum.weather.CacheEviction")
+@Label("Cache Eviction")
+@Description("City removed from the weather cache because it expired or the cache was full")
+@Category({"Weather SDK", "Cache"})
+@StackTrace(false)
+final class CacheEvictionEvent extends jdk.jfr.Event {
+
+    @Label("City")
+    String city;
+
+    @Label("Cause")
+    String cause;
+}
@@ -0,0 +1,21 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ru.practicum.weather.CacheLookup")
+@Label("Cache Lookup")
+@Description("Lookup of a city in the local weather cache")
+@Category({"Weather SDK", "Cache"})
+@StackTrace(false)
+final class CacheLookupEvent extends jdk.jfr.Event {
+
+    @Label("City")
+    String city;
+
+    @Label("Hit")
+    boolean hit;
+}
@@ -0,0 +1,234 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.test_task_weather_sdk.exception.JsonParsingException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+public class CityIdIndex {
+
+    private static final int MAX_ALIASES = 100_000;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ConcurrentHashMap<String, String> aliases = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> unresolved = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> cityIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> canonicalKeys = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, double[]> coordinates = new ConcurrentHashMap<>();
+    private volatile CityList cityList = CityList.EMPTY;
+
+    public String canonicalKey(String cityName) {
+        String key = aliases.get(cityName);
+        if (key == null) {
+            key = unresolved.get(cityName);
+        }
+        if (key != null) {
+            return key;
+        }
+        String normalized = normalize(cityName);
+        key = aliases.get(normalized);
+        if (key == null) {
+            key = cityList.findName(normalized);
+        }
+        if (key == null) {
+            key = cityName.strip();
+            if (unresolved.size() < MAX_ALIASES) {
+                unresolved.putIfAbsent(cityName, key);
+            }
+            return key;
+        }
+        rememberAlias(cityName, key);
+        return key;
+    }
+
+    public Long findId(String cityName) {
+        if (cityName == null) {
+            return null;
+        }
+        String key = canonicalKey(cityName);
+        Long cityId = cityIds.get(key);
+        return cityId != null ? cityId : cityList.findId(normalize(key));
+    }
+
+    public void register(String cityName, Long cityId) {
+        register(cityName, cityId, null, null);
+    }
+
+    public void register(String requestedName, Long cityId, String name, String country) {
+        if (requestedName == null || cityId == null) {
+            return;
+        }
+        String canonical = name == null || name.isBlank()
+                ? requestedName.strip()
+                : country == null || country.isBlank() ? name : name + "," + country;
+        String key = canonicalKeys.computeIfAbsent(canonical, k -> k);
+        if (cityIds.put(key, cityId) == null) {
+            log.debug("Learned OpenWeather id {} for city '{}'", cityId, key);
+        }
+        rememberAlias(normalize(key), key);
+        rememberAlias(normalize(requestedName), key);
+        rememberAlias(requestedName, key);
+    }
+
+    public void registerCoordinates(String cityName, double lat, double lon) {
+        if (cityName == null || coordinates.size() >= MAX_ALIASES) {
+            return;
+        }
+        coordinates.put(canonicalKey(cityName), new double[]{lat, lon});
+    }
+
+    public double[] findCoordinates(String cityName) {
+        return cityName == null ? null : coordinates.get(canonicalKey(cityName));
+    }
+
+    public void loadCityList(InputStream cityListJson) {
+        CityList loaded = CityList.load(cityListJson);
+        this.cityList = loaded;
+        unresolved.clear();
+        log.info("Loaded OpenWeather city list with {} cities", loaded.size());
+    }
+
+    public int size() {
+        return cityIds.size() + cityList.size();
+    }
+
+    static String normalize(String cityName) {
+        StringBuilder normalized = new StringBuilder(cityName.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < cityName.length(); i++) {
+            char c = cityName.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else if (c == ',') {
+                pendingSpace = false;
+                normalized.append(',');
+            } else {
+                if (pendingSpace && normalized.charAt(normalized.length() - 1) != ',') {
+                    normalized.append(' ');
+                }
+                pendingSpace = false;
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private void rememberAlias(String alias, String key) {
+        if (aliases.size() < MAX_ALIASES && aliases.putIfAbsent(alias, key) == null) {
+            // a new alias can resolve spellings that missed before
+            unresolved.clear();
+        }
+    }
+
+    private static final class CityList {
+
+        private static final CityList EMPTY = new CityList(new long[0], new int[0], new int[0], new String[0]);
+        private static final int AMBIGUOUS = -1;
+
+        private final long[] aliasHashes;
+        private final int[] aliasCities;
+        private final int[] ids;
+        private final String[] names;
+
+        private CityList(long[] aliasHashes, int[] aliasCities, int[] ids, String[] names) {
+            this.aliasHashes = aliasHashes;
+            this.aliasCities = aliasCities;
+            this.ids = ids;
+            this.names = names;
+        }
+
+        private int size() {
+            return ids.length;
+        }
+
+        private String findName(String normalized) {
+            int city = find(normalized);
+            return city < 0 ? null : names[city];
+        }
+
+        private Long findId(String normalized) {
+            int city = find(normalized);
+            return city < 0 ? null : (long) ids[city];
+        }
+
+        private int find(String normalized) {
+            if (aliasHashes.length == 0) {
+                return AMBIGUOUS;
+            }
+            int position = Arrays.binarySearch(aliasHashes, hash(normalized));
+            return position < 0 ? AMBIGUOUS : aliasCities[position];
+        }
+
+        private static CityList load(InputStream cityListJson) {
+            List<String> names = new ArrayList<>();
+            List<Integer> ids = new ArrayList<>();
+            Map<Long, Integer> aliases = new HashMap<>();
+            try (JsonParser parser = JSON_FACTORY.createParser(cityListJson)) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new JsonParsingException("City list is not a JSON array", null);
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    long id = 0;
+                    String name = null;
+                    String country = null;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.currentName();
+                        parser.nextToken();
+                        switch (field) {
+                            case "id" -> id = parser.getLongValue();
+                            case "name" -> name = parser.getText();
+                            case "country" -> country = parser.getText();
+                            default -> parser.skipChildren();
+                        }
+                    }
+                    if (id <= 0 || name == null || name.isBlank()) {
+                        continue;
+                    }
+                    int city = names.size();
+                    String canonical = country == null || country.isBlank() ? name : name + "," + country;
+                    names.add(canonical);
+                    ids.add((int) id);
+                    aliases.putIfAbsent(hash(normalize(canonical)), city);
+                    if (!canonical.equals(name)) {
+                        aliases.merge(hash(normalize(name)), city, (existing, added) -> AMBIGUOUS);
+                    }
+                }
+            } catch (IOException e) {
+                throw new JsonParsingException("Failed to parse city list", e);
+            }
+
+            long[] aliasHashes = new long[aliases.size()];
+            int position = 0;
+            for (Long aliasHash : aliases.keySet()) {
+                aliasHashes[position++] = aliasHash;
+            }
+            Arrays.sort(aliasHashes);
+            int[] aliasCities = new int[aliasHashes.length];
+            for (int i = 0; i < aliasHashes.length; i++) {
+                aliasCities[i] = aliases.get(aliasHashes[i]);
+            }
+            return new CityList(aliasHashes, aliasCities, ids.stream().mapToInt(Integer::intValue).toArray(),
+                    names.toArray(new String[0]));
+        }
+
+        private static long hash(String normalized) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < normalized.length(); i++) {
+                hash ^= normalized.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
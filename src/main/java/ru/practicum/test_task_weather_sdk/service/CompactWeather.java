@@ -0,0 +1,218 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class CompactWeather {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int NAME_FROM_KEY = -1;
+
+    private final Condition condition;
+    private final String name;
+    private final short nameLength;
+    private final float temp;
+    private final float feelsLike;
+    private final float windSpeed;
+    private final int visibility;
+    private final int timezone;
+    private final long datetime;
+    private final long sunrise;
+    private final long sunset;
+
+    private CompactWeather(Condition condition, String name, short nameLength, float temp, float feelsLike,
+                           float windSpeed, int visibility, int timezone, long datetime, long sunrise, long sunset) {
+        this.condition = condition;
+        this.name = name;
+        this.nameLength = nameLength;
+        this.temp = temp;
+        this.feelsLike = feelsLike;
+        this.windSpeed = windSpeed;
+        this.visibility = visibility;
+        this.timezone = timezone;
+        this.datetime = datetime;
+        this.sunrise = sunrise;
+        this.sunset = sunset;
+    }
+
+    public static CompactWeather parse(String cityKey, String weatherJson, Conditions conditions) {
+        try (JsonParser parser = JSON_FACTORY.createParser(weatherJson)) {
+            return ifIdentical(parse(cityKey, parser, conditions), cityKey, weatherJson);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static CompactWeather parse(String cityKey, JsonParser parser, Conditions conditions) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        String main = null;
+        String description = null;
+        String name = null;
+        double temp = Double.NaN;
+        double feelsLike = Double.NaN;
+        double windSpeed = Double.NaN;
+        long visibility = Long.MIN_VALUE;
+        long timezone = Long.MIN_VALUE;
+        long datetime = Long.MIN_VALUE;
+        long sunrise = Long.MIN_VALUE;
+        long sunset = Long.MIN_VALUE;
+        int seen = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "weather", "temperature", "wind", "sun" -> {
+                    if (value != JsonToken.START_OBJECT) {
+                        return null;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String nested = field + "." + parser.currentName();
+                        JsonToken nestedValue = parser.nextToken();
+                        switch (nested) {
+                            case "weather.main" -> main = text(parser, nestedValue);
+                            case "weather.description" -> description = text(parser, nestedValue);
+                            case "temperature.temp" -> temp = number(parser, nestedValue);
+                            case "temperature.feels_like" -> feelsLike = number(parser, nestedValue);
+                            case "wind.speed" -> windSpeed = number(parser, nestedValue);
+                            case "sun.sunrise" -> sunrise = integer(parser, nestedValue);
+                            case "sun.sunset" -> sunset = integer(parser, nestedValue);
+                            default -> {
+                                return null;
+                            }
+                        }
+                        seen++;
+                    }
+                    seen--;
+                }
+                case "visibility" -> visibility = integer(parser, value);
+                case "timezone" -> timezone = integer(parser, value);
+                case "datetime" -> datetime = integer(parser, value);
+                case "name" -> name = text(parser, value);
+                default -> {
+                    return null;
+                }
+            }
+            seen++;
+        }
+        if (seen != 11 || main == null || description == null || name == null
+                || !fitsFloat(temp) || !fitsFloat(feelsLike) || !fitsFloat(windSpeed)
+                || !fitsInt(visibility) || !fitsInt(timezone)
+                || datetime == Long.MIN_VALUE || sunrise == Long.MIN_VALUE || sunset == Long.MIN_VALUE) {
+            return null;
+        }
+        boolean nameFromKey = cityKey.startsWith(name)
+                && (cityKey.length() == name.length() || cityKey.charAt(name.length()) == ',')
+                && name.length() <= Short.MAX_VALUE;
+        return new CompactWeather(conditions.intern(main, description),
+                nameFromKey ? null : name, (short) (nameFromKey ? name.length() : NAME_FROM_KEY),
+                (float) temp, (float) feelsLike, (float) windSpeed, (int) visibility, (int) timezone,
+                datetime, sunrise, sunset);
+    }
+
+    private static CompactWeather ifIdentical(CompactWeather compact, String cityKey, String weatherJson) {
+        return compact != null && compact.toJson(cityKey).equals(weatherJson) ? compact : null;
+    }
+
+    public String toJson(String cityKey) {
+        String cityName = name != null ? name
+                : nameLength == cityKey.length() ? cityKey : cityKey.substring(0, nameLength);
+        StringBuilder json = new StringBuilder(320 + 2 * cityName.length());
+        json.append("{\"weather\":{\"main\":");
+        appendString(json, condition.main);
+        json.append(",\"description\":");
+        appendString(json, condition.description);
+        json.append("},\"temperature\":{\"temp\":").append(temp)
+                .append(",\"feels_like\":").append(feelsLike)
+                .append("},\"visibility\":").append(visibility)
+                .append(",\"wind\":{\"speed\":").append(windSpeed)
+                .append("},\"datetime\":").append(datetime)
+                .append(",\"sun\":{\"sunrise\":").append(sunrise)
+                .append(",\"sunset\":").append(sunset)
+                .append("},\"timezone\":").append(timezone)
+                .append(",\"name\":");
+        appendString(json, cityName);
+        return json.append('}').toString();
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+    }
+
+    private static double number(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NUMBER_FLOAT || value == JsonToken.VALUE_NUMBER_INT
+                ? parser.getDoubleValue() : Double.NaN;
+    }
+
+    private static long integer(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : Long.MIN_VALUE;
+    }
+
+    private static boolean fitsFloat(double value) {
+        return !Double.isNaN(value) && Double.parseDouble(Float.toString((float) value)) == value;
+    }
+
+    private static boolean fitsInt(long value) {
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    public static final class Conditions {
+
+        private static final int MAX_CONDITIONS = 10_000;
+
+        private final ConcurrentHashMap<String, Condition> conditions = new ConcurrentHashMap<>();
+
+        Condition intern(String main, String description) {
+            String key = main + '\n' + description;
+            Condition condition = conditions.get(key);
+            if (condition != null) {
+                return condition;
+            }
+            condition = new Condition(main, description);
+            if (conditions.size() >= MAX_CONDITIONS) {
+                return condition;
+            }
+            Condition existing = conditions.putIfAbsent(key, condition);
+            return existing != null ? existing : condition;
+        }
+
+        public int size() {
+            return conditions.size();
+        }
+
+        void clear() {
+            conditions.clear();
+        }
+    }
+
+    private static final class Condition {
+
+        private final String main;
+        private final String description;
+
+        private Condition(String main, String description) {
+            this.main = main;
+            this.description = description;
+        }
+    }
+}
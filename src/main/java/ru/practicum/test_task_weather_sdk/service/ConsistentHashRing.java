@@ -0,0 +1,75 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+public final class ConsistentHashRing {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final Set<String> members;
+    private final long[] points;
+    private final String[] owners;
+
+    public ConsistentHashRing(Collection<String> members) {
+        this(members, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+        if (members == null || members.isEmpty() || virtualNodes <= 0) {
+            throw new WeatherSdkException("Hash ring needs at least one member and one virtual node per member");
+        }
+        this.members = Set.copyOf(new TreeSet<>(members));
+        int size = this.members.size() * virtualNodes;
+        long[] hashes = new long[size];
+        String[] memberAt = new String[size];
+        int position = 0;
+        for (String member : new TreeSet<>(members)) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                hashes[position] = hash(member + "#" + replica);
+                memberAt[position++] = member;
+            }
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = hashes[order[i]];
+            owners[i] = memberAt[order[i]];
+        }
+    }
+
+    public String owner(String key) {
+        int position = Arrays.binarySearch(points, hash(key));
+        if (position < 0) {
+            position = -position - 1;
+        }
+        return owners[position == points.length ? 0 : position];
+    }
+
+    public Set<String> members() {
+        return members;
+    }
+
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ hash >>> 33;
+    }
+}
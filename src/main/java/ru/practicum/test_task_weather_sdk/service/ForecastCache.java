@@ -0,0 +1,119 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.test_task_weather_sdk.dto.Forecast;
+import ru.practicum.test_task_weather_sdk.dto.ForecastSlice;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Slf4j
+public class ForecastCache {
+
+    public static final int DEFAULT_MAX_FORECASTS = 100;
+    public static final Duration DEFAULT_EXPIRATION_TIME = Duration.ofHours(1);
+    private static final int OBJECT_OVERHEAD_BYTES = 24 + 2 * 16;
+
+    private final Cache<String, Forecast> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<Forecast>> inFlight = new ConcurrentHashMap<>();
+    @Getter
+    private volatile Duration expirationTime;
+
+    ForecastCache() {
+        this(DEFAULT_MAX_FORECASTS, DEFAULT_EXPIRATION_TIME, Ticker.systemTicker());
+    }
+
+    public ForecastCache(int maxForecasts, Duration expirationTime, Ticker ticker) {
+        if (maxForecasts <= 0) {
+            throw new WeatherSdkException("Maximum number of cached forecasts must be greater than 0");
+        }
+        validateExpiration(expirationTime);
+        this.expirationTime = expirationTime;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxForecasts)
+                .expireAfterWrite(expirationTime)
+                .ticker(ticker)
+                .build();
+    }
+
+    public Forecast get(String cellKey, Supplier<Forecast> loader) {
+        Forecast cached = cache.getIfPresent(cellKey);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<Forecast> load = new CompletableFuture<>();
+        CompletableFuture<Forecast> running = inFlight.putIfAbsent(cellKey, load);
+        if (running != null) {
+            log.debug("Joining in-flight forecast fetch for '{}'", cellKey);
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            Forecast forecast = cache.getIfPresent(cellKey);
+            if (forecast == null) {
+                forecast = loader.get();
+                cache.put(cellKey, forecast);
+                log.info("Cached {}-hour forecast for '{}'", forecast.size(), cellKey);
+            }
+            load.complete(forecast);
+            return forecast;
+        } catch (Throwable e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cellKey, load);
+        }
+    }
+
+    public static ForecastSlice nextHours(Forecast forecast, long nowEpochSecond, int hours) {
+        int low = 0;
+        int high = forecast.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (forecast.timestamp(mid) + Forecast.STEP_SECONDS <= nowEpochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return new ForecastSlice(forecast, low, Math.max(0, Math.min(hours, forecast.size() - low)));
+    }
+
+    public static long retainedBytes(Forecast forecast) {
+        return OBJECT_OVERHEAD_BYTES + (long) forecast.size() * (Long.BYTES + Forecast.STRIDE * Float.BYTES);
+    }
+
+    public void setExpirationTime(Duration expirationTime) {
+        validateExpiration(expirationTime);
+        this.expirationTime = expirationTime;
+        cache.policy().expireAfterWrite().ifPresent(expiration -> expiration.setExpiresAfter(expirationTime));
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    private void validateExpiration(Duration expirationTime) {
+        if (expirationTime == null || expirationTime.isNegative() || expirationTime.isZero()) {
+            throw new WeatherSdkException("Forecast expiration time must be positive");
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import lombok.Getter;
+import ru.practicum.test_task_weather_sdk.exception.InvalidCoordinatesException;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+
+public class GeoGrid {
+
+    public static final int DEFAULT_PRECISION = 5;
+    public static final int MAX_PRECISION = 12;
+    private static final String CELL_PREFIX = "geo:";
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    @Getter
+    private final int precision;
+
+    public GeoGrid() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public GeoGrid(int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new WeatherSdkException("Geo cell precision must be between 1 and " + MAX_PRECISION);
+        }
+        this.precision = precision;
+    }
+
+    public String cellKey(double lat, double lon) {
+        validateCoordinates(lat, lon);
+        char[] key = new char[CELL_PREFIX.length() + precision];
+        CELL_PREFIX.getChars(0, CELL_PREFIX.length(), key, 0);
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+        int position = CELL_PREFIX.length();
+        while (position < key.length) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (lon >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                key[position++] = BASE32[ch];
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return new String(key);
+    }
+
+    public static boolean isCellKey(String key) {
+        return key != null && key.startsWith(CELL_PREFIX);
+    }
+
+    public static double[] cellCenter(String key) {
+        if (!isCellKey(key) || key.length() == CELL_PREFIX.length()) {
+            throw new InvalidCoordinatesException("Not a geo cell key: " + key);
+        }
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+        for (int i = CELL_PREFIX.length(); i < key.length(); i++) {
+            int value = decode(key.charAt(i));
+            for (int mask = 16; mask > 0; mask >>= 1) {
+                boolean set = (value & mask) != 0;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[]{(minLat + maxLat) / 2, (minLon + maxLon) / 2};
+    }
+
+    public static void validateCoordinates(double lat, double lon) {
+        if (Double.isNaN(lat) || lat < -90 || lat > 90) {
+            throw new InvalidCoordinatesException("Latitude must be between -90 and 90");
+        }
+        if (Double.isNaN(lon) || lon < -180 || lon > 180) {
+            throw new InvalidCoordinatesException("Longitude must be between -180 and 180");
+        }
+    }
+
+    private static int decode(char c) {
+        for (int i = 0; i < BASE32.length; i++) {
+            if (BASE32[i] == c) {
+                return i;
+            }
+        }
+        throw new InvalidCoordinatesException("Invalid geo cell character: " + c);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.test_task_weather_sdk.dto.HotCity;
+
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@Slf4j
+public class HotCityPrefetcher {
+
+    private static final long MAX_CHECK_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final HotCityTracker tracker;
+    private final WeatherCacheManager cacheManager;
+    private final Consumer<String> refresher;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong prefetches = new AtomicLong();
+
+    public HotCityPrefetcher(HotCityTracker tracker, WeatherCacheManager cacheManager, Consumer<String> refresher) {
+        this.tracker = tracker;
+        this.cacheManager = cacheManager;
+        this.refresher = refresher;
+        long period = Math.max(1, Math.min(MAX_CHECK_PERIOD_NANOS, cacheManager.getExpirationTime().toNanos() / 8));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-city-prefetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::prefetch, period, period, TimeUnit.NANOSECONDS);
+        log.info("Hot city prefetcher started, checking the top {} cities every {} ms", tracker.getTopK(),
+                TimeUnit.NANOSECONDS.toMillis(period));
+    }
+
+    public long getPrefetches() {
+        return prefetches.get();
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+        log.info("Hot city prefetcher stopped");
+    }
+
+    void prefetch() {
+        long refreshAfter = cacheManager.getExpirationTime().toNanos() / 4 * 3;
+        for (HotCity hot : tracker.getHotCities()) {
+            OptionalLong age = cacheManager.getAgeNanos(hot.getCity());
+            if (age.isPresent() && age.getAsLong() < refreshAfter) {
+                continue;
+            }
+            try {
+                refresher.accept(hot.getCity());
+                prefetches.incrementAndGet();
+                log.debug("Prefetched hot city '{}' ({} estimated requests)", hot.getCity(),
+                        hot.getEstimatedRequests());
+            } catch (RuntimeException e) {
+                log.debug("Failed to prefetch hot city '{}': {}", hot.getCity(), e.getMessage());
+            }
+        }
+    }
+}
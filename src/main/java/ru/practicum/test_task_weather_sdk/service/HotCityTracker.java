@@ -0,0 +1,253 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import lombok.Getter;
+import ru.practicum.test_task_weather_sdk.dto.HotCity;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class HotCityTracker {
+
+    public static final int DEFAULT_TOP_K = 10;
+    public static final int DEFAULT_WIDTH = 4096;
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L};
+    private static final int STRIPES = 16;
+    private static final int STRIPE_SIZE = 32;
+
+    @Getter
+    private final int topK;
+    private final int width;
+    private final int[] counters;
+    private final long resetThreshold;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final Map<String, Candidate> candidates = new HashMap<>();
+    private final Candidate[] heap;
+    private long additions;
+
+    public HotCityTracker() {
+        this(DEFAULT_TOP_K, DEFAULT_WIDTH);
+    }
+
+    public HotCityTracker(int topK, int width) {
+        if (topK <= 0 || topK > 1000) {
+            throw new WeatherSdkException("Number of hot cities must be between 1 and 1000");
+        }
+        if (width < 64 || width > (1 << 24)) {
+            throw new WeatherSdkException("Sketch width must be between 64 and 16777216 counters");
+        }
+        this.topK = topK;
+        this.heap = new Candidate[topK];
+        this.width = Integer.highestOneBit(width - 1) << 1;
+        this.counters = new int[DEPTH * this.width];
+        this.resetThreshold = 10L * this.width;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public void record(String cityKey) {
+        Stripe stripe = stripes[(int) (Thread.currentThread().getId() * 0x9e3779b97f4a7c15L >>> 60)];
+        stripe.offer(cityKey);
+        if (stripe.pending() >= STRIPE_SIZE / 2 && drainLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    public List<HotCity> getHotCities() {
+        drainLock.lock();
+        try {
+            drain();
+            List<HotCity> hot = new ArrayList<>(candidates.size());
+            for (String city : candidates.keySet()) {
+                hot.add(new HotCity(city, estimate(city)));
+            }
+            hot.sort(Comparator.comparingLong(HotCity::getEstimatedRequests).reversed()
+                    .thenComparing(HotCity::getCity));
+            return hot;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    public long estimatedRequests(String cityKey) {
+        drainLock.lock();
+        try {
+            drain();
+            return estimate(cityKey);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void drain() {
+        for (Stripe stripe : stripes) {
+            long head = stripe.reads;
+            long tail = stripe.writes.get();
+            for (; head < tail; head++) {
+                int slot = (int) head & (STRIPE_SIZE - 1);
+                String city = stripe.slots.get(slot);
+                if (city == null) {
+                    break;
+                }
+                stripe.slots.lazySet(slot, null);
+                increment(city);
+            }
+            stripe.reads = head;
+        }
+    }
+
+    private void increment(String city) {
+        int hash = spread(city.hashCode());
+        int count = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hash, row);
+            if (counters[index] < Integer.MAX_VALUE) {
+                counters[index]++;
+            }
+            count = Math.min(count, counters[index]);
+        }
+        offerCandidate(city, count);
+        if (++additions >= resetThreshold) {
+            age();
+        }
+    }
+
+    private void offerCandidate(String city, int count) {
+        Candidate known = candidates.get(city);
+        if (known != null) {
+            known.count = count;
+            siftDown(siftUp(known.index));
+            return;
+        }
+        int size = candidates.size();
+        if (size < topK) {
+            Candidate added = new Candidate(city, count, size);
+            heap[size] = added;
+            candidates.put(city, added);
+            siftUp(size);
+            return;
+        }
+        Candidate coldest = heap[0];
+        if (count > coldest.count) {
+            candidates.remove(coldest.city);
+            coldest.city = city;
+            coldest.count = count;
+            candidates.put(city, coldest);
+            siftDown(0);
+        }
+    }
+
+    private int siftUp(int index) {
+        Candidate candidate = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= candidate.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(candidate, index);
+        return index;
+    }
+
+    private void siftDown(int index) {
+        Candidate candidate = heap[index];
+        int size = candidates.size();
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (candidate.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(candidate, index);
+    }
+
+    private void place(Candidate candidate, int index) {
+        heap[index] = candidate;
+        candidate.index = index;
+    }
+
+    private void age() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] >>>= 1;
+        }
+        for (Candidate candidate : candidates.values()) {
+            candidate.count >>>= 1;
+        }
+        additions >>>= 1;
+    }
+
+    private int estimate(String city) {
+        int hash = spread(city.hashCode());
+        int count = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            count = Math.min(count, counters[index(hash, row)]);
+        }
+        return count;
+    }
+
+    private int index(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return row * width + ((int) h & (width - 1));
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+
+    private static final class Candidate {
+
+        private String city;
+        private int count;
+        private int index;
+
+        private Candidate(String city, int count, int index) {
+            this.city = city;
+            this.count = count;
+            this.index = index;
+        }
+    }
+
+    private static final class Stripe {
+
+        private final AtomicReferenceArray<String> slots = new AtomicReferenceArray<>(STRIPE_SIZE);
+        private final AtomicLong writes = new AtomicLong();
+        private volatile long reads;
+
+        private void offer(String city) {
+            long tail = writes.get();
+            if (tail - reads < STRIPE_SIZE && writes.compareAndSet(tail, tail + 1)) {
+                slots.lazySet((int) tail & (STRIPE_SIZE - 1), city);
+            }
+        }
+
+        private long pending() {
+            return writes.get() - reads;
+        }
+    }
+}
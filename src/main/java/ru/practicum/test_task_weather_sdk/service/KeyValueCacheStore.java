@@ -0,0 +1,306 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.test_task_weather_sdk.dto.SharedEntry;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+public class KeyValueCacheStore implements SharedCacheStore, AutoCloseable {
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(1);
+    public static final int DEFAULT_MAX_CONNECTIONS = 4;
+    public static final Duration INITIAL_BACKOFF = Duration.ofMillis(100);
+    public static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+    private static final int MAX_LINE = 256;
+    private static final int PIPELINE_DEPTH = 64;
+
+    private final String host;
+    private final int port;
+    private final int timeoutMillis;
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<Connection> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    @Getter
+    private volatile boolean open;
+    private volatile long retryAtNanos;
+    private volatile long backoffNanos = INITIAL_BACKOFF.toNanos();
+    private volatile boolean closed;
+
+    public KeyValueCacheStore(String host, int port) {
+        this(host, port, DEFAULT_TIMEOUT);
+    }
+
+    public KeyValueCacheStore(String host, int port, Duration timeout) {
+        this(host, port, timeout, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    public KeyValueCacheStore(String host, int port, Duration timeout, int maxConnections) {
+        if (host == null || host.isBlank() || port <= 0 || port > 65535) {
+            throw new WeatherSdkException("Shared cache store address is invalid: " + host + ":" + port);
+        }
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+            throw new WeatherSdkException("Shared cache store timeout must be positive");
+        }
+        if (maxConnections <= 0) {
+            throw new WeatherSdkException("Shared cache store must allow at least one connection");
+        }
+        this.host = host;
+        this.port = port;
+        this.timeoutMillis = (int) Math.min(Integer.MAX_VALUE, timeout.toMillis());
+        this.permits = new Semaphore(maxConnections);
+    }
+
+    @Override
+    public SharedEntry get(String cityName) {
+        String operation = "GET '" + cityName + "'";
+        Connection connection = borrow(operation);
+        if (connection == null) {
+            return null;
+        }
+        try {
+            SharedEntry entry = connection.get(cityName);
+            giveBack(connection);
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            discard(connection, operation, e);
+            return null;
+        }
+    }
+
+    @Override
+    public Map<String, SharedEntry> getAll(Collection<String> cityNames) {
+        if (cityNames.isEmpty()) {
+            return Map.of();
+        }
+        String operation = "GET of " + cityNames.size() + " cities";
+        Connection connection = borrow(operation);
+        if (connection == null) {
+            return Map.of();
+        }
+        try {
+            Map<String, SharedEntry> entries = connection.getAll(List.copyOf(cityNames));
+            giveBack(connection);
+            return entries;
+        } catch (IOException | RuntimeException e) {
+            discard(connection, operation, e);
+            return Map.of();
+        }
+    }
+
+    @Override
+    public void put(String cityName, String data, long expiresAtEpochMillis) {
+        String operation = "SET '" + cityName + "'";
+        Connection connection = borrow(operation);
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.put(cityName, data, expiresAtEpochMillis);
+            giveBack(connection);
+        } catch (IOException | RuntimeException e) {
+            discard(connection, operation, e);
+        }
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        closeIdle();
+    }
+
+    private Connection borrow(String operation) {
+        if (closed || !allowRequest()) {
+            return null;
+        }
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.debug("No free shared cache store connection for {}", operation);
+                probing.set(false);
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            probing.set(false);
+            return null;
+        }
+        Connection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        try {
+            return new Connection(host, port, timeoutMillis);
+        } catch (IOException e) {
+            permits.release();
+            fail(operation, e);
+            return null;
+        }
+    }
+
+    private boolean allowRequest() {
+        if (!open) {
+            return true;
+        }
+        return System.nanoTime() - retryAtNanos >= 0 && probing.compareAndSet(false, true);
+    }
+
+    private void giveBack(Connection connection) {
+        if (open) {
+            open = false;
+            backoffNanos = INITIAL_BACKOFF.toNanos();
+            log.info("Shared cache store {}:{} is reachable again", host, port);
+        }
+        probing.set(false);
+        if (closed) {
+            connection.close();
+        } else {
+            idle.offer(connection);
+        }
+        permits.release();
+    }
+
+    private void discard(Connection connection, String operation, Exception cause) {
+        connection.close();
+        permits.release();
+        fail(operation, cause);
+    }
+
+    private void fail(String operation, Exception cause) {
+        long backoff = open ? Math.min(backoffNanos * 2, MAX_BACKOFF.toNanos()) : INITIAL_BACKOFF.toNanos();
+        backoffNanos = backoff;
+        retryAtNanos = System.nanoTime() + backoff;
+        open = true;
+        probing.set(false);
+        closeIdle();
+        log.warn("Shared cache store {}:{} failed on {}: {}; skipping it for {} ms",
+                host, port, operation, cause.getMessage(), TimeUnit.NANOSECONDS.toMillis(backoff));
+    }
+
+    private void closeIdle() {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private static String encode(String cityName) {
+        return URLEncoder.encode(cityName, StandardCharsets.UTF_8);
+    }
+
+    private static final class Connection {
+
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        private Connection(String host, int port, int timeoutMillis) throws IOException {
+            Socket connected = new Socket();
+            try {
+                connected.connect(new InetSocketAddress(host, port), timeoutMillis);
+                connected.setSoTimeout(timeoutMillis);
+                connected.setTcpNoDelay(true);
+                this.in = new BufferedInputStream(connected.getInputStream());
+                this.out = new BufferedOutputStream(connected.getOutputStream());
+            } catch (IOException e) {
+                connected.close();
+                throw e;
+            }
+            this.socket = connected;
+            log.debug("Connected to shared cache store {}:{}", host, port);
+        }
+
+        private SharedEntry get(String cityName) throws IOException {
+            out.write(("GET " + encode(cityName) + "\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return readEntry();
+        }
+
+        private Map<String, SharedEntry> getAll(List<String> cityNames) throws IOException {
+            Map<String, SharedEntry> entries = new HashMap<>();
+            for (int start = 0; start < cityNames.size(); start += PIPELINE_DEPTH) {
+                List<String> batch = cityNames.subList(start, Math.min(cityNames.size(), start + PIPELINE_DEPTH));
+                for (String cityName : batch) {
+                    out.write(("GET " + encode(cityName) + "\n").getBytes(StandardCharsets.US_ASCII));
+                }
+                out.flush();
+                for (String cityName : batch) {
+                    SharedEntry entry = readEntry();
+                    if (entry != null) {
+                        entries.put(cityName, entry);
+                    }
+                }
+            }
+            return entries;
+        }
+
+        private SharedEntry readEntry() throws IOException {
+            String[] reply = readLine().split(" ");
+            if ("MISS".equals(reply[0])) {
+                return null;
+            }
+            if (!"VALUE".equals(reply[0]) || reply.length != 3) {
+                throw new IOException("Unexpected reply: " + String.join(" ", reply));
+            }
+            long expiresAt = Long.parseLong(reply[1]);
+            byte[] payload = in.readNBytes(Integer.parseInt(reply[2]));
+            readLine();
+            return new SharedEntry(new String(payload, StandardCharsets.UTF_8), expiresAt);
+        }
+
+        private void put(String cityName, String data, long expiresAtEpochMillis) throws IOException {
+            byte[] payload = data.getBytes(StandardCharsets.UTF_8);
+            out.write(("SET " + encode(cityName) + " " + expiresAtEpochMillis + " " + payload.length + "\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.write(payload);
+            out.write('\n');
+            out.flush();
+            String reply = readLine();
+            if (!"OK".equals(reply)) {
+                throw new IOException("Unexpected reply: " + reply);
+            }
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0 || line.length() >= MAX_LINE) {
+                    throw new IOException("Shared cache store closed the connection or sent a malformed line");
+                }
+                line.append((char) b);
+            }
+            return line.toString();
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Failed to close shared cache store connection: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+@Name("ru.practicum.weather.LockWait")
+@Label("Lock Wait")
+@Description("Time a thread waited for one of the SDK's locks")
+@Category({"Weather SDK", "Locks"})
+final class LockWaitEvent extends jdk.jfr.Event {
+
+    @Label("Lock")
+    String lock;
+
+    static void lock(ReentrantLock lock, String name) {
+        if (lock.tryLock()) {
+            return;
+        }
+        LockWaitEvent event = new LockWaitEvent();
+        event.begin();
+        lock.lock();
+        if (event.shouldCommit()) {
+            event.lock = name;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+@Slf4j
+public class OffHeapStore {
+
+    public static final int DEFAULT_SLOT_SIZE = 384;
+    public static final int DEFAULT_SLOTS_PER_SLAB = 4096;
+
+    private final int slotSize;
+    private final int slotsPerSlab;
+    private final StampedLock lock = new StampedLock();
+    private ByteBuffer[] slabs = new ByteBuffer[0];
+    private int[] freeSlots = new int[0];
+    private int freeCount;
+    private int usedSlots;
+    private int epoch;
+
+    public OffHeapStore() {
+        this(DEFAULT_SLOT_SIZE, DEFAULT_SLOTS_PER_SLAB);
+    }
+
+    public OffHeapStore(int slotSize, int slotsPerSlab) {
+        if (slotSize <= 0 || slotsPerSlab <= 0) {
+            throw new WeatherSdkException("Off-heap slot size and slots per slab must be greater than 0");
+        }
+        this.slotSize = slotSize;
+        this.slotsPerSlab = slotsPerSlab;
+    }
+
+    public Handle store(byte[] payload) {
+        if (payload.length > slotSize) {
+            return null;
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (freeCount == 0) {
+                addSlab();
+            }
+            int slot = freeSlots[--freeCount];
+            slabs[slot / slotsPerSlab].put(offset(slot), payload);
+            usedSlots++;
+            return new Handle(slot, payload.length, epoch);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public byte[] read(Handle handle) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            byte[] payload = copy(handle);
+            if (lock.validate(stamp)) {
+                return payload;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return copy(handle);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void release(Handle handle) {
+        long stamp = lock.writeLock();
+        try {
+            if (!handle.released && handle.epoch == epoch) {
+                handle.released = true;
+                freeSlots[freeCount++] = handle.slot;
+                usedSlots--;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            slabs = new ByteBuffer[0];
+            freeSlots = new int[0];
+            freeCount = 0;
+            usedSlots = 0;
+            epoch++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return usedSlots;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long reservedBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) slabs.length * slotsPerSlab * slotSize;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private byte[] copy(Handle handle) {
+        ByteBuffer[] current = slabs;
+        int slab = handle.slot / slotsPerSlab;
+        if (handle.released || handle.epoch != epoch || slab >= current.length) {
+            return null;
+        }
+        byte[] payload = new byte[handle.length];
+        current[slab].get(offset(handle.slot), payload);
+        return payload;
+    }
+
+    private void addSlab() {
+        int firstSlot = slabs.length * slotsPerSlab;
+        slabs = Arrays.copyOf(slabs, slabs.length + 1);
+        slabs[slabs.length - 1] = ByteBuffer.allocateDirect(slotsPerSlab * slotSize);
+        freeSlots = Arrays.copyOf(freeSlots, slabs.length * slotsPerSlab);
+        for (int slot = firstSlot + slotsPerSlab - 1; slot >= firstSlot; slot--) {
+            freeSlots[freeCount++] = slot;
+        }
+        log.debug("Allocated off-heap slab #{} ({} bytes)", slabs.length, slotsPerSlab * slotSize);
+    }
+
+    private int offset(int slot) {
+        return slot % slotsPerSlab * slotSize;
+    }
+
+    public static final class Handle {
+
+        private final int slot;
+        private final int length;
+        private final int epoch;
+        private boolean released;
+
+        private Handle(int slot, int length, int epoch) {
+            this.slot = slot;
+            this.length = length;
+            this.epoch = epoch;
+        }
+    }
+}
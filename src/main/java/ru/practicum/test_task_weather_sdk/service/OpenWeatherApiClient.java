@@ -1,43 +1,85 @@
 package ru.practicum.test_task_weather_sdk.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
+import ru.practicum.test_task_weather_sdk.dto.Coord;
+import ru.practicum.test_task_weather_sdk.dto.Forecast;
+import ru.practicum.test_task_weather_sdk.dto.ForecastMetric;
+import ru.practicum.test_task_weather_sdk.dto.SdkEventType;
 import ru.practicum.test_task_weather_sdk.dto.WeatherResponse;
 import ru.practicum.test_task_weather_sdk.exception.*;
 
-import java.util.Map;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class OpenWeatherApiClient {
 
-    private static final String BASE_URL = "https://api.openweathermap.org/data/3.0";
+    static final String BASE_URL = "https://api.openweathermap.org/data/3.0";
+    public static final int MAX_GROUP_SIZE = 20;
+    public static final int DEFAULT_MAX_BODY_BYTES = 256 * 1024;
+    public static final int DEFAULT_MAX_ERROR_BODY_BYTES = 8 * 1024;
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    public interface RefreshTarget {
+
+        boolean isUnchanged(long fingerprint);
+
+        void update(String weatherData, long fingerprint);
+    }
+
     private final WebClient webClient;
-    private final String apiKey;
+    @Getter
+    private final ApiKeyPool apiKeyPool;
+    @Getter
+    private final CityIdIndex cityIdIndex = new CityIdIndex();
+    private volatile SdkEventDispatcher eventDispatcher = SdkEventDispatcher.DISABLED;
+    @Getter
+    private volatile int maxBodyBytes = DEFAULT_MAX_BODY_BYTES;
+    @Getter
+    private volatile int maxErrorBodyBytes = DEFAULT_MAX_ERROR_BODY_BYTES;
 
     public OpenWeatherApiClient(String apiKey) {
-        if (apiKey == null || apiKey.trim().isEmpty()) {
-            throw new InvalidApiKeyException("API key cannot be null or empty");
-        }
-        this.apiKey = apiKey;
-        this.webClient = WebClient
-                .builder()
-                .baseUrl(BASE_URL)
-                .build();
+        this(apiKey, BASE_URL);
     }
 
     public OpenWeatherApiClient(String apiKey, String baseUrl) {
-        if (apiKey == null || apiKey.trim().isEmpty()) {
-            throw new InvalidApiKeyException("API key cannot be null or empty");
+        this(singleKeyPool(apiKey), baseUrl);
+    }
+
+    public OpenWeatherApiClient(ApiKeyPool apiKeyPool, String baseUrl) {
+        if (apiKeyPool == null) {
+            throw new InvalidApiKeyException("API key pool cannot be null");
         }
-        this.apiKey = apiKey;
+        this.apiKeyPool = apiKeyPool;
         this.webClient = WebClient
                 .builder()
                 .baseUrl(baseUrl)
+                .filter(OpenWeatherApiClient::recordFetch)
                 .build();
     }
 
@@ -45,75 +87,372 @@ public class OpenWeatherApiClient {
         if (cityName == null || cityName.trim().isEmpty()) {
             throw new InvalidCityException("City name cannot be null or empty");
         }
+        String target = "city='" + cityName + "'";
+        return withPooledKey(target, apiKey -> fetchWeather(target, uriBuilder -> uriBuilder
+                        .path("/weather")
+                        .queryParam("q", cityName)
+                        .queryParam("appid", apiKey)
+                        .queryParam("units", "imperial")
+                        .build(),
+                response -> learnCity(cityName, response)));
+    }
+
+    public String fetchWeatherByCoordinates(double lat, double lon) {
+        GeoGrid.validateCoordinates(lat, lon);
+        String target = "lat=" + lat + ", lon=" + lon;
+        return withPooledKey(target, apiKey -> fetchWeather(target, uriBuilder -> uriBuilder
+                        .path("/weather")
+                        .queryParam("lat", lat)
+                        .queryParam("lon", lon)
+                        .queryParam("appid", apiKey)
+                        .queryParam("units", "imperial")
+                        .build(),
+                response -> { }));
+    }
+
+    public Forecast fetchForecast(double lat, double lon) {
+        GeoGrid.validateCoordinates(lat, lon);
+        String target = "forecast lat=" + lat + ", lon=" + lon;
+        return withPooledKey(target, apiKey -> {
+            try {
+                Forecast forecast = retrieve(uriBuilder -> uriBuilder
+                                .path("/onecall")
+                                .queryParam("lat", lat)
+                                .queryParam("lon", lon)
+                                .queryParam("exclude", "current,minutely,daily,alerts")
+                                .queryParam("appid", apiKey)
+                                .queryParam("units", "imperial")
+                                .build())
+                        .toEntityFlux(DataBuffer.class)
+                        .flatMap(entity -> ResponseBodies.bytes(entity.getBody(), entity.getHeaders(), maxBodyBytes))
+                        .map(body -> {
+                            try {
+                                return parseForecast(body);
+                            } catch (IOException e) {
+                                throw new JsonParsingException("Failed to parse forecast response", e);
+                            }
+                        })
+                        .onErrorMap(ex -> !(ex instanceof WeatherSdkException),
+                                ex -> new NetworkException("Network error: " + ex.getMessage(), ex))
+                        .block();
+                if (forecast == null) {
+                    throw new JsonParsingException("Empty forecast response", null);
+                }
+                log.info("Successfully fetched {}-hour forecast for {}", forecast.size(), target);
+                return forecast;
+            } catch (WeatherSdkException e) {
+                log.info("WeatherSdkException occurred for {}: {}", target, e.getMessage());
+                throw e;
+            } catch (Exception e) {
+                log.error("Unexpected network error for {}: {}", target, e.getMessage(), e);
+                throw new NetworkException("Unexpected network error: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    public int fetchWeatherGroup(List<Long> cityIds, BiConsumer<Long, String> consumer) {
+        return refreshWeatherGroup(cityIds, cityId -> new RefreshTarget() {
+            @Override
+            public boolean isUnchanged(long fingerprint) {
+                return false;
+            }
+
+            @Override
+            public void update(String weatherData, long fingerprint) {
+                consumer.accept(cityId, weatherData);
+            }
+        });
+    }
+
+    public int refreshWeatherGroup(List<Long> cityIds, LongFunction<RefreshTarget> targets) {
+        if (cityIds == null || cityIds.isEmpty()) {
+            throw new InvalidCityException("City ids cannot be null or empty");
+        }
+        if (cityIds.size() > MAX_GROUP_SIZE) {
+            throw new WeatherSdkException("Group request cannot contain more than " + MAX_GROUP_SIZE + " cities");
+        }
+        String ids = cityIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return withPooledKey("group=" + ids, apiKey -> fetchWeatherGroup(ids, apiKey, targets));
+    }
+
+    public void setBodyLimits(int maxBodyBytes, int maxErrorBodyBytes) {
+        if (maxBodyBytes <= 0 || maxErrorBodyBytes <= 0) {
+            throw new WeatherSdkException("Response body limits must be greater than 0");
+        }
+        this.maxBodyBytes = maxBodyBytes;
+        this.maxErrorBodyBytes = maxErrorBodyBytes;
+        log.info("Response body limits set to {} bytes, {} bytes for errors", maxBodyBytes, maxErrorBodyBytes);
+    }
+
+    void setEventDispatcher(SdkEventDispatcher eventDispatcher) {
+        this.eventDispatcher = eventDispatcher;
+    }
+
+    public OptionalLong findCityId(String cityName) {
+        Long cityId = cityIdIndex.findId(cityName);
+        return cityId == null ? OptionalLong.empty() : OptionalLong.of(cityId);
+    }
+
+    private <T> T withPooledKey(String target, Function<String, T> call) {
+        for (int attempt = 1; ; attempt++) {
+            String apiKey = apiKeyPool.acquire();
+            SdkEventDispatcher events = eventDispatcher;
+            long start = events.isActive() ? System.nanoTime() : 0;
+            try {
+                return call.apply(apiKey);
+            } catch (InvalidApiKeyException | ApiKeyBlockedException e) {
+                apiKeyPool.disable(apiKey, e.getMessage());
+                if (!apiKeyPool.hasActiveKeys()) {
+                    throw e;
+                }
+                log.info("Retrying {} with the next API key from the pool", target);
+                events.publish(SdkEventType.RETRY, target, false, attempt, e, start);
+            }
+        }
+    }
+
+    private String fetchWeather(String target, Function<UriBuilder, URI> uriFunction,
+                                Consumer<WeatherResponse> onResponse) {
         try {
-            String result = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/weather")
-                            .queryParam("q", cityName)
+            String result = retrieve(uriFunction)
+                    .toEntityFlux(DataBuffer.class)
+                    .flatMap(entity -> ResponseBodies.decode(entity.getBody(), entity.getHeaders(), maxBodyBytes,
+                            OBJECT_MAPPER, WeatherResponse.class))
+                    .map(response -> {
+                        String weather = convertToRequiredFormat(response);
+                        onResponse.accept(response);
+                        return weather;
+                    })
+                    .onErrorMap(ex -> !(ex instanceof WeatherSdkException),
+                            ex -> new NetworkException("Network error: " + ex.getMessage(), ex))
+                    .block();
+
+            log.info("Successfully fetched weather for {}", target);
+            return result;
+        } catch (WeatherSdkException e) {
+            log.info("WeatherSdkException occurred for {}: {}", target, e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("Unexpected network error for {}: {}", target, e.getMessage(), e);
+            throw new NetworkException("Unexpected network error: " + e.getMessage(), e);
+        }
+    }
+
+    private int fetchWeatherGroup(String ids, String apiKey, LongFunction<RefreshTarget> targets) {
+        try {
+            Integer delivered = retrieve(uriBuilder -> uriBuilder
+                            .path("/group")
+                            .queryParam("id", ids)
                             .queryParam("appid", apiKey)
                             .queryParam("units", "imperial")
                             .build())
-                    .retrieve()
-                    .onStatus(HttpStatusCode::is4xxClientError, response ->
-                            response.bodyToMono(String.class)
-                                    .flatMap(errorBody ->
-                                            handleErrorResponse(response.statusCode(), errorBody))
-                    )
-                    .onStatus(HttpStatusCode::is5xxServerError, response ->
-                            response.bodyToMono(String.class)
-                                    .flatMap(errorBody ->
-                                            Mono.error(new UnexpectedApiException(
-                                                    "OpenWeather API server error: " + errorBody, null)))
-                    )
-                    .bodyToMono(WeatherResponse.class)
-                    .map(this::convertToRequiredFormat)
+                    .toEntityFlux(DataBuffer.class)
+                    .flatMap(entity -> ResponseBodies.group(entity.getBody(), entity.getHeaders(), maxBodyBytes,
+                            OBJECT_MAPPER, (cityId, body, offset, length) ->
+                                    deliverGroupEntry(cityId, body, offset, length, targets)))
                     .onErrorMap(ex -> !(ex instanceof WeatherSdkException),
                             ex -> new NetworkException("Network error: " + ex.getMessage(), ex))
                     .block();
 
-            log.info("Successfully fetched weather for city='{}'", cityName);
-            return result;
+            log.info("Successfully fetched weather for {} cities in group request", delivered);
+            return delivered == null ? 0 : delivered;
         } catch (WeatherSdkException e) {
-            log.info("WeatherSdkException occurred for city='{}': {}", cityName, e.getMessage());
+            log.info("WeatherSdkException occurred for group='{}': {}", ids, e.getMessage());
             throw e;
         } catch (Exception e) {
-            log.error("Unexpected network error for city='{}': {}", cityName, e.getMessage(), e);
+            log.error("Unexpected network error for group='{}': {}", ids, e.getMessage(), e);
             throw new NetworkException("Unexpected network error: " + e.getMessage(), e);
         }
     }
 
-    private String convertToRequiredFormat(WeatherResponse response) {
+    private boolean deliverGroupEntry(long cityId, byte[] body, int offset, int length,
+                                      LongFunction<RefreshTarget> targets) {
+        RefreshTarget target = cityId > 0 ? targets.apply(cityId) : null;
+        if (target == null) {
+            log.warn("Skipping unexpected entry in group response (id={})", cityId);
+            return false;
+        }
+        long fingerprint = fingerprint(body, offset, offset + length);
+        if (target.isUnchanged(fingerprint)) {
+            return true;
+        }
         try {
-            return OBJECT_MAPPER.writeValueAsString(Map.of(
-                    "weather", Map.of(
-                            "main", response.getWeather()[0].getMain(),
-                            "description", response.getWeather()[0].getDescription()
-                    ),
-                    "temperature", Map.of(
-                            "temp", response.getTemperature().getTemp(),
-                            "feels_like", response.getTemperature().getFeelsLike()
-                    ),
-                    "visibility", response.getVisibility(),
-                    "wind", Map.of(
-                            "speed", response.getWind().getSpeed()
-                    ),
-                    "datetime", response.getDatetime(),
-                    "sun", Map.of(
-                            "sunrise", response.getSun().getSunrise(),
-                            "sunset", response.getSun().getSunset()
-                    ),
-                    "timezone", response.getTimezone(),
-                    "name", response.getName()
-            ));
+            WeatherResponse response = OBJECT_MAPPER.readValue(body, offset, length, WeatherResponse.class);
+            target.update(convertToRequiredFormat(response), fingerprint);
+            return true;
+        } catch (WeatherSdkException e) {
+            log.warn("Skipping city id={} in group response: {}", cityId, e.getMessage());
+            return false;
+        } catch (IOException e) {
+            throw new JsonParsingException("Failed to parse group response", e);
+        }
+    }
+
+    private static long fingerprint(byte[] body, int from, int to) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ body[i]) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static Forecast parseForecast(byte[] body) throws IOException {
+        long[] timestamps = new long[48];
+        float[] values = new float[48 * Forecast.STRIDE];
+        int hours = 0;
+        try (JsonParser parser = OBJECT_MAPPER.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParsingException("Forecast response is not a JSON object", null);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"hourly".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    if (hours == timestamps.length) {
+                        timestamps = Arrays.copyOf(timestamps, hours * 2);
+                        values = Arrays.copyOf(values, hours * 2 * Forecast.STRIDE);
+                    }
+                    int base = hours * Forecast.STRIDE;
+                    long timestamp = 0;
+                    Arrays.fill(values, base, base + Forecast.STRIDE, Float.NaN);
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String hourField = parser.currentName();
+                        parser.nextToken();
+                        switch (hourField) {
+                            case "dt" -> timestamp = parser.getLongValue();
+                            case "temp" -> values[base + ForecastMetric.TEMPERATURE.ordinal()] = parser.getFloatValue();
+                            case "feels_like" ->
+                                    values[base + ForecastMetric.FEELS_LIKE.ordinal()] = parser.getFloatValue();
+                            case "wind_speed" ->
+                                    values[base + ForecastMetric.WIND_SPEED.ordinal()] = parser.getFloatValue();
+                            case "pop" -> values[base + ForecastMetric.PRECIPITATION_PROBABILITY.ordinal()] =
+                                    parser.getFloatValue();
+                            default -> parser.skipChildren();
+                        }
+                    }
+                    if (timestamp > 0 && (hours == 0 || timestamp > timestamps[hours - 1])) {
+                        timestamps[hours++] = timestamp;
+                    }
+                }
+            }
+        }
+        return new Forecast(Arrays.copyOf(timestamps, hours), Arrays.copyOf(values, hours * Forecast.STRIDE));
+    }
+
+    private void learnCity(String cityName, WeatherResponse response) {
+        cityIdIndex.register(cityName, response.getId(), response.getName(),
+                response.getSun() == null ? null : response.getSun().getCountry());
+        Coord coord = response.getCoord();
+        if (coord != null && coord.getLat() != null && coord.getLon() != null) {
+            cityIdIndex.registerCoordinates(cityName, coord.getLat(), coord.getLon());
+        }
+    }
+
+    private WebClient.ResponseSpec retrieve(Function<UriBuilder, URI> uriFunction) {
+        return webClient.get()
+                .uri(uriFunction)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, response ->
+                        errorMessage(response)
+                                .flatMap(errorMessage ->
+                                        handleErrorResponse(response.statusCode(), errorMessage))
+                )
+                .onStatus(HttpStatusCode::is5xxServerError, response ->
+                        errorMessage(response)
+                                .flatMap(errorMessage ->
+                                        Mono.error(new UnexpectedApiException(
+                                                "OpenWeather API server error: " + errorMessage, null)))
+                );
+    }
+
+    private Mono<String> errorMessage(ClientResponse response) {
+        return ResponseBodies.errorMessage(response.bodyToFlux(DataBuffer.class), OBJECT_MAPPER, maxErrorBodyBytes);
+    }
+
+
+    private static Mono<ClientResponse> recordFetch(ClientRequest request, ExchangeFunction next) {
+        if (!new UpstreamFetchEvent().isEnabled()) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            UpstreamFetchEvent event = new UpstreamFetchEvent();
+            event.begin();
+            return next.exchange(request)
+                    .doOnError(e -> commitFetch(event, request, 0, 0, e.getClass().getSimpleName()))
+                    .doOnCancel(() -> commitFetch(event, request, 0, 0, "Cancelled"))
+                    .map(response -> {
+                        AtomicLong bytes = new AtomicLong();
+                        return response.mutate()
+                                .body(body -> body
+                                        .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                                        .doFinally(signal -> commitFetch(event, request,
+                                                response.statusCode().value(), bytes.get(), null)))
+                                .build();
+                    });
+        });
+    }
+
+    private static void commitFetch(UpstreamFetchEvent event, ClientRequest request, int status, long bytes,
+                                    String error) {
+        if (event.shouldCommit()) {
+            MultiValueMap<String, String> query = UriComponentsBuilder.fromUri(request.url())
+                    .build().getQueryParams();
+            event.endpoint = request.url().getPath();
+            event.target = query.containsKey("q") ? query.getFirst("q")
+                    : query.containsKey("id") ? query.getFirst("id")
+                    : query.getFirst("lat") + "," + query.getFirst("lon");
+            event.status = status;
+            event.bytes = bytes;
+            event.error = error;
+            event.commit();
+        }
+    }
+
+    private static ApiKeyPool singleKeyPool(String apiKey) {
+        if (apiKey == null || apiKey.trim().isEmpty()) {
+            throw new InvalidApiKeyException("API key cannot be null or empty");
+        }
+        return new ApiKeyPool(List.of(apiKey));
+    }
+
+    private String convertToRequiredFormat(WeatherResponse response) {
+        WeatherResponseValidator.validate(response);
+        StringWriter json = new StringWriter(320);
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(json)) {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("weather");
+            generator.writeStringField("main", response.getWeather()[0].getMain());
+            generator.writeStringField("description", response.getWeather()[0].getDescription());
+            generator.writeEndObject();
+            generator.writeObjectFieldStart("temperature");
+            generator.writeNumberField("temp", response.getTemperature().getTemp());
+            generator.writeNumberField("feels_like", response.getTemperature().getFeelsLike());
+            generator.writeEndObject();
+            generator.writeNumberField("visibility", response.getVisibility());
+            generator.writeObjectFieldStart("wind");
+            generator.writeNumberField("speed", response.getWind().getSpeed());
+            generator.writeEndObject();
+            generator.writeNumberField("datetime", response.getDatetime());
+            generator.writeObjectFieldStart("sun");
+            generator.writeNumberField("sunrise", response.getSun().getSunrise());
+            generator.writeNumberField("sunset", response.getSun().getSunset());
+            generator.writeEndObject();
+            generator.writeNumberField("timezone", response.getTimezone());
+            generator.writeStringField("name", response.getName());
+            generator.writeEndObject();
         } catch (Exception e) {
             log.error("Error converting the response to JSON: {}", e.getMessage(), e);
             throw new WeatherSdkException("Error processing weather data", e);
         }
+        return json.toString();
     }
 
-    private Mono<Throwable> handleErrorResponse(HttpStatusCode status, String error) {
-        log.warn("Client error from OpenWeather API (status={}): {}", status.value(), error);
-        String errorMessage = extractErrorMessage(error);
+    private Mono<Throwable> handleErrorResponse(HttpStatusCode status, String errorMessage) {
+        log.warn("Client error from OpenWeather API (status={}): {}", status.value(), errorMessage);
         return switch (status.value()) {
             case 401 -> Mono.error(new InvalidApiKeyException("Invalid API Key: " + errorMessage));
             case 403 -> Mono.error(new ApiKeyBlockedException("API Key blocked: " + errorMessage));
@@ -121,14 +460,4 @@ public class OpenWeatherApiClient {
             default -> Mono.error(new WeatherSdkException("API error: " + errorMessage));
         };
     }
-
-    private String extractErrorMessage(String error) {
-        try {
-            Map<String, Object> errorMap = OBJECT_MAPPER.readValue(error, Map.class);
-            return (String) errorMap.getOrDefault("message", "Unknown error");
-        } catch (Exception e) {
-            log.error("Failed to parse error response: {}", e.getMessage(), e);
-            return "Unknown error (failed to parse response)";
-        }
-    }
 }
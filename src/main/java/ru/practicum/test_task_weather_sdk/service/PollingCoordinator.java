@@ -0,0 +1,10 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import java.util.List;
+
+public interface PollingCoordinator {
+
+    String localNodeId();
+
+    List<String> members();
+}
@@ -0,0 +1,34 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ru.practicum.weather.PollingCycle")
+@Label("Polling Cycle")
+@Description("One refresh cycle of the polling updater")
+@Category({"Weather SDK", "Polling"})
+@StackTrace(false)
+final class PollingCycleEvent extends jdk.jfr.Event {
+
+    @Label("Cached Cities")
+    int cities;
+
+    @Label("Refreshed Cities")
+    int refreshed;
+
+    @Label("Unchanged Cities")
+    int unchanged;
+
+    @Label("Fresh Cities")
+    @Description("Cities skipped because they were refreshed since the previous cycle")
+    int fresh;
+
+    @Label("Expiry Misses")
+    int expiryMisses;
+
+    @Label("Failed Requests")
+    int failures;
+}
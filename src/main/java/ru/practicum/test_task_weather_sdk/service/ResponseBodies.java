@@ -0,0 +1,377 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.test_task_weather_sdk.exception.JsonParsingException;
+import ru.practicum.test_task_weather_sdk.exception.NetworkException;
+import ru.practicum.test_task_weather_sdk.exception.UnexpectedApiException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+final class ResponseBodies {
+
+    static final String UNKNOWN_ERROR = "Unknown error";
+
+    private ResponseBodies() {
+    }
+
+    @FunctionalInterface
+    interface GroupEntryHandler {
+
+        boolean accept(long cityId, byte[] bytes, int offset, int length);
+    }
+
+    static <T> Mono<T> decode(Flux<DataBuffer> body, HttpHeaders headers, int maxBytes,
+                              ObjectMapper mapper, Class<T> type) {
+        Mono<T> rejected = rejectHeaders(body, headers, maxBytes);
+        if (rejected != null) {
+            return rejected;
+        }
+        return Mono.using(() -> new ObjectReader(mapper, maxBytes),
+                reader -> body.doOnNext(buffer -> feed(reader, buffer))
+                        .then(Mono.fromCallable(() -> reader.finish(type))),
+                ObjectReader::close);
+    }
+
+    static Mono<Integer> group(Flux<DataBuffer> body, HttpHeaders headers, int maxBytes,
+                               ObjectMapper mapper, GroupEntryHandler handler) {
+        Mono<Integer> rejected = rejectHeaders(body, headers, maxBytes);
+        if (rejected != null) {
+            return rejected;
+        }
+        return Mono.using(() -> new GroupScanner(mapper, maxBytes, handler),
+                scanner -> body.doOnNext(buffer -> feed(scanner, buffer))
+                        .then(Mono.fromCallable(scanner::finish)),
+                GroupScanner::close);
+    }
+
+    static Mono<byte[]> bytes(Flux<DataBuffer> body, HttpHeaders headers, int maxBytes) {
+        long contentLength = headers.getContentLength();
+        if (contentLength > maxBytes) {
+            return discard(body).then(Mono.error(tooLarge(contentLength, maxBytes)));
+        }
+        return DataBufferUtils.join(body, maxBytes)
+                .onErrorMap(DataBufferLimitException.class, e -> tooLarge(-1, maxBytes))
+                .map(buffer -> {
+                    try {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        return bytes;
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                });
+    }
+
+    static Mono<String> errorMessage(Flux<DataBuffer> body, ObjectMapper mapper, int maxBytes) {
+        return Mono.using(() -> new MessageScanner(mapper, maxBytes),
+                scanner -> body.<String>handle((buffer, sink) -> {
+                            String message;
+                            try {
+                                message = scanner.feed(buffer);
+                            } finally {
+                                DataBufferUtils.release(buffer);
+                            }
+                            if (message != null) {
+                                sink.next(message);
+                                sink.complete();
+                            }
+                        })
+                        .next()
+                        .switchIfEmpty(Mono.fromSupplier(scanner::finish)),
+                MessageScanner::close);
+    }
+
+    private static <T> Mono<T> rejectHeaders(Flux<DataBuffer> body, HttpHeaders headers, int maxBytes) {
+        MediaType contentType = headers.getContentType();
+        if (contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                && !contentType.getSubtype().endsWith("+json")) {
+            return discard(body).then(Mono.error(new NetworkException(
+                    "Unsupported OpenWeather response content type: " + contentType, null)));
+        }
+        long contentLength = headers.getContentLength();
+        if (contentLength > maxBytes) {
+            return discard(body).then(Mono.error(tooLarge(contentLength, maxBytes)));
+        }
+        return null;
+    }
+
+    private static void feed(StreamingParser parser, DataBuffer buffer) {
+        try {
+            if (!parser.push(buffer)) {
+                throw tooLarge(-1, parser.maxBytes);
+            }
+        } catch (IOException e) {
+            throw new JsonParsingException("Failed to parse OpenWeather response", e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static Mono<Void> discard(Flux<DataBuffer> body) {
+        return body.doOnNext(DataBufferUtils::release).next().then();
+    }
+
+    private static UnexpectedApiException tooLarge(long length, int maxBytes) {
+        return new UnexpectedApiException("OpenWeather response exceeds " + maxBytes + " bytes"
+                + (length >= 0 ? " (Content-Length " + length + ")" : ""), null);
+    }
+
+    private abstract static class StreamingParser implements AutoCloseable {
+
+        final JsonParser parser;
+        final int maxBytes;
+        private final ByteBufferFeeder feeder;
+        private long received;
+
+        StreamingParser(ObjectMapper mapper, int maxBytes) throws IOException {
+            this.parser = mapper.getFactory().createNonBlockingByteBufferParser();
+            this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+            this.maxBytes = maxBytes;
+        }
+
+        boolean push(DataBuffer buffer) throws IOException {
+            received += buffer.readableByteCount();
+            if (received > maxBytes) {
+                return false;
+            }
+            try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                while (chunks.hasNext()) {
+                    ByteBuffer chunk = chunks.next();
+                    onInput(chunk);
+                    feeder.feedInput(chunk);
+                    JsonToken token;
+                    while ((token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+                        if (!accept(token)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        void end() throws IOException {
+            feeder.endOfInput();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                if (!accept(token)) {
+                    return;
+                }
+            }
+        }
+
+        void onInput(ByteBuffer chunk) {
+        }
+
+        abstract boolean accept(JsonToken token) throws IOException;
+
+        @Override
+        public void close() {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static final class ObjectReader extends StreamingParser {
+
+        private final ObjectMapper mapper;
+        private final TokenBuffer tokens;
+        private boolean started;
+
+        private ObjectReader(ObjectMapper mapper, int maxBytes) throws IOException {
+            super(mapper, maxBytes);
+            this.mapper = mapper;
+            this.tokens = new TokenBuffer(parser);
+        }
+
+        @Override
+        boolean accept(JsonToken token) throws IOException {
+            if (!started && token != JsonToken.START_OBJECT) {
+                throw new JsonParsingException("OpenWeather response is not a JSON object", null);
+            }
+            started = true;
+            tokens.copyCurrentEvent(parser);
+            return true;
+        }
+
+        private <T> T finish(Class<T> type) {
+            try {
+                end();
+                if (!started) {
+                    throw new JsonParsingException("Empty OpenWeather response", null);
+                }
+                try (JsonParser buffered = tokens.asParser(mapper)) {
+                    return mapper.readValue(buffered, type);
+                }
+            } catch (IOException e) {
+                throw new JsonParsingException("Failed to parse OpenWeather response", e);
+            }
+        }
+    }
+
+    private static final class GroupScanner extends StreamingParser {
+
+        private final GroupEntryHandler handler;
+        private byte[] window = new byte[8 * 1024];
+        private int windowLength;
+        private long windowStart;
+        private boolean started;
+        private int depth;
+        private boolean listNext;
+        private boolean inList;
+        private boolean idNext;
+        private long entryStart = -1;
+        private long cityId;
+        private int delivered;
+
+        private GroupScanner(ObjectMapper mapper, int maxBytes, GroupEntryHandler handler) throws IOException {
+            super(mapper, maxBytes);
+            this.handler = handler;
+        }
+
+        @Override
+        void onInput(ByteBuffer chunk) {
+            long keepFrom = entryStart >= 0 ? entryStart : windowStart + windowLength;
+            int drop = (int) (keepFrom - windowStart);
+            System.arraycopy(window, drop, window, 0, windowLength - drop);
+            windowLength -= drop;
+            windowStart = keepFrom;
+            int length = chunk.remaining();
+            if (windowLength + length > window.length) {
+                window = Arrays.copyOf(window, Math.max(window.length * 2, windowLength + length));
+            }
+            chunk.duplicate().get(window, windowLength, length);
+            windowLength += length;
+        }
+
+        @Override
+        boolean accept(JsonToken token) throws IOException {
+            if (depth == 0 && token != JsonToken.START_OBJECT) {
+                throw new JsonParsingException("Group response is not a JSON object", null);
+            }
+            started = true;
+            boolean afterList = listNext;
+            boolean afterId = idNext;
+            listNext = false;
+            idNext = false;
+            if (token.isStructStart()) {
+                if (depth == 1 && afterList && token == JsonToken.START_ARRAY) {
+                    inList = true;
+                } else if (depth == 2 && inList && token == JsonToken.START_OBJECT) {
+                    entryStart = parser.currentLocation().getByteOffset() - 1;
+                    cityId = 0;
+                }
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+                if (depth == 2 && entryStart >= 0) {
+                    long entryEnd = parser.currentLocation().getByteOffset();
+                    if (handler.accept(cityId, window, (int) (entryStart - windowStart),
+                            (int) (entryEnd - entryStart))) {
+                        delivered++;
+                    }
+                    entryStart = -1;
+                } else if (depth == 1) {
+                    inList = false;
+                }
+            } else if (token == JsonToken.FIELD_NAME) {
+                listNext = depth == 1 && "list".equals(parser.currentName());
+                idNext = depth == 3 && "id".equals(parser.currentName());
+            } else if (afterId && token == JsonToken.VALUE_NUMBER_INT) {
+                cityId = parser.getLongValue();
+            }
+            return true;
+        }
+
+        private int finish() {
+            try {
+                end();
+            } catch (IOException e) {
+                throw new JsonParsingException("Failed to parse group response", e);
+            }
+            if (!started) {
+                throw new JsonParsingException("Empty group response", null);
+            }
+            if (depth != 0) {
+                throw new JsonParsingException("Group response is truncated", null);
+            }
+            return delivered;
+        }
+    }
+
+    private static final class MessageScanner extends StreamingParser {
+
+        private int depth;
+        private boolean messageNext;
+        private String message;
+        private boolean stopped;
+
+        private MessageScanner(ObjectMapper mapper, int maxBytes) throws IOException {
+            super(mapper, maxBytes);
+        }
+
+        private String feed(DataBuffer buffer) {
+            try {
+                if (!push(buffer)) {
+                    stopped = true;
+                }
+            } catch (IOException e) {
+                stopped = true;
+            }
+            return stopped ? result() : null;
+        }
+
+        @Override
+        boolean accept(JsonToken token) throws IOException {
+            if (depth == 0 && token != JsonToken.START_OBJECT) {
+                stopped = true;
+                return false;
+            }
+            if (messageNext && depth == 1) {
+                messageNext = false;
+                if (token == JsonToken.VALUE_STRING) {
+                    message = parser.getText();
+                    stopped = true;
+                    return false;
+                }
+            }
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            } else if (token == JsonToken.FIELD_NAME && depth == 1) {
+                messageNext = "message".equals(parser.currentName());
+            }
+            return true;
+        }
+
+        private String finish() {
+            if (!stopped) {
+                try {
+                    end();
+                } catch (IOException ignored) {
+                }
+            }
+            return result();
+        }
+
+        private String result() {
+            return message != null ? message : UNKNOWN_ERROR;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import ru.practicum.test_task_weather_sdk.dto.SdkEventType;
+
+@Getter
+public final class SdkEvent {
+
+    private SdkEventType type;
+    private String target;
+    private boolean hit;
+    private int attempt;
+    private String error;
+    private long startNanos;
+    private long durationNanos;
+    @Getter(AccessLevel.NONE)
+    private volatile long sequence = -1;
+
+    SdkEvent() {
+    }
+
+    public SdkEvent copy() {
+        SdkEvent copy = new SdkEvent();
+        copy.type = type;
+        copy.target = target;
+        copy.hit = hit;
+        copy.attempt = attempt;
+        copy.error = error;
+        copy.startNanos = startNanos;
+        copy.durationNanos = durationNanos;
+        return copy;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    void fill(SdkEventType type, String target, boolean hit, int attempt, Throwable error, long startNanos,
+              long endNanos) {
+        this.type = type;
+        this.target = target;
+        this.hit = hit;
+        this.attempt = attempt;
+        this.error = error == null ? null : error.getClass().getSimpleName();
+        this.startNanos = startNanos;
+        this.durationNanos = endNanos - startNanos;
+    }
+
+    void publish(long sequence) {
+        this.sequence = sequence;
+    }
+
+    boolean isPublished(long sequence) {
+        return this.sequence == sequence;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + target + (type == SdkEventType.CACHE_LOOKUP ? (hit ? " hit" : " miss") : "")
+                + (attempt > 0 ? " attempt " + attempt : "") + (error == null ? "" : " failed: " + error)
+                + " in " + durationNanos + " ns";
+    }
+}
@@ -0,0 +1,184 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.test_task_weather_sdk.dto.SdkEventType;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+public class SdkEventDispatcher {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    static final SdkEventDispatcher DISABLED = new SdkEventDispatcher(1);
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final int capacity;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private SdkEvent[] ring;
+    private volatile Thread worker;
+    private Thread retired;
+    private volatile SdkEventListener[] listeners = new SdkEventListener[0];
+    private volatile boolean active;
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    public SdkEventDispatcher() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SdkEventDispatcher(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new WeatherSdkException("Event buffer capacity must be a positive power of two");
+        }
+        this.capacity = capacity;
+    }
+
+    public synchronized void addListener(SdkEventListener listener) {
+        if (listener == null) {
+            throw new WeatherSdkException("SDK event listener cannot be null");
+        }
+        checkOpen();
+        if (Arrays.asList(listeners).contains(listener)) {
+            return;
+        }
+        SdkEventListener[] added = Arrays.copyOf(listeners, listeners.length + 1);
+        added[added.length - 1] = listener;
+        update(added);
+    }
+
+    public synchronized void setListeners(List<SdkEventListener> replacement) {
+        if (replacement == null || replacement.stream().anyMatch(Objects::isNull)) {
+            throw new WeatherSdkException("SDK event listeners cannot be null");
+        }
+        checkOpen();
+        update(replacement.stream().distinct().toArray(SdkEventListener[]::new));
+    }
+
+    public synchronized void removeListener(SdkEventListener listener) {
+        SdkEventListener[] remaining = Arrays.stream(listeners)
+                .filter(registered -> registered != listener)
+                .toArray(SdkEventListener[]::new);
+        if (remaining.length < listeners.length) {
+            update(remaining);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new WeatherSdkException("SDK event dispatcher is closed");
+        }
+    }
+
+    private void update(SdkEventListener[] registered) {
+        listeners = registered;
+        active = registered.length > 0;
+        if (active && worker == null) {
+            if (ring == null) {
+                ring = new SdkEvent[capacity];
+                for (int i = 0; i < capacity; i++) {
+                    ring[i] = new SdkEvent();
+                }
+            }
+            Thread previous = retired;
+            retired = null;
+            Thread started = new Thread(() -> deliver(previous),
+                    "weather-sdk-events-" + THREAD_COUNTER.incrementAndGet());
+            started.setDaemon(true);
+            worker = started;
+            started.start();
+        } else if (!active && worker != null) {
+            retired = worker;
+            worker = null;
+            LockSupport.unpark(retired);
+        }
+        log.info("SDK event listeners updated ({} registered)", registered.length);
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    public long getDeliveredEvents() {
+        return delivered.get();
+    }
+
+    public synchronized void close() {
+        closed = true;
+        active = false;
+        listeners = new SdkEventListener[0];
+        Thread current = worker;
+        if (current != null) {
+            current.interrupt();
+            worker = null;
+        }
+    }
+
+    void publish(SdkEventType type, String target, boolean hit, int attempt, Throwable error, long startNanos) {
+        if (!active) {
+            return;
+        }
+        long endNanos = System.nanoTime();
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= capacity) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        SdkEvent event = ring[(int) sequence & (capacity - 1)];
+        event.fill(type, target, hit, attempt, error, startNanos, endNanos);
+        event.publish(sequence);
+        if (waiting) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private void deliver(Thread previous) {
+        if (previous != null) {
+            try {
+                previous.join();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+        SdkEvent[] events = ring;
+        long next = consumed.get();
+        Thread self = Thread.currentThread();
+        while (!closed && worker == self) {
+            SdkEvent event = events[(int) next & (capacity - 1)];
+            if (!event.isPublished(next)) {
+                waiting = true;
+                if (!event.isPublished(next)) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+                waiting = false;
+                continue;
+            }
+            for (SdkEventListener listener : listeners) {
+                try {
+                    listener.onEvent(event);
+                } catch (RuntimeException e) {
+                    log.warn("SDK event listener failed on {}: {}", event.getType(), e.getMessage());
+                }
+            }
+            delivered.incrementAndGet();
+            consumed.set(++next);
+        }
+    }
+}
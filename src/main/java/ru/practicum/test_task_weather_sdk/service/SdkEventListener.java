@@ -0,0 +1,7 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+@FunctionalInterface
+public interface SdkEventListener {
+
+    void onEvent(SdkEvent event);
+}
@@ -0,0 +1,25 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import ru.practicum.test_task_weather_sdk.dto.SharedEntry;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public interface SharedCacheStore {
+
+    SharedEntry get(String cityName);
+
+    void put(String cityName, String data, long expiresAtEpochMillis);
+
+    default Map<String, SharedEntry> getAll(Collection<String> cityNames) {
+        Map<String, SharedEntry> entries = new HashMap<>();
+        for (String cityName : cityNames) {
+            SharedEntry entry = get(cityName);
+            if (entry != null) {
+                entries.put(cityName, entry);
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+
+import java.util.List;
+
+public class StaticPollingCoordinator implements PollingCoordinator {
+
+    private final String localNodeId;
+    private final List<String> members;
+
+    public StaticPollingCoordinator(String localNodeId, List<String> members) {
+        if (members == null || members.isEmpty()) {
+            throw new WeatherSdkException("Polling members cannot be null or empty");
+        }
+        if (localNodeId == null || !members.contains(localNodeId)) {
+            throw new WeatherSdkException("Local node '" + localNodeId + "' is not a polling member");
+        }
+        this.localNodeId = localNodeId;
+        this.members = List.copyOf(members);
+    }
+
+    @Override
+    public String localNodeId() {
+        return localNodeId;
+    }
+
+    @Override
+    public List<String> members() {
+        return members;
+    }
+}
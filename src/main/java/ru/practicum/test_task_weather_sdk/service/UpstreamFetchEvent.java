@@ -0,0 +1,34 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ru.practicum.weather.UpstreamFetch")
+@Label("Upstream Fetch")
+@Description("HTTP request to the OpenWeather API, from sending the request until the body has been read")
+@Category({"Weather SDK", "Upstream"})
+@StackTrace(false)
+final class UpstreamFetchEvent extends jdk.jfr.Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Target")
+    @Description("City name, city ids or coordinates of the request")
+    String target;
+
+    @Label("Status")
+    int status;
+
+    @Label("Body Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Error")
+    @Description("Exception class of a request that failed or was cancelled before a response arrived")
+    String error;
+}
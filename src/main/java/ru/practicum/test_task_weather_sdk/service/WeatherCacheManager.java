@@ -2,86 +2,483 @@ package ru.practicum.test_task_weather_sdk.service;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import ru.practicum.test_task_weather_sdk.dto.ExportFormat;
+import ru.practicum.test_task_weather_sdk.dto.OutputFormat;
+import ru.practicum.test_task_weather_sdk.dto.Units;
+import ru.practicum.test_task_weather_sdk.dto.SharedEntry;
 import ru.practicum.test_task_weather_sdk.exception.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 
 @Slf4j
 public class WeatherCacheManager {
 
-    private static final int MAX_CITIES = 10;
-    private static final Duration EXPIRATION_TIME = Duration.ofMinutes(10);
+    public static final int DEFAULT_MAX_CITIES = 10;
+    public static final Duration DEFAULT_EXPIRATION_TIME = Duration.ofMinutes(10);
 
-    private final Cache<String, String> cache;
-    private final ConcurrentLinkedQueue<String> cityOrder = new ConcurrentLinkedQueue<>();
-    private final ConcurrentHashMap<String, Boolean> citySet = new ConcurrentHashMap<>();
+    private static final byte[] ARRAY_START = {'['};
+    private static final byte[] ARRAY_SEPARATOR = {','};
+    private static final byte[] ARRAY_END = {']'};
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+    private static final byte[] SPACE = {' '};
+
+    private final Cache<String, CachedEntry> cache;
+    private final LinkedHashSet<String> cityOrder = new LinkedHashSet<>();
+    private final ConcurrentHashMap<String, Long> fingerprints = new ConcurrentHashMap<>();
     private final ReentrantLock lock = new ReentrantLock();
+    @Getter
+    private volatile int maxCities;
+    @Getter
+    private volatile Duration expirationTime;
+    @Getter
+    private volatile WeatherHistory history;
+    @Getter
+    private final WeatherChangePublisher changePublisher = new WeatherChangePublisher(this::forEachCached);
+    @Getter
+    private final CompactWeather.Conditions conditions = new CompactWeather.Conditions();
+    @Getter
+    private volatile boolean compactEntries;
+    @Getter
+    private final OffHeapStore offHeapStore = new OffHeapStore();
+    @Getter
+    private volatile boolean offHeapEntries;
+    @Getter
+    private volatile SharedCacheStore sharedStore;
+    private final Ticker ticker;
+    private volatile CitySnapshot citySnapshot;
+    private final AtomicLong cityVersion = new AtomicLong();
 
     WeatherCacheManager() {
         this(Ticker.systemTicker());
     }
 
     public WeatherCacheManager(Ticker ticker) {
+        this(DEFAULT_MAX_CITIES, DEFAULT_EXPIRATION_TIME, ticker);
+    }
+
+    public WeatherCacheManager(int maxCities, Duration expirationTime, Ticker ticker) {
+        validateLimits(maxCities, expirationTime);
+        this.maxCities = maxCities;
+        this.expirationTime = expirationTime;
+        this.ticker = ticker;
         this.cache = Caffeine.newBuilder()
-                .maximumSize(MAX_CITIES)
-                .expireAfterWrite(EXPIRATION_TIME)
+                .expireAfter(new Expiry<String, CachedEntry>() {
+                    @Override
+                    public long expireAfterCreate(String cityName, CachedEntry entry, long currentTime) {
+                        return WeatherCacheManager.this.expirationTime.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String cityName, CachedEntry entry, long currentTime,
+                                                  long currentDuration) {
+                        return WeatherCacheManager.this.expirationTime.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String cityName, CachedEntry entry, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .evictionListener((String cityName, CachedEntry entry, RemovalCause cause) -> {
+                    synchronized (cityOrder) {
+                        cityOrder.remove(cityName);
+                    }
+                    changePublisher.forget(cityName);
+                    fingerprints.remove(cityName);
+                    release(entry);
+                    invalidateSnapshot();
+                    recordEviction(cityName, cause);
+                    log.debug("Cache expired and removed for '{}'", cityName);
+                })
                 .ticker(ticker)
                 .build();
     }
 
-    public String getCached(final String cityName) {
+    public void reconfigure(int maxCities, Duration expirationTime) {
+        validateLimits(maxCities, expirationTime);
+        LockWaitEvent.lock(lock, "WeatherCacheManager");
+        try {
+            long extension = expirationTime.toNanos() - this.expirationTime.toNanos();
+            this.maxCities = maxCities;
+            this.expirationTime = expirationTime;
+            removeOldestEntry();
+            Policy.VarExpiration<String, CachedEntry> expiration = cache.policy().expireVariably().orElseThrow();
+            for (String city : cache.asMap().keySet()) {
+                expiration.getExpiresAfter(city, TimeUnit.NANOSECONDS).ifPresent(remaining ->
+                        expiration.setExpiresAfter(city, Math.max(0, remaining + extension), TimeUnit.NANOSECONDS));
+            }
+            invalidateSnapshot();
+            log.info("Cache reconfigured: maxCities={}, expiration={}", maxCities, expirationTime);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void setHistory(WeatherHistory history) {
+        this.history = history;
+        log.info(history == null ? "Weather history disabled" : "Weather history enabled");
+    }
+
+    public void setCompactEntries(boolean compactEntries) {
+        this.compactEntries = compactEntries;
+        log.info("Compact cache entries {}", compactEntries ? "enabled" : "disabled");
+    }
+
+    public void setOffHeapEntries(boolean offHeapEntries) {
+        this.offHeapEntries = offHeapEntries;
+        log.info("Off-heap cache entries {}", offHeapEntries ? "enabled" : "disabled");
+    }
+
+    public void setSharedStore(SharedCacheStore sharedStore) {
+        this.sharedStore = sharedStore;
+        log.info(sharedStore == null ? "Shared cache store disabled" : "Shared cache store enabled");
+    }
+
+    public boolean hasSharedStore() {
+        return sharedStore != null;
+    }
+
+    public String findCached(final String cityName) {
+        return findFresh(cityName, Long.MAX_VALUE);
+    }
+
+    private String loadShared(SharedCacheStore store, String cityName, long maxAgeNanos) {
+        return applyShared(cityName, store.get(cityName), maxAgeNanos);
+    }
+
+    private String applyShared(String cityName, SharedEntry entry, long maxAgeNanos) {
+        if (entry == null) {
+            return null;
+        }
+        long remainingMillis = entry.getExpiresAtEpochMillis() - System.currentTimeMillis();
+        if (remainingMillis <= 0 || entry.getData() == null || entry.getData().isBlank()) {
+            return null;
+        }
+        long ttl = Math.min(TimeUnit.MILLISECONDS.toNanos(remainingMillis), expirationTime.toNanos());
+        if (expirationTime.toNanos() - ttl > maxAgeNanos) {
+            return null;
+        }
+        CachedEntry current = cache.getIfPresent(cityName);
+        if (current != null && entry.getData().equals(json(cityName, current.data))) {
+            if (cache.asMap().replace(cityName, current, current.refetched(fetchTime(ttl)))) {
+                cache.policy().expireVariably().orElseThrow().setExpiresAfter(cityName, ttl, TimeUnit.NANOSECONDS);
+            }
+            return entry.getData();
+        }
+        write(cityName, entry.getData(), ttl, false);
+        fingerprints.remove(cityName);
+        log.debug("Loaded weather for '{}' from the shared store, expires in {} ms", cityName, remainingMillis);
+        return entry.getData();
+    }
+
+    public String findFresh(final String cityName, long maxAgeNanos) {
+        String data = findLocal(cityName, maxAgeNanos);
+        if (data != null) {
+            return data;
+        }
+        SharedCacheStore store = sharedStore;
+        return store == null ? null : loadShared(store, cityName, maxAgeNanos);
+    }
+
+    public String findLocal(final String cityName, long maxAgeNanos) {
         validateCityName(cityName);
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        CachedEntry entry = cache.getIfPresent(cityName);
+        boolean young = entry != null
+                && (maxAgeNanos == Long.MAX_VALUE || ticker.read() - entry.fetchedAt <= maxAgeNanos);
+        if (event.shouldCommit()) {
+            event.city = cityName;
+            event.hit = young;
+            event.commit();
+        }
+        log.trace("Cache lookup for '{}'", cityName);
+        return young ? json(cityName, entry.data) : null;
+    }
 
-        String data = cache.getIfPresent(cityName);
+    private long fetchTime(long remainingNanos) {
+        return ticker.read() - (expirationTime.toNanos() - remainingNanos);
+    }
+
+    public boolean pullShared(final String cityName) {
+        validateCityName(cityName);
+        SharedCacheStore store = sharedStore;
+        return store != null && loadShared(store, cityName, Long.MAX_VALUE) != null;
+    }
+
+    public Set<String> pullShared(final Collection<String> cityNames) {
+        SharedCacheStore store = sharedStore;
+        if (store == null || cityNames.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> pulled = new HashSet<>();
+        store.getAll(cityNames).forEach((cityName, entry) -> {
+            if (applyShared(cityName, entry, Long.MAX_VALUE) != null) {
+                pulled.add(cityName);
+            }
+        });
+        return pulled;
+    }
+
+    public String getCached(final String cityName) {
+        String data = findCached(cityName);
         if (data == null) {
-            log.warn("Weather for city '{}' is not found in cache", cityName);
+            log.debug("Weather for city '{}' is not found in cache", cityName);
             throw new CityNotFoundException("Weather for city '" + cityName + "' is not found in cache");
         }
-        log.info("Weather for city '{}' retrieved from cache", cityName);
         return data;
     }
 
     public void updateCache(final String cityName, final String data) {
+        write(cityName, data, expirationTime.toNanos(), true);
+        fingerprints.remove(cityName);
+    }
+
+    public void updateLocal(final String cityName, final String data) {
+        write(cityName, data, expirationTime.toNanos(), false);
+        fingerprints.remove(cityName);
+    }
+
+    public void updateCache(final String cityName, final String data, long fingerprint) {
+        write(cityName, data, expirationTime.toNanos(), true);
+        fingerprints.put(cityName, fingerprint);
+    }
+
+    public boolean refreshIfUnchanged(final String cityName, long fingerprint) {
+        Long known = fingerprints.get(cityName);
+        if (known == null || known != fingerprint) {
+            return false;
+        }
+        CachedEntry entry = cache.getIfPresent(cityName);
+        if (entry == null || !cache.asMap().replace(cityName, entry, entry.refetched(ticker.read()))) {
+            return false;
+        }
+        SharedCacheStore store = sharedStore;
+        if (store != null) {
+            String json = json(cityName, entry.data);
+            if (json != null) {
+                share(store, cityName, json);
+            }
+        }
+        return true;
+    }
+
+    private void write(final String cityName, final String data, long ttlNanos, boolean share) {
         validateCityName(cityName);
         if (data == null || data.trim().isEmpty()) {
             throw new WeatherSdkException("Weather cannot be null or empty for city: " + cityName);
         }
-        Boolean alreadyExists = citySet.putIfAbsent(cityName, true) != null;
-        cache.put(cityName, data);
-        synchronized (this) {
-            if (!alreadyExists) {
-                cityOrder.add(cityName);
-                log.info("Added new city '{}' to cache", cityName);
+        CachedEntry previous = changePublisher.hasSubscribers() ? cache.getIfPresent(cityName) : null;
+        String previousData = previous == null ? null : json(cityName, previous.data);
+        CachedEntry entry = new CachedEntry(storedForm(cityName, data), fetchTime(ttlNanos));
+        release(cache.policy().expireVariably().orElseThrow().put(cityName, entry, ttlNanos, TimeUnit.NANOSECONDS));
+        boolean added;
+        boolean overLimit;
+        synchronized (cityOrder) {
+            added = cityOrder.add(cityName);
+            overLimit = cityOrder.size() > maxCities;
+        }
+        if (added || ttlNanos < expirationTime.toNanos()) {
+            invalidateSnapshot();
+        }
+        SharedCacheStore store = sharedStore;
+        if (share && store != null) {
+            share(store, cityName, data);
+        }
+        changePublisher.publish(cityName, previousData, data);
+        WeatherHistory currentHistory = history;
+        if (currentHistory != null) {
+            currentHistory.record(cityName, data);
+        }
+        if (added) {
+            log.info("Added new city '{}' to cache", cityName);
+        } else {
+            log.debug("Updated weather for city '{}'", cityName);
+        }
+        if (overLimit) {
+            removeOldestEntry();
+        }
+    }
+
+    public byte[] encode(final String cityName, final String data, OutputFormat format) {
+        if (format == null) {
+            throw new WeatherSdkException("Output format cannot be null");
+        }
+        return encodings(cityName, data).encode(cityName, format);
+    }
+
+    public String convert(final String cityName, final String data, Units units) {
+        if (units == null) {
+            throw new WeatherSdkException("Units cannot be null");
+        }
+        if (units == Units.IMPERIAL) {
+            return data;
+        }
+        return encodings(cityName, data).view(cityName, units);
+    }
+
+    private WeatherEncodings encodings(String cityName, String data) {
+        return encodings(cache.policy().getIfPresentQuietly(cityName), data);
+    }
+
+    private static WeatherEncodings encodings(CachedEntry entry, String data) {
+        // encodings live on the entry, so they are dropped with it and never outlive an eviction
+        WeatherEncodings encodings = entry == null ? null : entry.encodings;
+        if (encodings == null || !encodings.isFor(data)) {
+            encodings = new WeatherEncodings(data);
+            if (entry != null) {
+                entry.encodings = encodings;
+            }
+        }
+        return encodings;
+    }
+
+    public int export(OutputStream out, ExportFormat format) throws IOException {
+        return export(out::write, format);
+    }
+
+    public int export(WritableByteChannel channel, ExportFormat format) throws IOException {
+        return export((bytes, offset, length) -> {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }, format);
+    }
+
+    private int export(ByteSink sink, ExportFormat format) throws IOException {
+        if (format == null) {
+            throw new WeatherSdkException("Export format cannot be null");
+        }
+        boolean array = format == ExportFormat.JSON_ARRAY;
+        if (array) {
+            sink.write(ARRAY_START, 0, 1);
+        }
+        int exported = 0;
+        Iterator<Map.Entry<String, CachedEntry>> entries = cache.asMap().entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, CachedEntry> entry = entries.next();
+            Object value = entry.getValue().data;
+            byte[] bytes = null;
+            while (value instanceof OffHeapStore.Handle handle && (bytes = offHeapStore.read(handle)) == null) {
+                value = replacement(entry.getKey(), handle);
+            }
+            if (value instanceof String data) {
+                bytes = encodings(entry.getValue(), data).encode(entry.getKey(), OutputFormat.JSON);
+            } else if (value instanceof CompactWeather compact) {
+                bytes = compact.toJson(entry.getKey()).getBytes(StandardCharsets.UTF_8);
+            }
+            if (bytes == null) {
+                continue;
+            }
+            if (array) {
+                if (exported > 0) {
+                    sink.write(ARRAY_SEPARATOR, 0, 1);
+                }
+                sink.write(bytes, 0, bytes.length);
             } else {
-                log.debug("Updated weather for city '{}'", cityName);
+                writeLine(sink, bytes);
+                sink.write(LINE_SEPARATOR, 0, 1);
             }
-            if (cityOrder.size() > MAX_CITIES) {
-                removeOldestEntry();
+            exported++;
+        }
+        if (array) {
+            sink.write(ARRAY_END, 0, 1);
+        }
+        log.debug("Exported {} cached entries as {}", exported, format);
+        return exported;
+    }
+
+    private static void writeLine(ByteSink sink, byte[] json) throws IOException {
+        int start = 0;
+        for (int i = 0; i < json.length; i++) {
+            if (json[i] == '\n' || json[i] == '\r') {
+                sink.write(json, start, i - start);
+                sink.write(SPACE, 0, 1);
+                start = i + 1;
             }
         }
+        sink.write(json, start, json.length - start);
+    }
 
-        Executors.newSingleThreadScheduledExecutor().schedule(() -> {
-            cache.invalidate(cityName);
-            citySet.remove(cityName);
-            log.info("Cache expired and removed for '{}'", cityName);
-        }, EXPIRATION_TIME.toMinutes(), TimeUnit.MINUTES);
+    private void forEachCached(BiConsumer<String, String> action) {
+        for (Map.Entry<String, CachedEntry> entry : cache.asMap().entrySet()) {
+            String data = json(entry.getKey(), entry.getValue().data);
+            if (data != null) {
+                action.accept(entry.getKey(), data);
+            }
+        }
     }
 
     public Set<String> getCachedCities() {
         return cache.asMap().keySet();
     }
 
+    public List<String> getCachedCityList() {
+        long version = cityVersion.get();
+        CitySnapshot snapshot = citySnapshot;
+        if (snapshot != null && snapshot.version == version && ticker.read() - snapshot.validUntilNanos < 0) {
+            return snapshot.cities;
+        }
+        snapshot = takeSnapshot(version);
+        if (cityVersion.get() == version) {
+            citySnapshot = snapshot;
+        }
+        return snapshot.cities;
+    }
+
+    public long currentNanos() {
+        return ticker.read();
+    }
+
+    public OptionalLong getAgeNanos(final String cityName) {
+        OptionalLong remaining = cache.policy().expireVariably().orElseThrow()
+                .getExpiresAfter(cityName, TimeUnit.NANOSECONDS);
+        return remaining.isPresent()
+                ? OptionalLong.of(Math.max(0, expirationTime.toNanos() - remaining.getAsLong()))
+                : OptionalLong.empty();
+    }
+
     public void clearCache() {
-        lock.lock();
+        LockWaitEvent.lock(lock, "WeatherCacheManager");
         try {
             cache.invalidateAll();
-            cityOrder.clear();
-            citySet.clear();
+            synchronized (cityOrder) {
+                cityOrder.clear();
+            }
+            changePublisher.clear();
+            fingerprints.clear();
+            conditions.clear();
+            offHeapStore.clear();
+            invalidateSnapshot();
+            WeatherHistory currentHistory = history;
+            if (currentHistory != null) {
+                currentHistory.clear();
+            }
             log.info("Cache cleared");
         } finally {
             lock.unlock();
@@ -89,23 +486,154 @@ public class WeatherCacheManager {
     }
 
     private void removeOldestEntry() {
-        lock.lock();
+        LockWaitEvent.lock(lock, "WeatherCacheManager");
         try {
-            while (cityOrder.size() > MAX_CITIES) {
-                String oldestCity = cityOrder.poll();
-                if (oldestCity != null) {
-                    cache.invalidate(oldestCity);
-                    citySet.remove(oldestCity);
-                    log.debug("Evicted oldest city '{}' from cache", oldestCity);
+            while (true) {
+                String oldestCity;
+                synchronized (cityOrder) {
+                    if (cityOrder.size() <= maxCities) {
+                        break;
+                    }
+                    Iterator<String> oldest = cityOrder.iterator();
+                    oldestCity = oldest.next();
+                    oldest.remove();
                 }
+                release(cache.asMap().remove(oldestCity));
+                changePublisher.forget(oldestCity);
+                fingerprints.remove(oldestCity);
+                invalidateSnapshot();
+                recordEviction(oldestCity, RemovalCause.SIZE);
+                log.debug("Evicted oldest city '{}' from cache", oldestCity);
             }
         } finally {
             lock.unlock();
         }
     }
 
+    private void invalidateSnapshot() {
+        cityVersion.incrementAndGet();
+        citySnapshot = null;
+    }
+
+    private CitySnapshot takeSnapshot(long version) {
+        long now = ticker.read();
+        long validFor = expirationTime.toNanos();
+        List<String> cities = List.copyOf(cache.asMap().keySet());
+        Policy.VarExpiration<String, CachedEntry> expiration = cache.policy().expireVariably().orElseThrow();
+        for (String city : cities) {
+            OptionalLong remaining = expiration.getExpiresAfter(city, TimeUnit.NANOSECONDS);
+            if (remaining.isPresent()) {
+                validFor = Math.min(validFor, remaining.getAsLong());
+            }
+        }
+        return new CitySnapshot(cities, now + Math.max(0, validFor), version);
+    }
+
+    @FunctionalInterface
+    private interface ByteSink {
+
+        void write(byte[] bytes, int offset, int length) throws IOException;
+    }
+
+    private static final class CachedEntry {
+
+        private final Object data;
+        private final long fetchedAt;
+        private volatile WeatherEncodings encodings;
+
+        private CachedEntry(Object data, long fetchedAt) {
+            this.data = data;
+            this.fetchedAt = fetchedAt;
+        }
+
+        private CachedEntry refetched(long fetchedAt) {
+            CachedEntry entry = new CachedEntry(data, fetchedAt);
+            entry.encodings = encodings;
+            return entry;
+        }
+    }
+
+    private static final class CitySnapshot {
+
+        private final List<String> cities;
+        private final long validUntilNanos;
+        private final long version;
+
+        private CitySnapshot(List<String> cities, long validUntilNanos, long version) {
+            this.cities = cities;
+            this.validUntilNanos = validUntilNanos;
+            this.version = version;
+        }
+    }
+
+    private void validateLimits(int maxCities, Duration expirationTime) {
+        if (maxCities <= 0) {
+            throw new WeatherSdkException("Maximum number of cached cities must be greater than 0");
+        }
+        if (expirationTime == null || expirationTime.isNegative() || expirationTime.isZero()) {
+            throw new WeatherSdkException("Cache expiration time must be positive");
+        }
+    }
+
+    private Object storedForm(String cityName, String data) {
+        if (offHeapEntries) {
+            OffHeapStore.Handle handle = offHeapStore.store(data.getBytes(StandardCharsets.UTF_8));
+            if (handle != null) {
+                return handle;
+            }
+        }
+        CompactWeather compact = compactEntries ? CompactWeather.parse(cityName, data, conditions) : null;
+        return compact != null ? compact : data;
+    }
+
+    private String json(String cityName, Object data) {
+        while (data instanceof OffHeapStore.Handle handle) {
+            byte[] bytes = offHeapStore.read(handle);
+            if (bytes != null) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            data = replacement(cityName, handle);
+        }
+        if (data instanceof String json) {
+            return json;
+        }
+        return data == null ? null : ((CompactWeather) data).toJson(cityName);
+    }
+
+    private Object replacement(String cityName, OffHeapStore.Handle released) {
+        // a concurrent write frees the slot it replaced; the map already holds the newer value
+        CachedEntry current = cache.asMap().get(cityName);
+        return current == null || current.data == released ? null : current.data;
+    }
+
+    public void share(final String cityName, final String data) {
+        SharedCacheStore store = sharedStore;
+        if (store != null) {
+            share(store, cityName, data);
+        }
+    }
+
+    private void share(SharedCacheStore store, String cityName, String data) {
+        store.put(cityName, data, System.currentTimeMillis() + expirationTime.toMillis());
+    }
+
+    private static void recordEviction(String cityName, RemovalCause cause) {
+        CacheEvictionEvent event = new CacheEvictionEvent();
+        if (event.shouldCommit()) {
+            event.city = cityName;
+            event.cause = cause.name();
+            event.commit();
+        }
+    }
+
+    private void release(CachedEntry entry) {
+        if (entry != null && entry.data instanceof OffHeapStore.Handle handle) {
+            offHeapStore.release(handle);
+        }
+    }
+
     private void validateCityName(String cityName) {
-        if (cityName == null || cityName.trim().isEmpty()) {
+        if (cityName == null || cityName.isBlank()) {
             throw new InvalidCityException("City name cannot be null or empty");
         }
     }
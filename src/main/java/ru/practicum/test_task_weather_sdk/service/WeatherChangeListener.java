@@ -0,0 +1,9 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import ru.practicum.test_task_weather_sdk.dto.WeatherChangeEvent;
+
+@FunctionalInterface
+public interface WeatherChangeListener {
+
+    void onWeatherChange(WeatherChangeEvent event);
+}
@@ -0,0 +1,177 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import ru.practicum.test_task_weather_sdk.dto.ChangeOverflowStrategy;
+import ru.practicum.test_task_weather_sdk.dto.WeatherChangeEvent;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+@Slf4j
+public class WeatherChangePublisher {
+
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+    public static final ChangeOverflowStrategy DEFAULT_OVERFLOW_STRATEGY = ChangeOverflowStrategy.LATEST_PER_CITY;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final CopyOnWriteArrayList<WeatherChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<Runnable> closeHandlers = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<String, Long> fingerprints = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "weather-changes-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Consumer<BiConsumer<String, String>> currentWeather;
+    private volatile boolean closed;
+
+    public WeatherChangePublisher() {
+        this(action -> {
+        });
+    }
+
+    WeatherChangePublisher(Consumer<BiConsumer<String, String>> currentWeather) {
+        this.currentWeather = currentWeather;
+    }
+
+    public WeatherChangeSubscription subscribe(WeatherChangeListener listener) {
+        return subscribe(listener, DEFAULT_BUFFER_SIZE, DEFAULT_OVERFLOW_STRATEGY);
+    }
+
+    public WeatherChangeSubscription subscribe(WeatherChangeListener listener, int bufferSize,
+                                               ChangeOverflowStrategy strategy) {
+        if (listener == null) {
+            throw new WeatherSdkException("Weather change listener cannot be null");
+        }
+        return register(listener, bufferSize, strategy, Long.MAX_VALUE);
+    }
+
+    public Flux<WeatherChangeEvent> changes(int bufferSize, ChangeOverflowStrategy strategy) {
+        validate(bufferSize, strategy);
+        return Flux.create(sink -> {
+            WeatherChangeSubscription subscription = register(sink::next, bufferSize, strategy, 0);
+            Runnable complete = sink::complete;
+            closeHandlers.add(complete);
+            sink.onRequest(subscription::request);
+            sink.onDispose(() -> {
+                closeHandlers.remove(complete);
+                subscription.cancel();
+            });
+        }, FluxSink.OverflowStrategy.ERROR);
+    }
+
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    public void close() {
+        closed = true;
+        for (WeatherChangeSubscription subscription : subscriptions) {
+            subscription.cancel();
+        }
+        for (Runnable closeHandler : closeHandlers) {
+            closeHandler.run();
+        }
+        fingerprints.clear();
+        executor.shutdownNow();
+    }
+
+    void publish(String cityName, String previousData, String data) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        long fingerprint = fingerprint(data);
+        Long previousFingerprint = fingerprints.put(cityName, fingerprint);
+        if (previousFingerprint != null && previousFingerprint == fingerprint) {
+            log.debug("Weather for '{}' did not change, no event published", cityName);
+            return;
+        }
+        WeatherChangeEvent event = new WeatherChangeEvent(cityName, previousData, data);
+        for (WeatherChangeSubscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    void forget(String cityName) {
+        fingerprints.remove(cityName);
+    }
+
+    void clear() {
+        fingerprints.clear();
+    }
+
+    static long fingerprint(String weatherJson) {
+        long hash = 0xcbf29ce484222325L;
+        int depth = 0;
+        try (JsonParser parser = JSON_FACTORY.createParser(weatherJson)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (depth == 1 && token == JsonToken.FIELD_NAME && "datetime".equals(parser.currentName())) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                    continue;
+                }
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                }
+                hash = (hash ^ token.ordinal()) * 0x100000001b3L;
+                if (token.isScalarValue() || token == JsonToken.FIELD_NAME) {
+                    String text = parser.getText();
+                    for (int i = 0; i < text.length(); i++) {
+                        hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            return weatherJson.hashCode();
+        }
+        return hash;
+    }
+
+    private WeatherChangeSubscription register(WeatherChangeListener listener, int bufferSize,
+                                               ChangeOverflowStrategy strategy, long initialDemand) {
+        validate(bufferSize, strategy);
+        if (closed) {
+            throw new WeatherSdkException("Weather change publisher is closed");
+        }
+        WeatherChangeSubscription subscription = new WeatherChangeSubscription(listener, bufferSize, strategy,
+                executor, initialDemand, this::unregister);
+        subscriptions.add(subscription);
+        // fingerprints are not kept without subscribers; seed them so the first unchanged update stays silent
+        currentWeather.accept((cityName, data) -> fingerprints.putIfAbsent(cityName, fingerprint(data)));
+        log.info("Weather change subscriber added (buffer={}, strategy={})", bufferSize, strategy);
+        return subscription;
+    }
+
+    private void unregister(WeatherChangeSubscription subscription) {
+        subscriptions.remove(subscription);
+        if (subscriptions.isEmpty()) {
+            fingerprints.clear();
+        }
+        log.info("Weather change subscriber removed");
+    }
+
+    private void validate(int bufferSize, ChangeOverflowStrategy strategy) {
+        if (bufferSize <= 0) {
+            throw new WeatherSdkException("Change buffer size must be greater than 0");
+        }
+        if (strategy == null) {
+            throw new WeatherSdkException("Change overflow strategy cannot be null");
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.test_task_weather_sdk.dto.ChangeOverflowStrategy;
+import ru.practicum.test_task_weather_sdk.dto.WeatherChangeEvent;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@Slf4j
+public class WeatherChangeSubscription {
+
+    private final WeatherChangeListener listener;
+    private final int bufferSize;
+    private final ChangeOverflowStrategy strategy;
+    private final Executor executor;
+    private final Consumer<WeatherChangeSubscription> onCancel;
+    private final LinkedHashMap<Object, WeatherChangeEvent> pending = new LinkedHashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong demand;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private long sequence;
+    private volatile boolean cancelled;
+
+    WeatherChangeSubscription(WeatherChangeListener listener, int bufferSize, ChangeOverflowStrategy strategy,
+                              Executor executor, long initialDemand,
+                              Consumer<WeatherChangeSubscription> onCancel) {
+        this.listener = listener;
+        this.bufferSize = bufferSize;
+        this.strategy = strategy;
+        this.executor = executor;
+        this.demand = new AtomicLong(initialDemand);
+        this.onCancel = onCancel;
+    }
+
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            synchronized (pending) {
+                pending.clear();
+            }
+            onCancel.accept(this);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    public long getDeliveredEvents() {
+        return delivered.get();
+    }
+
+    public int getPendingEvents() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    void request(long n) {
+        if (n <= 0) {
+            return;
+        }
+        demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+        scheduleDrain();
+    }
+
+    void offer(WeatherChangeEvent event) {
+        if (cancelled) {
+            return;
+        }
+        synchronized (pending) {
+            if (strategy == ChangeOverflowStrategy.LATEST_PER_CITY && pending.containsKey(event.getCityName())) {
+                pending.put(event.getCityName(), event);
+                dropped.incrementAndGet();
+            } else {
+                if (pending.size() >= bufferSize) {
+                    if (strategy == ChangeOverflowStrategy.DROP_LATEST) {
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                    Iterator<WeatherChangeEvent> oldest = pending.values().iterator();
+                    oldest.next();
+                    oldest.remove();
+                    dropped.incrementAndGet();
+                }
+                Object key = strategy == ChangeOverflowStrategy.LATEST_PER_CITY ? event.getCityName() : sequence++;
+                pending.put(key, event);
+            }
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (!cancelled && draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                draining.set(false);
+                log.warn("Could not schedule weather change delivery: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void drain() {
+        do {
+            while (!cancelled && demand.get() > 0) {
+                WeatherChangeEvent event = poll();
+                if (event == null) {
+                    break;
+                }
+                if (demand.get() != Long.MAX_VALUE) {
+                    demand.decrementAndGet();
+                }
+                try {
+                    listener.onWeatherChange(event);
+                    delivered.incrementAndGet();
+                } catch (RuntimeException e) {
+                    log.warn("Weather change listener failed for '{}': {}", event.getCityName(), e.getMessage());
+                }
+            }
+            draining.set(false);
+        } while (hasWork() && draining.compareAndSet(false, true));
+    }
+
+    private WeatherChangeEvent poll() {
+        synchronized (pending) {
+            Iterator<WeatherChangeEvent> oldest = pending.values().iterator();
+            if (!oldest.hasNext()) {
+                return null;
+            }
+            WeatherChangeEvent event = oldest.next();
+            oldest.remove();
+            return event;
+        }
+    }
+
+    private boolean hasWork() {
+        synchronized (pending) {
+            return !cancelled && demand.get() > 0 && !pending.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.test_task_weather_sdk.dto.OutputFormat;
+import ru.practicum.test_task_weather_sdk.dto.Units;
+import ru.practicum.test_task_weather_sdk.exception.JsonParsingException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+@Slf4j
+public class WeatherEncodings {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+    private static final double METERS_PER_SECOND_PER_MPH = 0.44704;
+    private static final double KELVIN_OFFSET = 273.15;
+
+    private final String source;
+    private final AtomicReferenceArray<byte[]> forms = new AtomicReferenceArray<>(OutputFormat.values().length);
+    private final AtomicReferenceArray<String> views = new AtomicReferenceArray<>(Units.values().length);
+
+    WeatherEncodings(String source) {
+        this.source = source;
+    }
+
+    boolean isFor(String weatherJson) {
+        return source == weatherJson || source.equals(weatherJson);
+    }
+
+    public byte[] encode(String cityName, OutputFormat format) {
+        byte[] bytes = forms.get(format.ordinal());
+        if (bytes == null) {
+            bytes = transcode(source, format);
+            forms.set(format.ordinal(), bytes);
+            log.debug("Encoded weather for '{}' as {} ({} bytes)", cityName, format, bytes.length);
+        }
+        return bytes;
+    }
+
+    public String view(String cityName, Units units) {
+        if (units == Units.IMPERIAL) {
+            return source;
+        }
+        String view = views.get(units.ordinal());
+        if (view == null) {
+            view = convert(source, units);
+            views.set(units.ordinal(), view);
+            log.debug("Converted weather for '{}' to {} units", cityName, units);
+        }
+        return view;
+    }
+
+    public static String convert(String weatherJson, Units units) {
+        if (units == Units.IMPERIAL) {
+            return weatherJson;
+        }
+        StringWriter out = new StringWriter(weatherJson.length());
+        try (JsonParser parser = JSON_FACTORY.createParser(weatherJson);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                JsonStreamContext context = parser.getParsingContext();
+                String parent = context.getParent() == null ? null : context.getParent().getCurrentName();
+                if (token.isNumeric() && "temperature".equals(parent)) {
+                    generator.writeNumber(temperature(parser.getDoubleValue(), units));
+                } else if (token.isNumeric() && "wind".equals(parent) && "speed".equals(context.getCurrentName())) {
+                    generator.writeNumber(round(parser.getDoubleValue() * METERS_PER_SECOND_PER_MPH));
+                } else {
+                    generator.copyCurrentEvent(parser);
+                }
+            }
+        } catch (IOException e) {
+            throw new JsonParsingException("Failed to convert weather to " + units + " units", e);
+        }
+        return out.toString();
+    }
+
+    private static double temperature(double fahrenheit, Units units) {
+        double celsius = (fahrenheit - 32) * 5 / 9;
+        return round(units == Units.METRIC ? celsius : celsius + KELVIN_OFFSET);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    public static byte[] transcode(String weatherJson, OutputFormat format) {
+        if (format == OutputFormat.JSON) {
+            return weatherJson.getBytes(StandardCharsets.UTF_8);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(weatherJson.length());
+        try (JsonParser parser = JSON_FACTORY.createParser(weatherJson);
+             JsonGenerator generator = format == OutputFormat.CBOR
+                     ? CBOR_FACTORY.createGenerator(out)
+                     : SMILE_FACTORY.createGenerator(out)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentStructure(parser);
+            }
+        } catch (IOException e) {
+            throw new JsonParsingException("Failed to encode weather as " + format, e);
+        }
+        return out.toByteArray();
+    }
+}
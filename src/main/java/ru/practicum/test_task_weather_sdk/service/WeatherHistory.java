@@ -0,0 +1,301 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.test_task_weather_sdk.dto.HistoryMetric;
+import ru.practicum.test_task_weather_sdk.dto.HistorySeries;
+import ru.practicum.test_task_weather_sdk.dto.HistoryStats;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+public class WeatherHistory {
+
+    public static final int DEFAULT_SAMPLES_PER_CITY = 288;
+    public static final int DEFAULT_MAX_CITIES = 100;
+    private static final int BYTES_PER_SAMPLE = Long.BYTES + 3 * Double.BYTES + Integer.BYTES;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int BUFFER_OVERHEAD_BYTES = 5 * ARRAY_HEADER_BYTES + 32;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ConcurrentHashMap<String, RingBuffer> buffers = new ConcurrentHashMap<>();
+    @Getter
+    private final int maxCities;
+    @Getter
+    private final int samplesPerCity;
+
+    public WeatherHistory() {
+        this(DEFAULT_MAX_CITIES, DEFAULT_SAMPLES_PER_CITY);
+    }
+
+    public WeatherHistory(int maxCities, int samplesPerCity) {
+        if (maxCities <= 0) {
+            throw new WeatherSdkException("Maximum number of cities in history must be greater than 0");
+        }
+        if (samplesPerCity <= 0) {
+            throw new WeatherSdkException("History size must be greater than 0 samples");
+        }
+        this.maxCities = maxCities;
+        this.samplesPerCity = samplesPerCity;
+    }
+
+    public static long bytesPerCity(int samplesPerCity) {
+        return (long) samplesPerCity * BYTES_PER_SAMPLE + BUFFER_OVERHEAD_BYTES;
+    }
+
+    public long retainedBytes() {
+        return buffers.size() * bytesPerCity(samplesPerCity);
+    }
+
+    public void record(String cityName, String weatherJson) {
+        long timestamp = 0;
+        double temp = Double.NaN;
+        double feelsLike = Double.NaN;
+        double windSpeed = Double.NaN;
+        int visibility = 0;
+        try (JsonParser parser = JSON_FACTORY.createParser(weatherJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "datetime" -> timestamp = parser.getLongValue();
+                    case "visibility" -> visibility = value == JsonToken.VALUE_NULL ? 0 : parser.getIntValue();
+                    case "temperature" -> {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String nested = parser.currentName();
+                            parser.nextToken();
+                            if ("temp".equals(nested)) {
+                                temp = parser.getDoubleValue();
+                            } else if ("feels_like".equals(nested)) {
+                                feelsLike = parser.getDoubleValue();
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    }
+                    case "wind" -> {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String nested = parser.currentName();
+                            parser.nextToken();
+                            if ("speed".equals(nested)) {
+                                windSpeed = parser.getDoubleValue();
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Skipping history sample for '{}': {}", cityName, e.getMessage());
+            return;
+        }
+        if (timestamp <= 0) {
+            log.debug("Skipping history sample for '{}' without timestamp", cityName);
+            return;
+        }
+        record(cityName, timestamp, temp, feelsLike, windSpeed, visibility);
+    }
+
+    public void record(String cityName, long timestamp, double temp, double feelsLike, double windSpeed,
+                       int visibility) {
+        RingBuffer buffer = buffers.get(cityName);
+        if (buffer == null) {
+            buffer = addCity(cityName);
+        }
+        buffer.add(timestamp, temp, feelsLike, windSpeed, visibility);
+    }
+
+    public HistorySeries range(String cityName, HistoryMetric metric, long fromEpochSecond, long toEpochSecond) {
+        RingBuffer buffer = buffers.get(cityName);
+        if (buffer == null) {
+            return new HistorySeries(metric, new long[0], new double[0]);
+        }
+        return buffer.range(metric, fromEpochSecond, toEpochSecond);
+    }
+
+    public HistoryStats stats(String cityName, HistoryMetric metric, long fromEpochSecond, long toEpochSecond) {
+        RingBuffer buffer = buffers.get(cityName);
+        if (buffer == null) {
+            return new HistoryStats(0, Double.NaN, Double.NaN, Double.NaN);
+        }
+        return buffer.stats(metric, fromEpochSecond, toEpochSecond);
+    }
+
+    public int size(String cityName) {
+        RingBuffer buffer = buffers.get(cityName);
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    public Set<String> getCities() {
+        return buffers.keySet();
+    }
+
+    public void remove(String cityName) {
+        buffers.remove(cityName);
+    }
+
+    public void clear() {
+        buffers.clear();
+    }
+
+    private synchronized RingBuffer addCity(String cityName) {
+        RingBuffer buffer = buffers.get(cityName);
+        if (buffer != null) {
+            return buffer;
+        }
+        if (buffers.size() >= maxCities) {
+            evictStalest();
+        }
+        buffer = new RingBuffer(samplesPerCity);
+        buffers.put(cityName, buffer);
+        return buffer;
+    }
+
+    private void evictStalest() {
+        String stalest = null;
+        long oldest = Long.MAX_VALUE;
+        for (Map.Entry<String, RingBuffer> entry : buffers.entrySet()) {
+            long latest = entry.getValue().latestTimestamp();
+            if (latest < oldest) {
+                oldest = latest;
+                stalest = entry.getKey();
+            }
+        }
+        if (stalest != null) {
+            buffers.remove(stalest);
+            log.debug("Evicted history for '{}'", stalest);
+        }
+    }
+
+    private static final class RingBuffer {
+
+        private final long[] timestamps;
+        private final double[] temps;
+        private final double[] feelsLikes;
+        private final double[] windSpeeds;
+        private final int[] visibilities;
+        private int head;
+        private int size;
+
+        private RingBuffer(int capacity) {
+            timestamps = new long[capacity];
+            temps = new double[capacity];
+            feelsLikes = new double[capacity];
+            windSpeeds = new double[capacity];
+            visibilities = new int[capacity];
+        }
+
+        private synchronized void add(long timestamp, double temp, double feelsLike, double windSpeed,
+                                      int visibility) {
+            int slot;
+            if (size > 0 && timestamps[last()] == timestamp) {
+                slot = last();
+            } else if (size > 0 && timestamps[last()] > timestamp) {
+                return;
+            } else {
+                slot = head;
+                head = (head + 1) % timestamps.length;
+                if (size < timestamps.length) {
+                    size++;
+                }
+            }
+            timestamps[slot] = timestamp;
+            temps[slot] = temp;
+            feelsLikes[slot] = feelsLike;
+            windSpeeds[slot] = windSpeed;
+            visibilities[slot] = visibility;
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        private synchronized long latestTimestamp() {
+            return size == 0 ? Long.MIN_VALUE : timestamps[last()];
+        }
+
+        private synchronized HistorySeries range(HistoryMetric metric, long from, long to) {
+            int first = firstAtOrAfter(from);
+            int count = 0;
+            while (count < size - first && timestamps[slot(first + count)] <= to) {
+                count++;
+            }
+            long[] rangeTimestamps = new long[count];
+            double[] rangeValues = new double[count];
+            for (int i = 0; i < count; i++) {
+                int slot = slot(first + i);
+                rangeTimestamps[i] = timestamps[slot];
+                rangeValues[i] = value(metric, slot);
+            }
+            return new HistorySeries(metric, rangeTimestamps, rangeValues);
+        }
+
+        private synchronized HistoryStats stats(HistoryMetric metric, long from, long to) {
+            int count = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double sum = 0;
+            for (int i = firstAtOrAfter(from); i < size; i++) {
+                int slot = slot(i);
+                if (timestamps[slot] > to) {
+                    break;
+                }
+                double value = value(metric, slot);
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                count++;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                sum += value;
+            }
+            return count == 0
+                    ? new HistoryStats(0, Double.NaN, Double.NaN, Double.NaN)
+                    : new HistoryStats(count, min, max, sum / count);
+        }
+
+        private int firstAtOrAfter(long from) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps[slot(mid)] < from) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private double value(HistoryMetric metric, int slot) {
+            return switch (metric) {
+                case TEMPERATURE -> temps[slot];
+                case FEELS_LIKE -> feelsLikes[slot];
+                case WIND_SPEED -> windSpeeds[slot];
+                case VISIBILITY -> visibilities[slot];
+            };
+        }
+
+        private int slot(int index) {
+            int start = size < timestamps.length ? 0 : head;
+            return (start + index) % timestamps.length;
+        }
+
+        private int last() {
+            return (head - 1 + timestamps.length) % timestamps.length;
+        }
+    }
+}
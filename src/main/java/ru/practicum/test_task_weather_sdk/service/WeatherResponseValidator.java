@@ -0,0 +1,122 @@
+package ru.practicum.test_task_weather_sdk.service;
+
+import ru.practicum.test_task_weather_sdk.dto.Sun;
+import ru.practicum.test_task_weather_sdk.dto.Temperature;
+import ru.practicum.test_task_weather_sdk.dto.Weather;
+import ru.practicum.test_task_weather_sdk.dto.WeatherResponse;
+import ru.practicum.test_task_weather_sdk.dto.Wind;
+import ru.practicum.test_task_weather_sdk.exception.InvalidWeatherDataException;
+
+public final class WeatherResponseValidator {
+
+    private static final int MIN_TIMEZONE = -43_200;
+    private static final int MAX_TIMEZONE = 50_400;
+
+    private WeatherResponseValidator() {
+    }
+
+    public static void validate(WeatherResponse response) {
+        StringBuilder violations = null;
+        Weather[] weather = response.getWeather();
+        if (weather == null || weather.length == 0) {
+            violations = add(violations, "Weather cannot be empty");
+        } else {
+            for (Weather condition : weather) {
+                if (condition == null) {
+                    violations = add(violations, "Weather condition cannot be null");
+                    continue;
+                }
+                if (isBlank(condition.getMain())) {
+                    violations = add(violations, "Main weather condition cannot be empty");
+                }
+                if (isBlank(condition.getDescription())) {
+                    violations = add(violations, "Weather description cannot be empty");
+                }
+            }
+        }
+
+        Temperature temperature = response.getTemperature();
+        if (temperature == null) {
+            violations = add(violations, "Temperature cannot be null");
+        } else {
+            if (temperature.getTemp() == null) {
+                violations = add(violations, "Temperature cannot be null");
+            }
+            if (temperature.getFeelsLike() == null) {
+                violations = add(violations, "Feels-like temperature cannot be null");
+            }
+        }
+
+        Integer visibility = response.getVisibility();
+        if (visibility == null) {
+            violations = add(violations, "Visibility cannot be null");
+        } else if (visibility < 0) {
+            violations = add(violations, "Visibility cannot be negative");
+        }
+
+        Wind wind = response.getWind();
+        if (wind == null) {
+            violations = add(violations, "Wind cannot be null");
+        } else if (wind.getSpeed() == null) {
+            violations = add(violations, "Wind speed cannot be null");
+        } else if (wind.getSpeed() < 0) {
+            violations = add(violations, "Wind speed cannot be negative");
+        }
+
+        Long datetime = response.getDatetime();
+        if (datetime == null) {
+            violations = add(violations, "DateTime cannot be null");
+        } else if (datetime < 1) {
+            violations = add(violations, "DateTime cannot be zero or negative");
+        }
+
+        Sun sun = response.getSun();
+        if (sun == null) {
+            violations = add(violations, "Sun cannot be null");
+        } else {
+            if (sun.getSunrise() == null) {
+                violations = add(violations, "Sunrise time cannot be null");
+            } else if (sun.getSunrise() < 1) {
+                violations = add(violations, "Sunrise time cannot be zero or negative");
+            }
+            if (sun.getSunset() == null) {
+                violations = add(violations, "Sunset time cannot be null");
+            } else if (sun.getSunset() < 1) {
+                violations = add(violations, "Sunset time cannot be zero or negative");
+            }
+        }
+
+        Integer timezone = response.getTimezone();
+        if (timezone == null) {
+            violations = add(violations, "Timezone cannot be null");
+        } else if (timezone < MIN_TIMEZONE) {
+            violations = add(violations, "Timezone cannot be west of UTC-12");
+        } else if (timezone > MAX_TIMEZONE) {
+            violations = add(violations, "Timezone cannot be east of UTC+14");
+        }
+
+        if (isBlank(response.getName())) {
+            violations = add(violations, "Name cannot be empty");
+        }
+
+        if (violations != null) {
+            throw new InvalidWeatherDataException("Invalid weather response", violations.toString());
+        }
+    }
+
+    private static StringBuilder add(StringBuilder violations, String message) {
+        return violations == null ? new StringBuilder(message) : violations.append("; ").append(message);
+    }
+
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
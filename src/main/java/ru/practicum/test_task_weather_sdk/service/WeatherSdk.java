@@ -1,13 +1,56 @@
 package ru.practicum.test_task_weather_sdk.service;
 
+import reactor.core.publisher.Flux;
+import ru.practicum.test_task_weather_sdk.dto.ApiKeyStats;
+import ru.practicum.test_task_weather_sdk.dto.ChangeOverflowStrategy;
+import ru.practicum.test_task_weather_sdk.dto.ExportFormat;
+import ru.practicum.test_task_weather_sdk.dto.ForecastSlice;
+import ru.practicum.test_task_weather_sdk.dto.OutputFormat;
+import ru.practicum.test_task_weather_sdk.dto.Units;
+import ru.practicum.test_task_weather_sdk.dto.WeatherChangeEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
 import java.util.List;
 
 public interface WeatherSdk {
 
     String getWeather(String cityName);
 
+    String getWeather(String cityName, Duration maxAge);
+
+    String getWeather(String cityName, Units units);
+
+    byte[] getWeatherBytes(String cityName, OutputFormat format);
+
+    ByteBuffer getWeatherBuffer(String cityName, OutputFormat format);
+
+    String getWeatherByCoordinates(double lat, double lon);
+
+    ForecastSlice getForecast(String cityName, int hours);
+
+    ForecastSlice getForecastByCoordinates(double lat, double lon, int hours);
+
+    WeatherChangeSubscription subscribe(WeatherChangeListener listener);
+
+    WeatherChangeSubscription subscribe(WeatherChangeListener listener, int bufferSize,
+                                        ChangeOverflowStrategy strategy);
+
+    Flux<WeatherChangeEvent> changes();
+
+    Flux<WeatherChangeEvent> changes(int bufferSize, ChangeOverflowStrategy strategy);
+
     List<String> getCachedCities();
 
+    int exportCache(OutputStream out, ExportFormat format) throws IOException;
+
+    int exportCache(WritableByteChannel channel, ExportFormat format) throws IOException;
+
+    List<ApiKeyStats> getApiKeyStats();
+
     boolean isPollingEnabled();
 
     void updateWeather(String cityName);
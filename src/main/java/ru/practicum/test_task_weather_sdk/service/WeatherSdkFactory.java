@@ -3,15 +3,16 @@ package ru.practicum.test_task_weather_sdk.service;
 import lombok.extern.slf4j.Slf4j;
 import ru.practicum.test_task_weather_sdk.dto.ModeSDK;
 import ru.practicum.test_task_weather_sdk.exception.InvalidApiKeyException;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 public class WeatherSdkFactory {
 
-    private static final ConcurrentHashMap<String, WeatherSdk> instances = new ConcurrentHashMap<>();
-    private static final ReentrantLock lock = new ReentrantLock();
+    private static final ConcurrentHashMap<List<String>, WeatherSdk> instances = new ConcurrentHashMap<>();
 
     private WeatherSdkFactory() {
     }
@@ -20,52 +21,95 @@ public class WeatherSdkFactory {
         if (apiKey == null || apiKey.trim().isEmpty()) {
             throw new InvalidApiKeyException("API key cannot be null or empty.");
         }
-        lock.lock();
-        try {
-            if (instances.containsKey(apiKey)) {
-                WeatherSdk existingInstance = instances.get(apiKey);
-                if (needsUpdate(existingInstance, mode, pollingIntervalSeconds)) {
-                    log.info("Parameters have changed, creating a new instance for API key: {}", apiKey);
-                    removeInstance(apiKey);
-                } else {
-                    log.info("Returning existing WeatherSdk instance for API key: {}", apiKey);
-                    return existingInstance;
+        return getInstance(List.of(apiKey), mode, pollingIntervalSeconds);
+    }
+
+    public static WeatherSdk getInstance(String apiKey, ModeSDK mode, Integer pollingIntervalSeconds,
+                                         Integer maxCachedCities, Duration cacheExpiration) {
+        WeatherSdkImpl sdkImpl = (WeatherSdkImpl) getInstance(apiKey, mode, pollingIntervalSeconds);
+        reconfigureCacheIfChanged(sdkImpl, maxCachedCities, cacheExpiration);
+        return sdkImpl;
+    }
+
+    public static WeatherSdk getInstance(String apiKey, ModeSDK mode, Integer pollingIntervalSeconds,
+                                         List<SdkEventListener> eventListeners) {
+        if (eventListeners == null) {
+            throw new WeatherSdkException("Event listeners cannot be null");
+        }
+        WeatherSdkImpl sdkImpl = (WeatherSdkImpl) getInstance(apiKey, mode, pollingIntervalSeconds);
+        sdkImpl.setEventListeners(eventListeners);
+        return sdkImpl;
+    }
+
+    public static WeatherSdk getPooledInstance(List<String> apiKeys, ModeSDK mode, Integer pollingIntervalSeconds) {
+        return getInstance(poolKey(apiKeys), mode, pollingIntervalSeconds);
+    }
+
+    private static WeatherSdk getInstance(List<String> apiKeys, ModeSDK mode, Integer pollingIntervalSeconds) {
+        WeatherSdkImpl sdkImpl = (WeatherSdkImpl) instances.get(apiKeys);
+        if (sdkImpl == null || sdkImpl.getIsShutdown()) {
+            sdkImpl = (WeatherSdkImpl) instances.compute(apiKeys, (key, current) -> {
+                if (current != null && !((WeatherSdkImpl) current).getIsShutdown()) {
+                    return current;
                 }
-            }
-            log.info("Creating new WeatherSdk instance for API key: {}", apiKey);
-            return createNewInstance(apiKey, mode, pollingIntervalSeconds);
-        } finally {
-            lock.unlock();
+                log.info("Creating new WeatherSdk instance for API key: {}", key);
+                return new WeatherSdkImpl(apiKeys, mode, pollingIntervalSeconds);
+            });
+        }
+        if (needsUpdate(sdkImpl, mode, pollingIntervalSeconds)) {
+            log.info("Parameters have changed, reconfiguring WeatherSdk instance in place for API key: {}", apiKeys);
+            sdkImpl.reconfigure(mode, pollingIntervalSeconds);
         }
+        return sdkImpl;
     }
 
-    private static Boolean needsUpdate(WeatherSdk existingInstance, ModeSDK mode, int pollingIntervalSeconds) {
-        WeatherSdkImpl sdkImpl = (WeatherSdkImpl) existingInstance;
-        return sdkImpl.getMode() != mode || sdkImpl.getPollingIntervalSeconds() != pollingIntervalSeconds;
+    private static boolean needsUpdate(WeatherSdkImpl sdkImpl, ModeSDK mode, Integer pollingIntervalSeconds) {
+        return sdkImpl.getMode() != mode || !sdkImpl.getPollingIntervalSeconds().equals(pollingIntervalSeconds);
     }
 
-    private static WeatherSdk createNewInstance(String apiKey, ModeSDK mode, int pollingIntervalSeconds) {
-        WeatherSdk newInstance = new WeatherSdkImpl(apiKey, mode, pollingIntervalSeconds);
-        instances.put(apiKey, newInstance);
-        return newInstance;
+    private static void reconfigureCacheIfChanged(WeatherSdkImpl sdkImpl, Integer maxCachedCities,
+                                                  Duration cacheExpiration) {
+        if (maxCachedCities == null || cacheExpiration == null) {
+            throw new WeatherSdkException("Cache limits cannot be null");
+        }
+        WeatherCacheManager cacheManager = sdkImpl.getCacheManager();
+        if (cacheManager.getMaxCities() != maxCachedCities
+                || !cacheManager.getExpirationTime().equals(cacheExpiration)) {
+            sdkImpl.reconfigureCache(maxCachedCities, cacheExpiration);
+        }
+    }
+
+    public static void removePooledInstance(List<String> apiKeys) {
+        removeInstance(poolKey(apiKeys));
     }
 
     public static void removeInstance(String apiKey) {
         if (apiKey == null || apiKey.trim().isEmpty()) {
             throw new InvalidApiKeyException("API key cannot be null or empty.");
         }
-        lock.lock();
-        try {
-            WeatherSdk instance = instances.remove(apiKey);
-            if (instance != null) {
-                instance.shutdown();
-                log.info("Removed WeatherSdk instance for API key: {}", apiKey);
-            } else {
-                log.warn("Attempted to remove non-existent WeatherSdk instance for API key: {}", apiKey);
-                throw new InvalidApiKeyException("No instance found for the given API key.");
+        removeInstance(List.of(apiKey));
+    }
+
+    private static void removeInstance(List<String> apiKeys) {
+        WeatherSdk instance = instances.remove(apiKeys);
+        if (instance != null) {
+            instance.shutdown();
+            log.info("Removed WeatherSdk instance for API key: {}", apiKeys);
+        } else {
+            log.warn("Attempted to remove non-existent WeatherSdk instance for API key: {}", apiKeys);
+            throw new InvalidApiKeyException("No instance found for the given API key.");
+        }
+    }
+
+    private static List<String> poolKey(List<String> apiKeys) {
+        if (apiKeys == null || apiKeys.isEmpty()) {
+            throw new InvalidApiKeyException("API key pool cannot be null or empty.");
+        }
+        for (String apiKey : apiKeys) {
+            if (apiKey == null || apiKey.trim().isEmpty()) {
+                throw new InvalidApiKeyException("API key cannot be null or empty.");
             }
-        } finally {
-            lock.unlock();
         }
+        return List.copyOf(apiKeys);
     }
 }
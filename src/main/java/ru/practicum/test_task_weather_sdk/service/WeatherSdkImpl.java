@@ -2,13 +2,37 @@ package ru.practicum.test_task_weather_sdk.service;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import ru.practicum.test_task_weather_sdk.dto.ApiKeyStats;
+import ru.practicum.test_task_weather_sdk.dto.ChangeOverflowStrategy;
+import ru.practicum.test_task_weather_sdk.dto.ExportFormat;
+import ru.practicum.test_task_weather_sdk.dto.Forecast;
+import ru.practicum.test_task_weather_sdk.dto.ForecastSlice;
+import ru.practicum.test_task_weather_sdk.dto.HistoryMetric;
+import ru.practicum.test_task_weather_sdk.dto.HistorySeries;
+import ru.practicum.test_task_weather_sdk.dto.HistoryStats;
+import ru.practicum.test_task_weather_sdk.dto.HotCity;
 import ru.practicum.test_task_weather_sdk.dto.ModeSDK;
+import ru.practicum.test_task_weather_sdk.dto.OutputFormat;
+import ru.practicum.test_task_weather_sdk.dto.RefreshStats;
+import ru.practicum.test_task_weather_sdk.dto.SdkEventType;
+import ru.practicum.test_task_weather_sdk.dto.Units;
+import ru.practicum.test_task_weather_sdk.dto.WeatherChangeEvent;
 import ru.practicum.test_task_weather_sdk.exception.*;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 @Slf4j
 @Getter
@@ -16,68 +40,385 @@ public class WeatherSdkImpl implements WeatherSdk {
 
     private final OpenWeatherApiClient apiClient;
     private final WeatherCacheManager cacheManager;
+    private final CityIdIndex cityIdIndex;
+    private final ForecastCache forecastCache = new ForecastCache();
+    private volatile GeoGrid geoGrid = new GeoGrid();
     private final ReentrantLock lock = new ReentrantLock();
-    private WeatherUpdater weatherUpdater;
-    private final ModeSDK mode;
-    private final Integer pollingIntervalSeconds;
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final SdkEventDispatcher eventDispatcher = new SdkEventDispatcher();
+    private volatile HotCityTracker hotCityTracker;
+    private HotCityPrefetcher hotCityPrefetcher;
+    private volatile WeatherUpdater weatherUpdater;
+    private volatile ModeSDK mode;
+    private volatile Integer pollingIntervalSeconds;
     private volatile Boolean isShutdown = false;
+    private volatile PollingCoordinator pollingCoordinator;
+    private volatile boolean pollingSpread;
+    private volatile double pollingJitter;
 
     public WeatherSdkImpl(String apiKey, ModeSDK mode, Integer pollingIntervalSeconds) {
-        if (apiKey == null || apiKey.trim().isEmpty()) {
+        this(Collections.singletonList(apiKey), mode, pollingIntervalSeconds);
+    }
+
+    public WeatherSdkImpl(List<String> apiKeys, ModeSDK mode, Integer pollingIntervalSeconds) {
+        if (apiKeys == null || apiKeys.isEmpty()) {
             throw new WeatherSdkException("API key cannot be null or empty");
         }
-        this.apiClient = new OpenWeatherApiClient(apiKey);
+        for (String apiKey : apiKeys) {
+            if (apiKey == null || apiKey.trim().isEmpty()) {
+                throw new WeatherSdkException("API key cannot be null or empty");
+            }
+        }
+        this.apiClient = new OpenWeatherApiClient(new ApiKeyPool(apiKeys), OpenWeatherApiClient.BASE_URL);
         this.cacheManager = new WeatherCacheManager();
+        this.cityIdIndex = apiClient.getCityIdIndex();
+        apiClient.setEventDispatcher(eventDispatcher);
 
+        validateMode(mode, pollingIntervalSeconds);
         this.mode = mode;
         this.pollingIntervalSeconds = pollingIntervalSeconds;
-        switch (mode) {
-            case POLLING_MODE:
-                if (pollingIntervalSeconds <= 0) {
-                    throw new WeatherSdkException("Polling interval must be greater than 0 seconds");
-                }
-                this.weatherUpdater = new WeatherUpdater(cacheManager, apiClient, pollingIntervalSeconds);
-                log.info("Initialized with POLLING_MODE mode, interval={}s", pollingIntervalSeconds);
-                break;
-            case ON_DEMAND_MODE:
-                if (pollingIntervalSeconds != 0) {
-                    throw new WeatherSdkException("Polling interval must be 0 in ON_DEMAND_MODE mode");
-                }
-                log.info("Initialized in ON_DEMAND_MODE mode (no polling)");
-                break;
-            default:
-                throw new WeatherSdkException("Unsupported update mode");
+        if (mode == ModeSDK.POLLING_MODE) {
+            this.weatherUpdater = new WeatherUpdater(cacheManager, apiClient, pollingIntervalSeconds);
+            weatherUpdater.setEventDispatcher(eventDispatcher);
+            log.info("Initialized with POLLING_MODE mode, interval={}s", pollingIntervalSeconds);
+        } else {
+            log.info("Initialized in ON_DEMAND_MODE mode (no polling)");
         }
     }
 
+    public synchronized void reconfigure(ModeSDK mode, Integer pollingIntervalSeconds) {
+        checkShutdown();
+        validateMode(mode, pollingIntervalSeconds);
+        if (this.mode == mode && this.pollingIntervalSeconds.equals(pollingIntervalSeconds)) {
+            return;
+        }
+        if (weatherUpdater != null) {
+            weatherUpdater.stop();
+            weatherUpdater = null;
+        }
+        this.mode = mode;
+        this.pollingIntervalSeconds = pollingIntervalSeconds;
+        if (mode == ModeSDK.POLLING_MODE) {
+            weatherUpdater = new WeatherUpdater(cacheManager, apiClient, pollingIntervalSeconds, pollingCoordinator);
+            weatherUpdater.setSpread(pollingSpread, pollingJitter);
+            weatherUpdater.setEventDispatcher(eventDispatcher);
+        }
+        log.info("Reconfigured to {} mode, interval={}s, cached cities kept", mode, pollingIntervalSeconds);
+    }
+
+    public void reconfigureCache(int maxCachedCities, Duration cacheExpiration) {
+        checkShutdown();
+        cacheManager.reconfigure(maxCachedCities, cacheExpiration);
+    }
+
     @Override
     public String getWeather(String cityName) {
         checkShutdown();
         validateCityName(cityName);
-        try {
-            String cached = cacheManager.getCached(cityName);
-            if (cached != null) {
-                log.debug("Returning cached weather for '{}'", cityName);
-                return cached;
+        String cityKey = cityIdIndex.canonicalKey(cityName);
+        HotCityTracker tracker = hotCityTracker;
+        if (tracker != null) {
+            tracker.record(cityKey);
+        }
+        String cached = findCached(cityKey);
+        if (cached != null) {
+            return cached;
+        }
+        return fetchAndCache(cityName, cityKey);
+    }
+
+    @Override
+    public String getWeather(String cityName, Duration maxAge) {
+        checkShutdown();
+        validateCityName(cityName);
+        if (maxAge == null || maxAge.isNegative()) {
+            throw new WeatherSdkException("Maximum weather age cannot be null or negative");
+        }
+        long maxAgeNanos = maxAge.toNanos();
+        String cityKey = cityIdIndex.canonicalKey(cityName);
+        HotCityTracker tracker = hotCityTracker;
+        if (tracker != null) {
+            tracker.record(cityKey);
+        }
+        return freshWeather(cityName, cityKey, maxAgeNanos);
+    }
+
+    private String freshWeather(String cityName, String cityKey, long maxAgeNanos) {
+        String cached = findFresh(cityKey, maxAgeNanos);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<String> fetch = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(cityKey, fetch);
+        if (running != null) {
+            log.debug("Joining in-flight fetch for '{}'", cityKey);
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
             }
-        } catch (CityNotFoundException e) {
-            log.debug("City '{}' not found in cache, fetching from API", cityName);
         }
-        return fetchAndCache(cityName);
+        try {
+            String weather = fetchAndCache(cityKey, () -> apiClient.fetchWeather(cityKey),
+                    () -> cityIdIndex.canonicalKey(cityName), maxAgeNanos);
+            fetch.complete(weather);
+            return weather;
+        } catch (Throwable e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cityKey, fetch);
+        }
+    }
+
+    @Override
+    public String getWeather(String cityName, Units units) {
+        if (units == null) {
+            throw new WeatherSdkException("Units cannot be null");
+        }
+        String weather = getWeather(cityName);
+        return cacheManager.convert(cityIdIndex.canonicalKey(cityName), weather, units);
+    }
+
+    @Override
+    public byte[] getWeatherBytes(String cityName, OutputFormat format) {
+        return encoded(cityName, format).clone();
+    }
+
+    @Override
+    public ByteBuffer getWeatherBuffer(String cityName, OutputFormat format) {
+        return ByteBuffer.wrap(encoded(cityName, format)).asReadOnlyBuffer();
+    }
+
+    @Override
+    public String getWeatherByCoordinates(double lat, double lon) {
+        checkShutdown();
+        String cellKey = geoGrid.cellKey(lat, lon);
+        String cached = findCached(cellKey);
+        if (cached != null) {
+            return cached;
+        }
+        double[] center = GeoGrid.cellCenter(cellKey);
+        return fetchAndCache(cellKey, () -> apiClient.fetchWeatherByCoordinates(center[0], center[1]), () -> cellKey);
+    }
+
+    @Override
+    public ForecastSlice getForecast(String cityName, int hours) {
+        checkShutdown();
+        validateCityName(cityName);
+        double[] coordinates = cityIdIndex.findCoordinates(cityName);
+        if (coordinates == null) {
+            // cached entries may come from the shared store and carry no coordinates
+            freshWeather(cityName, cityIdIndex.canonicalKey(cityName), -1);
+            coordinates = cityIdIndex.findCoordinates(cityName);
+        }
+        if (coordinates == null) {
+            throw new CityNotFoundException("Coordinates of city '" + cityName + "' are unknown");
+        }
+        return getForecastByCoordinates(coordinates[0], coordinates[1], hours);
+    }
+
+    @Override
+    public ForecastSlice getForecastByCoordinates(double lat, double lon, int hours) {
+        checkShutdown();
+        if (hours <= 0) {
+            throw new WeatherSdkException("Forecast hours must be greater than 0");
+        }
+        String cellKey = geoGrid.cellKey(lat, lon);
+        Forecast forecast = forecastCache.get(cellKey, () -> {
+            double[] center = GeoGrid.cellCenter(cellKey);
+            return apiClient.fetchForecast(center[0], center[1]);
+        });
+        return ForecastCache.nextHours(forecast, System.currentTimeMillis() / 1000, hours);
+    }
+
+    public void setForecastExpiration(Duration expiration) {
+        checkShutdown();
+        forecastCache.setExpirationTime(expiration);
+        log.info("Forecast expiration set to {}", expiration);
     }
 
     @Override
     public void updateWeather(String cityName) {
         checkShutdown();
         validateCityName(cityName);
-        fetchAndCache(cityName);
+        String cityKey = cityIdIndex.canonicalKey(cityName);
+        if (findCached(cityKey) == null) {
+            fetchAndCache(cityName, cityKey);
+        }
+    }
+
+    public void setGeoCellPrecision(int precision) {
+        checkShutdown();
+        this.geoGrid = new GeoGrid(precision);
+        log.info("Geo cell precision set to {}", precision);
+    }
+
+    public void setCompactCache(boolean compact) {
+        checkShutdown();
+        cacheManager.setCompactEntries(compact);
+    }
+
+    public void setResponseBodyLimits(int maxBodyBytes, int maxErrorBodyBytes) {
+        checkShutdown();
+        apiClient.setBodyLimits(maxBodyBytes, maxErrorBodyBytes);
+    }
+
+    public synchronized void setPollingSpread(boolean spread, double jitter) {
+        checkShutdown();
+        WeatherUpdater updater = weatherUpdater;
+        if (updater != null) {
+            updater.setSpread(spread, jitter);
+        } else if (jitter < 0 || jitter > 1) {
+            throw new WeatherSdkException("Polling jitter must be between 0 and 1");
+        }
+        this.pollingSpread = spread;
+        this.pollingJitter = jitter;
+    }
+
+    public synchronized void setPollingCoordinator(PollingCoordinator coordinator) {
+        checkShutdown();
+        if (coordinator != null && !cacheManager.hasSharedStore()) {
+            throw new WeatherSdkException("Polling ownership requires a shared cache store");
+        }
+        this.pollingCoordinator = coordinator;
+        WeatherUpdater updater = weatherUpdater;
+        if (updater != null) {
+            updater.setCoordinator(coordinator);
+        }
+    }
+
+    public synchronized void setSharedCacheStore(SharedCacheStore sharedStore) {
+        checkShutdown();
+        if (sharedStore == null && pollingCoordinator != null) {
+            throw new WeatherSdkException("Cannot disable the shared cache store while polling ownership is enabled");
+        }
+        cacheManager.setSharedStore(sharedStore);
+    }
+
+    public void setOffHeapCache(boolean offHeap) {
+        checkShutdown();
+        cacheManager.setOffHeapEntries(offHeap);
+    }
+
+    public synchronized void enableHotCityTracking(int topK, boolean prefetch) {
+        checkShutdown();
+        stopPrefetcher();
+        HotCityTracker tracker = new HotCityTracker(topK, HotCityTracker.DEFAULT_WIDTH);
+        if (prefetch) {
+            hotCityPrefetcher = new HotCityPrefetcher(tracker, cacheManager, city -> freshWeather(city, city, 0));
+        }
+        hotCityTracker = tracker;
+    }
+
+    public synchronized void disableHotCityTracking() {
+        checkShutdown();
+        stopPrefetcher();
+        hotCityTracker = null;
+    }
+
+    public List<HotCity> getHotCities() {
+        checkShutdown();
+        HotCityTracker tracker = hotCityTracker;
+        if (tracker == null) {
+            throw new WeatherSdkException("Hot city tracking is not enabled");
+        }
+        return tracker.getHotCities();
+    }
+
+    public void addEventListener(SdkEventListener listener) {
+        checkShutdown();
+        eventDispatcher.addListener(listener);
+    }
+
+    public void setEventListeners(List<SdkEventListener> listeners) {
+        checkShutdown();
+        eventDispatcher.setListeners(listeners);
+    }
+
+    public void removeEventListener(SdkEventListener listener) {
+        eventDispatcher.removeListener(listener);
+    }
+
+    public void enableHistory(int maxCities, int samplesPerCity) {
+        checkShutdown();
+        cacheManager.setHistory(new WeatherHistory(maxCities, samplesPerCity));
+    }
+
+    public void disableHistory() {
+        checkShutdown();
+        cacheManager.setHistory(null);
+    }
+
+    public HistorySeries getHistory(String cityName, HistoryMetric metric, long fromEpochSecond, long toEpochSecond) {
+        return requireHistory().range(historyKey(cityName), metric, fromEpochSecond, toEpochSecond);
+    }
+
+    public HistoryStats getHistoryStats(String cityName, HistoryMetric metric, long fromEpochSecond,
+                                        long toEpochSecond) {
+        return requireHistory().stats(historyKey(cityName), metric, fromEpochSecond, toEpochSecond);
+    }
+
+    public void loadCityList(InputStream cityListJson) {
+        checkShutdown();
+        cityIdIndex.loadCityList(cityListJson);
+    }
+
+    @Override
+    public WeatherChangeSubscription subscribe(WeatherChangeListener listener) {
+        checkShutdown();
+        return cacheManager.getChangePublisher().subscribe(listener);
+    }
+
+    @Override
+    public WeatherChangeSubscription subscribe(WeatherChangeListener listener, int bufferSize,
+                                               ChangeOverflowStrategy strategy) {
+        checkShutdown();
+        return cacheManager.getChangePublisher().subscribe(listener, bufferSize, strategy);
+    }
+
+    @Override
+    public Flux<WeatherChangeEvent> changes() {
+        return changes(WeatherChangePublisher.DEFAULT_BUFFER_SIZE, WeatherChangePublisher.DEFAULT_OVERFLOW_STRATEGY);
+    }
+
+    @Override
+    public Flux<WeatherChangeEvent> changes(int bufferSize, ChangeOverflowStrategy strategy) {
+        checkShutdown();
+        return cacheManager.getChangePublisher().changes(bufferSize, strategy);
     }
 
     @Override
     public List<String> getCachedCities() {
         checkShutdown();
-        Set<String> set = cacheManager.getCachedCities();
-        return new ArrayList<>(set);
+        return cacheManager.getCachedCityList();
+    }
+
+    @Override
+    public int exportCache(OutputStream out, ExportFormat format) throws IOException {
+        checkShutdown();
+        return cacheManager.export(out, format);
+    }
+
+    @Override
+    public int exportCache(WritableByteChannel channel, ExportFormat format) throws IOException {
+        checkShutdown();
+        return cacheManager.export(channel, format);
+    }
+
+    @Override
+    public List<ApiKeyStats> getApiKeyStats() {
+        checkShutdown();
+        return apiClient.getApiKeyPool().getStats();
+    }
+
+    public RefreshStats getRefreshStats() {
+        checkShutdown();
+        WeatherUpdater updater = weatherUpdater;
+        return updater == null ? new RefreshStats(0, 0, 0, 0, 0, 0) : updater.getRefreshStats();
     }
 
     @Override
@@ -85,6 +426,7 @@ public class WeatherSdkImpl implements WeatherSdk {
         checkShutdown();
         log.info("Clearing cache");
         cacheManager.clearCache();
+        forecastCache.clear();
     }
 
     @Override
@@ -94,7 +436,7 @@ public class WeatherSdkImpl implements WeatherSdk {
     }
 
     @Override
-    public void stopPolling() {
+    public synchronized void stopPolling() {
         checkShutdown();
         if (weatherUpdater != null) {
             weatherUpdater.stop();
@@ -107,37 +449,133 @@ public class WeatherSdkImpl implements WeatherSdk {
     public void shutdown() {
         if (!isShutdown) {
             stopPolling();
+            stopPrefetcher();
             clearCache();
+            cacheManager.getChangePublisher().close();
+            eventDispatcher.close();
             isShutdown = true;
             log.info("WeatherSdk instance has been shut down");
         }
     }
 
-    private String fetchAndCache(String cityName) {
-        lock.lock();
+    private byte[] encoded(String cityName, OutputFormat format) {
+        String weather = getWeather(cityName);
+        return cacheManager.encode(cityIdIndex.canonicalKey(cityName), weather, format);
+    }
+
+    private String fetchAndCache(String cityName, String cityKey) {
+        return fetchAndCache(cityKey, () -> apiClient.fetchWeather(cityKey), () -> cityIdIndex.canonicalKey(cityName));
+    }
+
+    private String fetchAndCache(String cacheKey, Supplier<String> upstream, Supplier<String> resolvedKey) {
+        return fetchAndCache(cacheKey, upstream, resolvedKey, Long.MAX_VALUE);
+    }
+
+    private String fetchAndCache(String cacheKey, Supplier<String> upstream, Supplier<String> resolvedKey,
+                                 long maxAgeNanos) {
+        String apiResponse;
+        String canonicalKey;
+        LockWaitEvent.lock(lock, "WeatherSdkImpl.fetch");
         try {
-            try {
-                String cached = cacheManager.getCached(cityName);
-                if (cached != null) {
-                    log.debug("Found city '{}' in cache during fetchAndCache, returning it", cityName);
-                    return cached;
-                }
-            } catch (CityNotFoundException e) {
-                log.debug("City '{}' not in cache, proceeding to fetch from API", cityName);
+            // callers already checked the shared store; only a fetch finished meanwhile by this node can be missing
+            String cached = cacheManager.findLocal(cacheKey, maxAgeNanos);
+            if (cached != null) {
+                log.debug("Found city '{}' in cache during fetchAndCache, returning it", cacheKey);
+                return cached;
             }
-            String apiResponse = apiClient.fetchWeather(cityName);
-            cacheManager.updateCache(cityName, apiResponse);
-            log.info("Fetched and cached weather for '{}'", cityName);
-            return apiResponse;
+            log.debug("City '{}' not in cache, proceeding to fetch from API", cacheKey);
+            apiResponse = fetch(cacheKey, upstream);
+            canonicalKey = resolvedKey.get();
+            cacheManager.updateLocal(canonicalKey, apiResponse);
         } finally {
             lock.unlock();
         }
+        cacheManager.share(canonicalKey, apiResponse);
+        if (!canonicalKey.equals(cacheKey)) {
+            cacheManager.share(cacheKey, apiResponse);
+        }
+        log.info("Fetched and cached weather for '{}'", canonicalKey);
+        return apiResponse;
+    }
+
+    private String findCached(String cacheKey) {
+        if (!eventDispatcher.isActive()) {
+            return cacheManager.findCached(cacheKey);
+        }
+        long start = System.nanoTime();
+        String cached = cacheManager.findCached(cacheKey);
+        eventDispatcher.publish(SdkEventType.CACHE_LOOKUP, cacheKey, cached != null, 0, null, start);
+        return cached;
+    }
+
+    private String findFresh(String cacheKey, long maxAgeNanos) {
+        if (!eventDispatcher.isActive()) {
+            return cacheManager.findFresh(cacheKey, maxAgeNanos);
+        }
+        long start = System.nanoTime();
+        String cached = cacheManager.findFresh(cacheKey, maxAgeNanos);
+        eventDispatcher.publish(SdkEventType.CACHE_LOOKUP, cacheKey, cached != null, 0, null, start);
+        return cached;
+    }
+
+    private String fetch(String cacheKey, Supplier<String> upstream) {
+        if (!eventDispatcher.isActive()) {
+            return upstream.get();
+        }
+        long start = System.nanoTime();
+        try {
+            String apiResponse = upstream.get();
+            eventDispatcher.publish(SdkEventType.FETCH, cacheKey, false, 0, null, start);
+            return apiResponse;
+        } catch (RuntimeException e) {
+            eventDispatcher.publish(SdkEventType.FETCH, cacheKey, false, 0, e, start);
+            throw e;
+        }
+    }
+
+    private synchronized void stopPrefetcher() {
+        if (hotCityPrefetcher != null) {
+            hotCityPrefetcher.stop();
+            hotCityPrefetcher = null;
+        }
+    }
+
+    private WeatherHistory requireHistory() {
+        checkShutdown();
+        WeatherHistory history = cacheManager.getHistory();
+        if (history == null) {
+            throw new WeatherSdkException("Weather history is not enabled");
+        }
+        return history;
+    }
+
+    private String historyKey(String cityName) {
+        validateCityName(cityName);
+        return cityIdIndex.canonicalKey(cityName);
     }
 
     private void validateCityName(String cityName) {
-        if (cityName == null || cityName.trim().isEmpty()) {
+        if (cityName == null || cityName.isBlank()) {
             throw new InvalidCityException("City name cannot be null or empty");
         }
+        if (GeoGrid.isCellKey(cityName.strip())) {
+            throw new InvalidCityException("City name cannot be a geo cell key: " + cityName);
+        }
+    }
+
+    private void validateMode(ModeSDK mode, Integer pollingIntervalSeconds) {
+        if (mode == null) {
+            throw new WeatherSdkException("Unsupported update mode");
+        }
+        if (pollingIntervalSeconds == null) {
+            throw new WeatherSdkException("Polling interval cannot be null");
+        }
+        if (mode == ModeSDK.POLLING_MODE && pollingIntervalSeconds <= 0) {
+            throw new WeatherSdkException("Polling interval must be greater than 0 seconds");
+        }
+        if (mode == ModeSDK.ON_DEMAND_MODE && pollingIntervalSeconds != 0) {
+            throw new WeatherSdkException("Polling interval must be 0 in ON_DEMAND_MODE mode");
+        }
     }
 
     private void checkShutdown() {
@@ -1,10 +1,22 @@
 package ru.practicum.test_task_weather_sdk.service;
 
 import lombok.extern.slf4j.Slf4j;
+import ru.practicum.test_task_weather_sdk.dto.RefreshStats;
+import ru.practicum.test_task_weather_sdk.dto.SdkEventType;
 import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
@@ -14,11 +26,33 @@ public class WeatherUpdater {
     private final OpenWeatherApiClient apiClient;
     private final ScheduledExecutorService scheduler;
     private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong fresh = new AtomicLong();
+    private final AtomicLong expiryMisses = new AtomicLong();
+    private final AtomicLong overloadedCycles = new AtomicLong();
+    private final long intervalNanos;
+    private volatile PollingCoordinator coordinator;
+    private volatile boolean spread;
+    private volatile double jitter;
+    private volatile long lastCycleEndNanos;
+    private volatile long unitLatencyNanos;
+    private volatile SdkEventDispatcher eventDispatcher = SdkEventDispatcher.DISABLED;
+    private ConsistentHashRing ring;
 
     public WeatherUpdater(WeatherCacheManager cacheManager, OpenWeatherApiClient apiClient, Integer interval) {
+        this(cacheManager, apiClient, interval, null);
+    }
+
+    public WeatherUpdater(WeatherCacheManager cacheManager, OpenWeatherApiClient apiClient, Integer interval,
+                          PollingCoordinator coordinator) {
         if (interval <= 0) throw new WeatherSdkException("Polling interval must be greater than 0 seconds");
+        requireSharedStore(cacheManager, coordinator);
         this.cacheManager = cacheManager;
         this.apiClient = apiClient;
+        this.coordinator = coordinator;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(interval);
         this.scheduler = Executors.newSingleThreadScheduledExecutor();
         scheduler.scheduleAtFixedRate(this::updateWeather, 0, interval, TimeUnit.SECONDS);
         log.info("WeatherUpdater started with polling interval of {} seconds", interval);
@@ -42,6 +76,195 @@ public class WeatherUpdater {
         }
     }
 
+    public void setCoordinator(PollingCoordinator coordinator) {
+        requireSharedStore(cacheManager, coordinator);
+        this.coordinator = coordinator;
+        log.info(coordinator == null ? "Polling ownership disabled, refreshing all cached cities"
+                : "Polling ownership enabled for node '" + coordinator.localNodeId() + "'");
+    }
+
+    private static void requireSharedStore(WeatherCacheManager cacheManager, PollingCoordinator coordinator) {
+        if (coordinator != null && !cacheManager.hasSharedStore()) {
+            throw new WeatherSdkException("Polling ownership requires a shared cache store");
+        }
+    }
+
+    public void setSpread(boolean spread, double jitter) {
+        if (jitter < 0 || jitter > 1) {
+            throw new WeatherSdkException("Polling jitter must be between 0 and 1");
+        }
+        this.spread = spread;
+        this.jitter = jitter;
+        log.info(spread ? "Polling refreshes spread over the interval with jitter " + jitter
+                : "Polling refreshes fired at the start of each interval");
+    }
+
+    void setEventDispatcher(SdkEventDispatcher eventDispatcher) {
+        this.eventDispatcher = eventDispatcher;
+    }
+
+    public RefreshStats getRefreshStats() {
+        return new RefreshStats(cycles.get(), refreshes.get(), unchanged.get(), fresh.get(), expiryMisses.get(),
+                overloadedCycles.get());
+    }
+
+    private OpenWeatherApiClient.RefreshTarget refreshTarget(List<String> cities, AtomicInteger cycleUnchanged) {
+        return new OpenWeatherApiClient.RefreshTarget() {
+            @Override
+            public boolean isUnchanged(long fingerprint) {
+                for (String city : cities) {
+                    if (!cacheManager.refreshIfUnchanged(city, fingerprint)) {
+                        return false;
+                    }
+                }
+                cycleUnchanged.addAndGet(cities.size());
+                return true;
+            }
+
+            @Override
+            public void update(String weatherData, long fingerprint) {
+                for (String city : cities) {
+                    cacheManager.updateCache(city, weatherData, fingerprint);
+                }
+            }
+        };
+    }
+
+    private void publishRefresh(List<String> cities, Exception error, long start) {
+        SdkEventDispatcher events = eventDispatcher;
+        if (events.isActive()) {
+            events.publish(SdkEventType.REFRESH, String.join(",", cities), false, 0, error, start);
+        }
+    }
+
+    private String fetch(String cacheKey) {
+        if (GeoGrid.isCellKey(cacheKey)) {
+            double[] center = GeoGrid.cellCenter(cacheKey);
+            return apiClient.fetchWeatherByCoordinates(center[0], center[1]);
+        }
+        return apiClient.fetchWeather(cacheKey);
+    }
+
+    private Set<String> ownedCities(Set<String> cities) {
+        PollingCoordinator current = coordinator;
+        if (current == null) {
+            return cities;
+        }
+        if (!cacheManager.hasSharedStore()) {
+            log.warn("Shared cache store is disabled, refreshing all cached cities");
+            return cities;
+        }
+        String localNode;
+        List<String> members;
+        try {
+            localNode = current.localNodeId();
+            members = current.members();
+        } catch (RuntimeException e) {
+            log.warn("Polling coordinator failed, refreshing all cached cities: {}", e.getMessage());
+            return cities;
+        }
+        if (members == null || !members.contains(localNode)) {
+            log.warn("Node '{}' is not in the polling membership {}, refreshing all cached cities",
+                    localNode, members);
+            return cities;
+        }
+        if (ring == null || !ring.members().equals(Set.copyOf(members))) {
+            ring = new ConsistentHashRing(members);
+            log.info("Polling membership changed to {}", ring.members());
+        }
+        Set<String> owned = new LinkedHashSet<>();
+        List<String> others = new ArrayList<>();
+        for (String city : cities) {
+            if (localNode.equals(ring.owner(city))) {
+                owned.add(city);
+            } else {
+                others.add(city);
+            }
+        }
+        Set<String> pulled = cacheManager.pullShared(others);
+        int missed = 0;
+        for (String city : others) {
+            if (!pulled.contains(city)) {
+                owned.add(city);
+                missed++;
+            }
+        }
+        log.info("Node '{}' refreshes {} of {} cached cities ({} missing from the shared store), "
+                + "{} taken from the shared store", localNode, owned.size(), cities.size(), missed, pulled.size());
+        return owned;
+    }
+
+    private long freshNanos() {
+        if (cycles.get() == 0) {
+            return 0;
+        }
+        long sinceLastCycle = cacheManager.currentNanos() - lastCycleEndNanos;
+        long halfInterval = Math.min(intervalNanos, cacheManager.getExpirationTime().toNanos()) / 2;
+        return Math.max(0, Math.min(sinceLastCycle, halfInterval));
+    }
+
+    private static double phase(String city) {
+        return (ConsistentHashRing.hash(city) >>> 11) * 0x1.0p-53;
+    }
+
+    private long[] schedule(List<RefreshUnit> units, Map<String, Long> ages) {
+        int tasks = units.size();
+        long[] delays = new long[tasks];
+        if (!spread || tasks < 2) {
+            return delays;
+        }
+        long latency = Math.min(Math.max(unitLatencyNanos, intervalNanos / 20), intervalNanos / 2);
+        long window = intervalNanos - latency;
+        long slot = window / tasks;
+        long ttl = cacheManager.getExpirationTime().toNanos();
+        double currentJitter = jitter;
+        for (int i = 0; i < tasks; i++) {
+            RefreshUnit unit = units.get(i);
+            long delay = (long) (phase(unit.cities.get(0)) * window)
+                    + (long) ((ThreadLocalRandom.current().nextDouble() - 0.5) * currentJitter * slot);
+            long oldest = 0;
+            for (String city : unit.cities) {
+                oldest = Math.max(oldest, ages.get(city));
+            }
+            long deadline = oldest == Long.MAX_VALUE ? 0 : ttl - oldest - latency;
+            delays[i] = Math.max(0, Math.min(Math.min(delay, window), deadline));
+        }
+        log.debug("Spread {} refresh requests over {} ms", tasks, TimeUnit.NANOSECONDS.toMillis(window));
+        return delays;
+    }
+
+    private void dispatch(List<Runnable> units, long[] delays) throws InterruptedException {
+        if (units.isEmpty()) {
+            return;
+        }
+        int tasks = units.size();
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(Math.min(tasks, 5));
+        CountDownLatch latch = new CountDownLatch(tasks);
+        try {
+            for (int i = 0; i < tasks; i++) {
+                Runnable unit = units.get(i);
+                executor.schedule(() -> {
+                    try {
+                        unit.run();
+                    } finally {
+                        latch.countDown();
+                    }
+                }, delays[i], TimeUnit.NANOSECONDS);
+            }
+            latch.await();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<List<Long>> partition(List<Long> cityIds) {
+        List<List<Long>> groups = new ArrayList<>();
+        for (int from = 0; from < cityIds.size(); from += OpenWeatherApiClient.MAX_GROUP_SIZE) {
+            groups.add(cityIds.subList(from, Math.min(from + OpenWeatherApiClient.MAX_GROUP_SIZE, cityIds.size())));
+        }
+        return groups;
+    }
+
     public void updateWeather() {
         if (!lock.tryLock()) {
             log.warn("Skipping update, another update is already in progress");
@@ -54,28 +277,143 @@ public class WeatherUpdater {
                 log.info("No cities in cache, skipping update");
                 return;
             }
+            cities = ownedCities(cities);
+            if (cities.isEmpty()) {
+                lastCycleEndNanos = cacheManager.currentNanos();
+                cycles.incrementAndGet();
+                return;
+            }
 
-            log.info("ModeSDK weather for {} cities", cities.size());
-            ExecutorService executor = Executors.newFixedThreadPool(Math.min(cities.size(), 5));
-            CountDownLatch latch = new CountDownLatch(cities.size());
-
+            PollingCycleEvent event = new PollingCycleEvent();
+            event.begin();
+            long cycleStart = System.nanoTime();
+            long freshNanos = freshNanos();
+            Map<String, Long> ages = new HashMap<>();
             for (String city : cities) {
-                executor.submit(() -> {
+                ages.put(city, cacheManager.getAgeNanos(city).orElse(Long.MAX_VALUE));
+            }
+            List<String> ordered = new ArrayList<>(cities);
+            ordered.sort(Comparator.comparing(ages::get, Comparator.reverseOrder()));
+            int due = 0;
+            while (due < ordered.size() && ages.get(ordered.get(due)) >= freshNanos) {
+                due++;
+            }
+            ordered = ordered.subList(0, due);
+            AtomicInteger cycleFresh = new AtomicInteger(cities.size() - ordered.size());
+
+            log.info("ModeSDK weather for {} of {} cities, most stale first", ordered.size(), cities.size());
+            Map<Long, List<String>> citiesById = new LinkedHashMap<>();
+            Map<String, Integer> ranks = new HashMap<>();
+            List<String> unresolvedCities = new ArrayList<>();
+            for (String city : ordered) {
+                ranks.put(city, ranks.size());
+                OptionalLong cityId = apiClient.findCityId(city);
+                if (cityId.isPresent()) {
+                    citiesById.computeIfAbsent(cityId.getAsLong(), id -> new ArrayList<>()).add(city);
+                } else {
+                    unresolvedCities.add(city);
+                }
+            }
+            List<List<Long>> groups = partition(new ArrayList<>(citiesById.keySet()));
+
+            AtomicInteger cycleUnchanged = new AtomicInteger();
+            AtomicInteger cycleRefreshed = new AtomicInteger();
+            AtomicInteger cycleMisses = new AtomicInteger();
+            AtomicInteger cycleFailures = new AtomicInteger();
+            List<RefreshUnit> units = new ArrayList<>(unresolvedCities.size() + groups.size());
+
+            for (List<Long> group : groups) {
+                List<String> groupCities = new ArrayList<>();
+                for (Long cityId : group) {
+                    groupCities.addAll(citiesById.get(cityId));
+                }
+                units.add(new RefreshUnit(ranks.get(groupCities.get(0)), groupCities, () -> {
+                    long start = System.nanoTime();
+                    try {
+                        int updated = apiClient.refreshWeatherGroup(group, cityId -> {
+                            List<String> idCities = citiesById.get(cityId);
+                            return idCities == null ? null : refreshTarget(idCities, cycleUnchanged);
+                        });
+                        log.info("Successfully updated weather for {} of {} cities in group request.",
+                                updated, group.size());
+                        publishRefresh(groupCities, null, start);
+                    } catch (Exception e) {
+                        cycleFailures.incrementAndGet();
+                        log.error("Failed to update weather for group {}: {}", group, e.getMessage());
+                        publishRefresh(groupCities, e, start);
+                    }
+                }));
+            }
+
+            for (String city : unresolvedCities) {
+                units.add(new RefreshUnit(ranks.get(city), List.of(city), () -> {
+                    long start = System.nanoTime();
                     try {
-                        String weatherData = apiClient.fetchWeather(city);
+                        String weatherData = fetch(city);
                         cacheManager.updateCache(city, weatherData);
                         log.info("Successfully updated weather for '{}'.", city);
+                        publishRefresh(List.of(city), null, start);
                     } catch (Exception e) {
+                        cycleFailures.incrementAndGet();
                         log.error("Failed to update weather for '{}': {}", city, e.getMessage());
-                    } finally {
-                        latch.countDown();
+                        publishRefresh(List.of(city), e, start);
+                    }
+                }));
+            }
+            units.sort(Comparator.comparingInt(unit -> unit.rank));
+
+            AtomicLong cycleLatency = new AtomicLong();
+            List<Runnable> tasks = new ArrayList<>(units.size());
+            for (RefreshUnit unit : units) {
+                tasks.add(() -> {
+                    long unitFreshNanos = freshNanos();
+                    boolean stale = false;
+                    for (String city : unit.cities) {
+                        OptionalLong age = cacheManager.getAgeNanos(city);
+                        if (age.isEmpty()) {
+                            cycleMisses.incrementAndGet();
+                        }
+                        stale |= age.orElse(Long.MAX_VALUE) >= unitFreshNanos;
+                    }
+                    if (!stale) {
+                        cycleFresh.addAndGet(unit.cities.size());
+                        return;
                     }
+                    long unitStart = System.nanoTime();
+                    unit.work.run();
+                    cycleLatency.accumulateAndGet(System.nanoTime() - unitStart, Math::max);
+                    cycleRefreshed.addAndGet(unit.cities.size());
                 });
             }
 
-            latch.await();
-            executor.shutdown();
-            log.info("Weather update cycle completed.");
+            dispatch(tasks, schedule(units, ages));
+            if (cycleLatency.get() > 0) {
+                unitLatencyNanos = cycleLatency.get();
+            }
+            lastCycleEndNanos = cacheManager.currentNanos();
+            cycles.incrementAndGet();
+            refreshes.addAndGet(cycleRefreshed.get());
+            unchanged.addAndGet(cycleUnchanged.get());
+            fresh.addAndGet(cycleFresh.get());
+            expiryMisses.addAndGet(cycleMisses.get());
+            long elapsed = System.nanoTime() - cycleStart;
+            if (event.shouldCommit()) {
+                event.cities = cities.size();
+                event.refreshed = cycleRefreshed.get();
+                event.unchanged = cycleUnchanged.get();
+                event.fresh = cycleFresh.get();
+                event.expiryMisses = cycleMisses.get();
+                event.failures = cycleFailures.get();
+                event.commit();
+            }
+            if (cycleMisses.get() > 0 || elapsed > intervalNanos) {
+                overloadedCycles.incrementAndGet();
+                log.warn("Polling cycle overloaded: took {} ms of a {} ms interval, {} cities expired before "
+                                + "their refresh", TimeUnit.NANOSECONDS.toMillis(elapsed),
+                        TimeUnit.NANOSECONDS.toMillis(intervalNanos), cycleMisses.get());
+            }
+            log.info("Weather update cycle completed, {} refreshed, {} unchanged, {} still fresh.",
+                    cycleRefreshed.get(), cycleUnchanged.get(), cycleFresh.get());
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             log.error("Weather update thread was interrupted.", e);
@@ -83,4 +421,17 @@ public class WeatherUpdater {
             lock.unlock();
         }
     }
+
+    private static final class RefreshUnit {
+
+        private final int rank;
+        private final List<String> cities;
+        private final Runnable work;
+
+        private RefreshUnit(int rank, List<String> cities, Runnable work) {
+            this.rank = rank;
+            this.cities = cities;
+            this.work = work;
+        }
+    }
 }
@@ -0,0 +1,146 @@
+package ru.practicum.test_task_weather_sdk;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task_weather_sdk.dto.ApiKeyStats;
+import ru.practicum.test_task_weather_sdk.exception.InvalidApiKeyException;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+import ru.practicum.test_task_weather_sdk.service.ApiKeyPool;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiKeyPoolTest {
+    private FakeTicker testTicker;
+
+    @BeforeEach
+    void setUp() {
+        testTicker = new FakeTicker();
+    }
+
+    @Test
+    void testAcquireSpreadsRequestsEvenlyAcrossKeys() {
+        ApiKeyPool pool = new ApiKeyPool(List.of("key-1", "key-2", "key-3"), 10, testTicker);
+        Map<String, Integer> counts = new HashMap<>();
+
+        for (int i = 0; i < 30; i++) {
+            counts.merge(pool.acquire(), 1, Integer::sum);
+        }
+
+        assertEquals(Map.of("key-1", 10, "key-2", 10, "key-3", 10), counts);
+    }
+
+    @Test
+    void testAcquirePrefersKeyWithMostRemainingQuota() {
+        ApiKeyPool pool = new ApiKeyPool(List.of("key-1", "key-2"), 5, testTicker);
+        pool.acquire();
+        testTicker.advance(Duration.ofSeconds(30));
+        for (int i = 0; i < 3; i++) {
+            pool.acquire();
+        }
+        testTicker.advance(Duration.ofSeconds(31));
+
+        assertEquals("key-1", pool.acquire());
+        assertEquals("key-1", pool.acquire());
+        assertEquals(3, pool.getStats().get(0).getRemainingQuota());
+        assertEquals(3, pool.getStats().get(1).getRemainingQuota());
+    }
+
+    @Test
+    void testConcurrentAcquiresNeverExceedAKeyQuota() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            ApiKeyPool pool = new ApiKeyPool(List.of("key-1", "key-2"), 100, testTicker);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<String>> acquired = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    acquired.add(executor.submit(() -> {
+                        start.await();
+                        return pool.acquire();
+                    }));
+                }
+                start.countDown();
+                Map<String, Integer> counts = new HashMap<>();
+                for (Future<String> key : acquired) {
+                    counts.merge(key.get(5, TimeUnit.SECONDS), 1, Integer::sum);
+                }
+                assertEquals(Map.of("key-1", 100, "key-2", 100), counts);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void testQuotaWindowResetsAfterOneMinute() {
+        ApiKeyPool pool = new ApiKeyPool(List.of("key-1"), 2, testTicker);
+        pool.acquire();
+        pool.acquire();
+        assertEquals(0, pool.getStats().get(0).getRemainingQuota());
+
+        testTicker.advance(Duration.ofMinutes(1));
+
+        assertEquals(2, pool.getStats().get(0).getRemainingQuota());
+    }
+
+    @Test
+    void testExhaustedPoolFallsBackToRoundRobin() {
+        ApiKeyPool pool = new ApiKeyPool(List.of("key-1", "key-2"), 1, testTicker);
+        pool.acquire();
+        pool.acquire();
+
+        assertDoesNotThrow(pool::acquire);
+        assertEquals(3, pool.getStats().stream().mapToLong(ApiKeyStats::getTotalRequests).sum());
+    }
+
+    @Test
+    void testDisabledKeyIsTakenOutOfRotationAndReported() {
+        ApiKeyPool pool = new ApiKeyPool(List.of("key-0001", "key-0002"), 10, testTicker);
+        pool.disable("key-0001", "Invalid API Key: revoked");
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("key-0002", pool.acquire());
+        }
+
+        ApiKeyStats disabled = pool.getStats().get(0);
+        assertFalse(disabled.isActive());
+        assertEquals("****0001", disabled.getMaskedKey());
+        assertEquals("Invalid API Key: revoked", disabled.getDisabledReason());
+        assertTrue(pool.hasActiveKeys());
+    }
+
+    @Test
+    void testAcquireThrowsWhenAllKeysDisabled() {
+        ApiKeyPool pool = new ApiKeyPool(List.of("key-1"), 10, testTicker);
+        pool.disable("key-1", "API Key blocked");
+
+        assertFalse(pool.hasActiveKeys());
+        assertThrows(InvalidApiKeyException.class, pool::acquire);
+    }
+
+    @Test
+    void testDuplicateKeysAreCollapsed() {
+        ApiKeyPool pool = new ApiKeyPool(List.of("key-1", "key-1", "key-2"), 10, testTicker);
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void testPoolRejectsInvalidConfiguration() {
+        assertThrows(InvalidApiKeyException.class, () -> new ApiKeyPool(null));
+        assertThrows(InvalidApiKeyException.class, () -> new ApiKeyPool(List.of()));
+        assertThrows(InvalidApiKeyException.class, () -> new ApiKeyPool(Arrays.asList("key-1", " ")));
+        assertThrows(WeatherSdkException.class, () -> new ApiKeyPool(List.of("key-1"), 0, testTicker));
+    }
+}
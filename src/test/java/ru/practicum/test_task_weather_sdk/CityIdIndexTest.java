@@ -0,0 +1,100 @@
+package ru.practicum.test_task_weather_sdk;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task_weather_sdk.exception.JsonParsingException;
+import ru.practicum.test_task_weather_sdk.service.CityIdIndex;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityIdIndexTest {
+    private CityIdIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CityIdIndex();
+    }
+
+    @Test
+    void testUnknownCityFallsBackToStrippedName() {
+        assertEquals("Paris", index.canonicalKey("  Paris "));
+        assertNull(index.findId("Paris"));
+    }
+
+    @Test
+    void testUnresolvedNamesAreRememberedUntilTheCityIsLearned() {
+        assertSame(index.canonicalKey(" paris "), index.canonicalKey(" paris "));
+
+        index.register("paris", 2988507L, "Paris", "FR");
+
+        assertEquals("Paris,FR", index.canonicalKey(" paris "));
+    }
+
+    @Test
+    void testLearnedMappingCollapsesSpellingVariants() {
+        index.register("paris", 2988507L, "Paris", "FR");
+
+        for (String variant : new String[]{"Paris", "paris", " Paris", "PARIS  ", "Paris,FR", "paris , fr"}) {
+            assertEquals("Paris,FR", index.canonicalKey(variant), variant);
+            assertEquals(2988507L, index.findId(variant), variant);
+        }
+    }
+
+    @Test
+    void testCanonicalKeysAreInterned() {
+        index.register("paris", 2988507L, "Paris", "FR");
+        index.register("Paris,FR", 2988507L, "Paris", "FR");
+
+        assertSame(index.canonicalKey("PARIS"), index.canonicalKey("Paris,fr"));
+    }
+
+    @Test
+    void testMultiWordNamesKeepSingleSpaces() {
+        index.register("new  york", 5128581L, "New York", "US");
+
+        assertEquals("New York,US", index.canonicalKey("NEW YORK"));
+        assertEquals("New York,US", index.canonicalKey("new york, us"));
+        assertEquals("Newyork", index.canonicalKey("Newyork"));
+    }
+
+    @Test
+    void testCityListResolvesNamesWithoutUpstreamCall() {
+        index.loadCityList(cityList("""
+                [
+                  {"id": 2988507, "name": "Paris", "state": "", "country": "FR", "coord": {"lon": 2.35, "lat": 48.85}},
+                  {"id": 4717560, "name": "Paris", "state": "TX", "country": "US", "coord": {"lon": -95.55, "lat": 33.66}},
+                  {"id": 3163858, "name": "Zocca", "state": "", "country": "IT", "coord": {"lon": 10.99, "lat": 44.34}}
+                ]
+                """));
+
+        assertEquals("Zocca,IT", index.canonicalKey("zocca"));
+        assertEquals(3163858L, index.findId("ZOCCA"));
+        assertEquals("Paris,US", index.canonicalKey("paris,us"));
+        assertEquals(4717560L, index.findId("Paris, US"));
+        assertEquals("paris", index.canonicalKey("paris"), "Ambiguous names are not resolved from the city list");
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testLearnedMappingWinsOverAmbiguousCityListName() {
+        index.loadCityList(cityList("""
+                [{"id": 2988507, "name": "Paris", "country": "FR"}, {"id": 4717560, "name": "Paris", "country": "US"}]
+                """));
+        index.register("paris", 2988507L, "Paris", "FR");
+
+        assertEquals("Paris,FR", index.canonicalKey("Paris"));
+    }
+
+    @Test
+    void testLoadCityListRejectsMalformedInput() {
+        assertThrows(JsonParsingException.class, () -> index.loadCityList(cityList("{\"id\": 1}")));
+    }
+
+    private static InputStream cityList(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
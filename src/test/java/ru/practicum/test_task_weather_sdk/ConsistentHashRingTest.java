@@ -0,0 +1,74 @@
+package ru.practicum.test_task_weather_sdk;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+import ru.practicum.test_task_weather_sdk.service.ConsistentHashRing;
+import ru.practicum.test_task_weather_sdk.service.StaticPollingCoordinator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 6000;
+
+    @Test
+    void testKeysAreSpreadEvenlyAndIndependentOfMemberOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"));
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of("node-c", "node-a", "node-b"));
+        Map<String, Integer> owned = new HashMap<>();
+
+        for (int i = 0; i < KEYS; i++) {
+            String owner = ring.owner("City" + i);
+            assertEquals(owner, reordered.owner("City" + i));
+            owned.merge(owner, 1, Integer::sum);
+        }
+
+        assertEquals(3, owned.size());
+        for (int count : owned.values()) {
+            assertTrue(Math.abs(count - KEYS / 3) < KEYS / 3 * 0.2, "unbalanced ownership " + owned);
+        }
+    }
+
+    @Test
+    void testJoiningNodeOnlyTakesKeysFromOthers() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"));
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node-a", "node-b", "node-c", "node-d"));
+        int moved = 0;
+
+        for (int i = 0; i < KEYS; i++) {
+            String oldOwner = before.owner("City" + i);
+            String newOwner = after.owner("City" + i);
+            if (!oldOwner.equals(newOwner)) {
+                assertEquals("node-d", newOwner);
+                moved++;
+            }
+        }
+
+        assertTrue(Math.abs(moved - KEYS / 4) < KEYS / 4 * 0.2, "moved " + moved + " keys");
+    }
+
+    @Test
+    void testLeavingNodeOnlyReleasesItsOwnKeys() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"));
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node-a", "node-c"));
+
+        for (int i = 0; i < KEYS; i++) {
+            String oldOwner = before.owner("City" + i);
+            if (!oldOwner.equals("node-b")) {
+                assertEquals(oldOwner, after.owner("City" + i));
+            }
+        }
+    }
+
+    @Test
+    void testInvalidMembershipIsRejected() {
+        assertThrows(WeatherSdkException.class, () -> new ConsistentHashRing(List.of()));
+        assertThrows(WeatherSdkException.class, () -> new ConsistentHashRing(List.of("node-a"), 0));
+        assertThrows(WeatherSdkException.class, () -> new StaticPollingCoordinator("node-z", List.of("node-a")));
+        assertThrows(WeatherSdkException.class, () -> new StaticPollingCoordinator("node-a", List.of()));
+    }
+}
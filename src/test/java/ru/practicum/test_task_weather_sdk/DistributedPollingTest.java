@@ -0,0 +1,154 @@
+package ru.practicum.test_task_weather_sdk;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+import ru.practicum.test_task_weather_sdk.service.ConsistentHashRing;
+import ru.practicum.test_task_weather_sdk.service.KeyValueCacheStore;
+import ru.practicum.test_task_weather_sdk.service.OpenWeatherApiClient;
+import ru.practicum.test_task_weather_sdk.service.PollingCoordinator;
+import ru.practicum.test_task_weather_sdk.service.WeatherCacheManager;
+import ru.practicum.test_task_weather_sdk.service.WeatherUpdater;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributedPollingTest {
+
+    private static final int CITIES = 12;
+    private static final List<String> NODES = List.of("node-a", "node-b", "node-c");
+
+    private final List<String> members = new CopyOnWriteArrayList<>(NODES);
+    private final List<WeatherCacheManager> caches = new ArrayList<>();
+    private final List<WeatherUpdater> updaters = new ArrayList<>();
+    private final List<KeyValueCacheStore> stores = new ArrayList<>();
+    private FakeOpenWeatherServer weatherServer;
+    private FakeKeyValueServer storeServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        weatherServer = new FakeOpenWeatherServer();
+        for (int i = 1; i <= CITIES; i++) {
+            weatherServer.withCity("City" + i, 1000 + i, 40 + i);
+        }
+        weatherServer.start();
+        storeServer = new FakeKeyValueServer();
+        storeServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        updaters.forEach(WeatherUpdater::stop);
+        stores.forEach(KeyValueCacheStore::close);
+        storeServer.shutdown();
+        weatherServer.shutdown();
+    }
+
+    @Test
+    void testEachCityIsRefreshedByExactlyOneNode() {
+        startNodes();
+        assertEquals(CITIES, weatherServer.groupCityCount());
+
+        weatherServer.setTemperature("City7", 99.5);
+        runCycles(2);
+
+        assertEquals(3 * CITIES, weatherServer.groupCityCount());
+        for (WeatherCacheManager cache : caches) {
+            assertTrue(cache.getCached("City7").contains("\"temp\":99.5"));
+        }
+    }
+
+    @Test
+    void testRemainingNodesTakeOverWhenANodeLeaves() {
+        startNodes();
+        members.remove("node-c");
+        updaters.get(2).stop();
+        weatherServer.setTemperature("City3", 12.5);
+
+        for (int node = 0; node < 2; node++) {
+            updaters.get(node).updateWeather();
+        }
+        for (int node = 0; node < 2; node++) {
+            updaters.get(node).updateWeather();
+        }
+
+        assertEquals(3 * CITIES, weatherServer.groupCityCount());
+        assertTrue(caches.get(0).getCached("City3").contains("\"temp\":12.5"));
+        assertTrue(caches.get(1).getCached("City3").contains("\"temp\":12.5"));
+    }
+
+    @Test
+    void testCityCachedOnlyByANonOwnerIsStillRefreshed() {
+        weatherServer.withCity("Lone", 2000, 10.0);
+        startNodes();
+        String owner = new ConsistentHashRing(NODES).owner("Lone");
+        int node = NODES.indexOf(owner) == 0 ? 1 : 0;
+        WeatherCacheManager cache = caches.get(node);
+        OpenWeatherApiClient client = new OpenWeatherApiClient("test-api-key", weatherServer.baseUrl());
+        cache.updateCache("Lone", client.fetchWeather("Lone"));
+        storeServer.put("Lone", "{}", 0);
+
+        weatherServer.setTemperature("Lone", 21.5);
+        runCycles(1);
+
+        assertTrue(cache.getCached("Lone").contains("\"temp\":21.5"));
+        assertTrue(caches.get(NODES.indexOf(owner)).getCached("Lone").contains("\"temp\":21.5"));
+    }
+
+    @Test
+    void testOwnershipRequiresASharedStore() {
+        OpenWeatherApiClient client = new OpenWeatherApiClient("test-api-key", weatherServer.baseUrl());
+        WeatherCacheManager cache = new WeatherCacheManager(100, Duration.ofMinutes(10), new FakeTicker());
+
+        assertThrows(WeatherSdkException.class, () -> new WeatherUpdater(cache, client, 3600, coordinator("node-a")));
+
+        WeatherUpdater updater = new WeatherUpdater(cache, client, 3600);
+        updaters.add(updater);
+        assertThrows(WeatherSdkException.class, () -> updater.setCoordinator(coordinator("node-a")));
+    }
+
+    private void startNodes() {
+        for (String node : NODES) {
+            OpenWeatherApiClient client = new OpenWeatherApiClient("test-api-key", weatherServer.baseUrl());
+            WeatherCacheManager cache = new WeatherCacheManager(100, Duration.ofMinutes(10), new FakeTicker());
+            KeyValueCacheStore store = new KeyValueCacheStore(storeServer.host(), storeServer.port());
+            stores.add(store);
+            cache.setSharedStore(store);
+            for (int i = 1; i <= CITIES; i++) {
+                cache.updateCache("City" + i, client.fetchWeather("City" + i));
+            }
+            caches.add(cache);
+            updaters.add(new WeatherUpdater(cache, client, 3600, coordinator(node)));
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(() ->
+                updaters.stream().allMatch(updater -> updater.getRefreshStats().getCycles() == 1));
+    }
+
+    private void runCycles(int cycles) {
+        for (int cycle = 0; cycle < cycles; cycle++) {
+            updaters.forEach(WeatherUpdater::updateWeather);
+        }
+    }
+
+    private PollingCoordinator coordinator(String node) {
+        return new PollingCoordinator() {
+            @Override
+            public String localNodeId() {
+                return node;
+            }
+
+            @Override
+            public List<String> members() {
+                return members;
+            }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.test_task_weather_sdk;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FakeHugeBodyServer {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "fake-huge-body-server");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ServerSocket serverSocket;
+    private volatile int status;
+    private volatile String contentType;
+    private volatile byte[] prefix;
+    private volatile long bodyBytes;
+    private volatile boolean chunked;
+
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor.submit(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    executor.submit(() -> serve(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    public void shutdown() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    public String baseUrl() {
+        return "http://" + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort() + "/";
+    }
+
+    public void respond(int status, String contentType, String prefix, long bodyBytes, boolean chunked) {
+        this.status = status;
+        this.contentType = contentType;
+        this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+        this.bodyBytes = bodyBytes;
+        this.chunked = chunked;
+        bytesWritten.set(0);
+        finished.set(false);
+    }
+
+    public long bytesWritten() {
+        return bytesWritten.get();
+    }
+
+    public boolean isFinished() {
+        return finished.get();
+    }
+
+    private void serve(Socket socket) {
+        try (socket; InputStream in = new BufferedInputStream(socket.getInputStream())) {
+            skipRequest(in);
+            OutputStream out = socket.getOutputStream();
+            String headers = "HTTP/1.1 " + status + " Status\r\n"
+                    + "Content-Type: " + contentType + "\r\n"
+                    + (chunked ? "Transfer-Encoding: chunked\r\n" : "Content-Length: " + bodyBytes + "\r\n")
+                    + "Connection: close\r\n\r\n";
+            out.write(headers.getBytes(StandardCharsets.US_ASCII));
+            byte[] filler = new byte[CHUNK_SIZE];
+            Arrays.fill(filler, (byte) 'a');
+            byte[] first = Arrays.copyOf(prefix, CHUNK_SIZE);
+            Arrays.fill(first, prefix.length, CHUNK_SIZE, (byte) 'a');
+            long remaining = bodyBytes;
+            while (remaining > 0) {
+                int length = (int) Math.min(CHUNK_SIZE, remaining);
+                byte[] chunk = remaining == bodyBytes ? first : filler;
+                if (chunked) {
+                    out.write((Integer.toHexString(length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                }
+                out.write(chunk, 0, length);
+                if (chunked) {
+                    out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                }
+                bytesWritten.addAndGet(length);
+                remaining -= length;
+            }
+            if (chunked) {
+                out.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            }
+            out.flush();
+        } catch (IOException ignored) {
+        } finally {
+            finished.set(true);
+        }
+    }
+
+    private static void skipRequest(InputStream in) throws IOException {
+        int matched = 0;
+        int b;
+        while (matched < 4 && (b = in.read()) >= 0) {
+            matched = b == "\r\n\r\n".charAt(matched) ? matched + 1 : b == '\r' ? 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.test_task_weather_sdk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FakeKeyValueServer {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger gets = new AtomicInteger();
+    private final AtomicInteger sets = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "fake-kv-server");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ServerSocket serverSocket;
+
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor.submit(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    executor.submit(() -> serve(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    public void shutdown() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    public String host() {
+        return serverSocket.getInetAddress().getHostAddress();
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public void put(String key, String value, long expiresAtEpochMillis) {
+        entries.put(key, new Entry(value.getBytes(StandardCharsets.UTF_8), expiresAtEpochMillis));
+    }
+
+    public int getCount() {
+        return gets.get();
+    }
+
+    public int setCount() {
+        return sets.get();
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             InputStream in = new BufferedInputStream(socket.getInputStream());
+             OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+            String line;
+            while ((line = readLine(in)) != null) {
+                String[] command = line.split(" ");
+                String key = URLDecoder.decode(command[1], StandardCharsets.UTF_8);
+                if ("GET".equals(command[0])) {
+                    gets.incrementAndGet();
+                    Entry entry = entries.get(key);
+                    if (entry == null || entry.expiresAt <= System.currentTimeMillis()) {
+                        out.write("MISS\n".getBytes(StandardCharsets.US_ASCII));
+                    } else {
+                        out.write(("VALUE " + entry.expiresAt + " " + entry.value.length + "\n")
+                                .getBytes(StandardCharsets.US_ASCII));
+                        out.write(entry.value);
+                        out.write('\n');
+                    }
+                } else {
+                    sets.incrementAndGet();
+                    byte[] value = in.readNBytes(Integer.parseInt(command[3]));
+                    readLine(in);
+                    entries.put(key, new Entry(value, Long.parseLong(command[2])));
+                    out.write("OK\n".getBytes(StandardCharsets.US_ASCII));
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // client went away
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                return null;
+            }
+            line.append((char) b);
+        }
+        return line.toString();
+    }
+
+    private static final class Entry {
+
+        private final byte[] value;
+        private final long expiresAt;
+
+        private Entry(byte[] value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package ru.practicum.test_task_weather_sdk;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FakeOpenWeatherServer {
+
+    private final MockWebServer server = new MockWebServer();
+    private final Map<String, City> citiesByName = new ConcurrentHashMap<>();
+    private final Map<Long, City> citiesById = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger groupCityCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final List<Long> requestNanos = new CopyOnWriteArrayList<>();
+    private volatile long latencyMillis;
+
+    public FakeOpenWeatherServer() {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return handle(request);
+            }
+        });
+    }
+
+    public void start() throws IOException {
+        server.start();
+    }
+
+    public void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    public String baseUrl() {
+        return server.url("/").toString();
+    }
+
+    public FakeOpenWeatherServer withCity(String name, long id, double temp) {
+        return withCity(name, "XX", id, temp);
+    }
+
+    public FakeOpenWeatherServer withCity(String name, String country, long id, double temp) {
+        City city = new City(name, country, id, temp);
+        citiesByName.put(name.toLowerCase(Locale.ROOT), city);
+        citiesById.put(id, city);
+        return this;
+    }
+
+    public void setTemperature(String name, double temp) {
+        citiesByName.get(name.toLowerCase(Locale.ROOT)).temp = temp;
+    }
+
+    public int requestCount(String path) {
+        AtomicInteger count = requestCounts.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    public FakeOpenWeatherServer withLatency(long millis) {
+        this.latencyMillis = millis;
+        return this;
+    }
+
+    public int peakInFlight() {
+        return peakInFlight.get();
+    }
+
+    public List<Long> requestNanos() {
+        return requestNanos;
+    }
+
+    public void resetLoadStats() {
+        requestNanos.clear();
+        peakInFlight.set(0);
+    }
+
+    public int groupCityCount() {
+        return groupCityCount.get();
+    }
+
+    private MockResponse handle(RecordedRequest request) {
+        requestNanos.add(System.nanoTime());
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            return route(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return error(500, "Interrupted");
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private MockResponse route(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        if (url == null) {
+            return error(400, "Invalid request");
+        }
+        String path = url.encodedPath();
+        requestCounts.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+        return switch (path) {
+            case "/weather" -> weather(url);
+            case "/group" -> group(url);
+            case "/onecall" -> forecast();
+            default -> error(404, "Internal error");
+        };
+    }
+
+    private MockResponse weather(HttpUrl url) {
+        String query = url.queryParameter("q");
+        City city = query == null ? null : citiesByName.get(query.split(",")[0].trim().toLowerCase(Locale.ROOT));
+        if (query == null && url.queryParameter("lat") != null && url.queryParameter("lon") != null) {
+            city = citiesByName.values().stream().findFirst().orElse(null);
+        }
+        if (city == null) {
+            return error(404, "city not found");
+        }
+        return json(city.toJson());
+    }
+
+    private MockResponse forecast() {
+        long hour = System.currentTimeMillis() / 1000 / 3600 * 3600;
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < 48; i++) {
+            entries.add(String.format(Locale.ROOT, """
+                    {"dt":%d,"temp":%d.5,"feels_like":%d.0,"pressure":1015,"wind_speed":%d.25,"pop":0.%d,
+                     "weather":[{"id":500,"main":"Rain","description":"light rain","icon":"10d"}]}""",
+                    hour + i * 3600L, 40 + i, 38 + i, 3 + i % 5, i % 10));
+        }
+        return json("{\"lat\":48.85,\"lon\":2.35,\"timezone\":\"Europe/Paris\",\"timezone_offset\":3600,"
+                + "\"hourly\":[" + String.join(",", entries) + "]}");
+    }
+
+    private MockResponse group(HttpUrl url) {
+        String ids = url.queryParameter("id");
+        if (ids == null || ids.isBlank()) {
+            return error(400, "Nothing to geocode");
+        }
+        List<String> entries = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            groupCityCount.incrementAndGet();
+            City city = citiesById.get(Long.parseLong(id.trim()));
+            if (city != null) {
+                entries.add(city.toJson());
+            }
+        }
+        return json("{\"cnt\":" + entries.size() + ",\"list\":[" + String.join(",", entries) + "]}");
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse()
+                .setBody(body)
+                .addHeader("Content-Type", "application/json");
+    }
+
+    private static MockResponse error(int status, String message) {
+        return json("{\"cod\":\"" + status + "\",\"message\":\"" + message + "\"}").setResponseCode(status);
+    }
+
+    private static final class City {
+
+        private final String name;
+        private final String country;
+        private final long id;
+        private volatile double temp;
+
+        private City(String name, String country, long id, double temp) {
+            this.name = name;
+            this.country = country;
+            this.id = id;
+            this.temp = temp;
+        }
+
+        private String toJson() {
+            return String.format(Locale.ROOT, """
+                    {"weather":[{"id":804,"main":"Clouds","description":"overcast clouds","icon":"04d"}],
+                     "main":{"temp":%.2f,"feels_like":%.2f},
+                     "visibility":10000,
+                     "wind":{"speed":2.46},
+                     "dt":1740406884,
+                     "sys":{"country":"%s","sunrise":1740376916,"sunset":1740416215},
+                     "timezone":3600,
+                     "coord":{"lon":2.35,"lat":48.85},
+                     "id":%d,
+                     "name":"%s",
+                     "cod":200}""", temp, temp, country, id, name);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.test_task_weather_sdk;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task_weather_sdk.dto.Forecast;
+import ru.practicum.test_task_weather_sdk.dto.ForecastMetric;
+import ru.practicum.test_task_weather_sdk.dto.ForecastSlice;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+import ru.practicum.test_task_weather_sdk.service.ForecastCache;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastCacheTest {
+    private static final long START = 1740405600L;
+
+    private FakeTicker ticker;
+    private ForecastCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        ticker = new FakeTicker();
+        cache = new ForecastCache(10, Duration.ofHours(1), ticker);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testForecastIsReusedUntilExpired() {
+        cache.get("geo:u09tv", this::load);
+        ticker.advance(Duration.ofMinutes(59));
+        cache.get("geo:u09tv", this::load);
+        assertEquals(1, loads.get());
+
+        ticker.advance(Duration.ofMinutes(2));
+        cache.get("geo:u09tv", this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testExpirationCanBeChanged() {
+        cache.get("geo:u09tv", this::load);
+        cache.setExpirationTime(Duration.ofMinutes(10));
+        ticker.advance(Duration.ofMinutes(11));
+
+        cache.get("geo:u09tv", this::load);
+
+        assertEquals(2, loads.get());
+        assertThrows(WeatherSdkException.class, () -> cache.setExpirationTime(Duration.ZERO));
+    }
+
+    @Test
+    void testConcurrentMissesShareOneFetch() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Forecast> first = executor.submit(() -> cache.get("geo:u09tv", () -> {
+                fetching.countDown();
+                await(release);
+                return load();
+            }));
+            assertTrue(fetching.await(5, TimeUnit.SECONDS));
+            Future<Forecast> second = executor.submit(() -> cache.get("geo:u09tv", this::load));
+            release.countDown();
+
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailedFetchIsNotCached() {
+        assertThrows(WeatherSdkException.class, () -> cache.get("geo:u09tv", () -> {
+            throw new WeatherSdkException("boom");
+        }));
+
+        cache.get("geo:u09tv", this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testNextHoursStartsAtCurrentHour() {
+        Forecast forecast = load();
+
+        ForecastSlice slice = ForecastCache.nextHours(forecast, START + 2 * 3600 + 1800, 3);
+
+        assertEquals(3, slice.size());
+        assertEquals(START + 2 * 3600, slice.timestamp(0));
+        assertArrayEquals(new float[]{2, 3, 4}, slice.values(ForecastMetric.TEMPERATURE));
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.value(ForecastMetric.TEMPERATURE, 3));
+    }
+
+    @Test
+    void testCallersCannotChangeACachedForecast() {
+        Forecast forecast = load();
+
+        forecast.getTimestamps()[0] = 0;
+        forecast.values(ForecastMetric.TEMPERATURE)[0] = 99;
+        ForecastCache.nextHours(forecast, START, 1).values(ForecastMetric.TEMPERATURE)[0] = 99;
+
+        assertEquals(START, forecast.timestamp(0));
+        assertEquals(0, forecast.value(ForecastMetric.TEMPERATURE, 0));
+    }
+
+    @Test
+    void testNextHoursIsClampedToForecastEnd() {
+        Forecast forecast = load();
+
+        assertEquals(48, ForecastCache.nextHours(forecast, 0, 100).size());
+        assertEquals(2, ForecastCache.nextHours(forecast, START + 46 * 3600, 10).size());
+        assertEquals(0, ForecastCache.nextHours(forecast, START + 48 * 3600, 10).size());
+    }
+
+    @Test
+    void testPackedForecastMemory() {
+        assertEquals(1208, ForecastCache.retainedBytes(load()));
+    }
+
+    private Forecast load() {
+        loads.incrementAndGet();
+        long[] timestamps = new long[48];
+        float[] values = new float[48 * Forecast.STRIDE];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = START + i * 3600L;
+            values[i * Forecast.STRIDE + ForecastMetric.TEMPERATURE.ordinal()] = i;
+        }
+        return new Forecast(timestamps, values);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.test_task_weather_sdk;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task_weather_sdk.exception.InvalidCoordinatesException;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+import ru.practicum.test_task_weather_sdk.service.GeoGrid;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoGridTest {
+
+    @Test
+    void testCellKeyMatchesStandardGeohash() {
+        assertEquals("geo:u4pruydqqvj", new GeoGrid(11).cellKey(57.64911, 10.40744));
+        assertEquals("geo:u4pru", new GeoGrid().cellKey(57.64911, 10.40744));
+    }
+
+    @Test
+    void testNearbyPointsShareCellAndDistantPointsDoNot() {
+        GeoGrid grid = new GeoGrid(5);
+
+        assertEquals(grid.cellKey(48.8566, 2.3522), grid.cellKey(48.8570, 2.3530));
+        assertNotEquals(grid.cellKey(48.8566, 2.3522), grid.cellKey(51.5074, -0.1278));
+    }
+
+    @Test
+    void testCellCenterLiesInsideCell() {
+        GeoGrid grid = new GeoGrid(6);
+        String key = grid.cellKey(-33.8688, 151.2093);
+
+        double[] center = GeoGrid.cellCenter(key);
+
+        assertEquals(key, grid.cellKey(center[0], center[1]));
+        assertEquals(-33.8688, center[0], 0.01);
+        assertEquals(151.2093, center[1], 0.01);
+    }
+
+    @Test
+    void testEdgeCoordinatesAreAccepted() {
+        GeoGrid grid = new GeoGrid();
+
+        assertTrue(GeoGrid.isCellKey(grid.cellKey(90, 180)));
+        assertTrue(GeoGrid.isCellKey(grid.cellKey(-90, -180)));
+        assertFalse(GeoGrid.isCellKey("Paris,FR"));
+    }
+
+    @Test
+    void testInvalidInputIsRejected() {
+        GeoGrid grid = new GeoGrid();
+
+        assertThrows(InvalidCoordinatesException.class, () -> grid.cellKey(-90.5, 0));
+        assertThrows(InvalidCoordinatesException.class, () -> grid.cellKey(0, 180.1));
+        assertThrows(InvalidCoordinatesException.class, () -> GeoGrid.cellCenter("geo:a"));
+        assertThrows(InvalidCoordinatesException.class, () -> GeoGrid.cellCenter("Paris"));
+        assertThrows(WeatherSdkException.class, () -> new GeoGrid(0));
+        assertThrows(WeatherSdkException.class, () -> new GeoGrid(13));
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.test_task_weather_sdk;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task_weather_sdk.dto.HotCity;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+import ru.practicum.test_task_weather_sdk.service.HotCityTracker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotCityTrackerTest {
+
+    @Test
+    void testTopCitiesFollowRequestFrequency() {
+        HotCityTracker tracker = new HotCityTracker(5, 1024);
+        for (int round = 1; round <= 200; round++) {
+            for (int city = 1; city <= 100; city++) {
+                if (round % city == 0) {
+                    tracker.record("City" + city);
+                }
+            }
+        }
+
+        List<HotCity> hot = tracker.getHotCities();
+        assertEquals(List.of("City1", "City2", "City3", "City4", "City5"),
+                hot.stream().map(HotCity::getCity).toList());
+        assertTrue(hot.get(0).getEstimatedRequests() >= 200);
+        assertTrue(tracker.estimatedRequests("City100") >= 2);
+    }
+
+    @Test
+    void testLargeTopKKeepsExactlyTheHottestCities() {
+        HotCityTracker tracker = new HotCityTracker(100, 1 << 16);
+        List<String> requests = new ArrayList<>();
+        for (int city = 1; city <= 600; city++) {
+            for (int i = 0; i < city; i++) {
+                requests.add("City" + city);
+            }
+        }
+        Collections.shuffle(requests, new Random(42));
+        requests.forEach(tracker::record);
+
+        List<String> expected = IntStream.rangeClosed(501, 600).map(city -> 1101 - city)
+                .mapToObj(city -> "City" + city).toList();
+        assertEquals(expected, tracker.getHotCities().stream().map(HotCity::getCity).toList());
+    }
+
+    @Test
+    void testCountsAgeSoNewHotCitiesTakeOver() {
+        HotCityTracker tracker = new HotCityTracker(1, 64);
+        for (int i = 0; i < 600; i++) {
+            tracker.record("Paris");
+        }
+        for (int i = 0; i < 2000; i++) {
+            tracker.record("Rome");
+        }
+
+        assertEquals("Rome", tracker.getHotCities().get(0).getCity());
+        assertTrue(tracker.estimatedRequests("Paris") < 600);
+    }
+
+    @Test
+    void testConcurrentRecordingKeepsHottestCity() throws Exception {
+        HotCityTracker tracker = new HotCityTracker(3, 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int worker = 0; worker < 4; worker++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        tracker.record(i % 2 == 0 ? "Paris" : "City" + i % 500);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("Paris", tracker.getHotCities().get(0).getCity());
+    }
+
+    @Test
+    void testRejectsInvalidLimits() {
+        assertThrows(WeatherSdkException.class, () -> new HotCityTracker(0, 1024));
+        assertThrows(WeatherSdkException.class, () -> new HotCityTracker(10, 16));
+    }
+}
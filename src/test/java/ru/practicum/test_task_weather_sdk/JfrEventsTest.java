@@ -0,0 +1,141 @@
+package ru.practicum.test_task_weather_sdk;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.test_task_weather_sdk.dto.ModeSDK;
+import ru.practicum.test_task_weather_sdk.service.OpenWeatherApiClient;
+import ru.practicum.test_task_weather_sdk.service.WeatherCacheManager;
+import ru.practicum.test_task_weather_sdk.service.WeatherSdkImpl;
+import ru.practicum.test_task_weather_sdk.service.WeatherUpdater;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrEventsTest {
+
+    @Test
+    void testSdkOperationsAreRecordedWithBundledSettings(@TempDir Path dir) throws Exception {
+        FakeOpenWeatherServer server = new FakeOpenWeatherServer()
+                .withCity("Paris", "FR", 2988507, 60.0)
+                .withCity("Rome", "IT", 3169070, 70.0)
+                .withCity("Berlin", "DE", 2950159, 50.0)
+                .withLatency(100);
+        server.start();
+        Configuration settings;
+        try (Reader jfc = new InputStreamReader(getClass().getResourceAsStream("/weather-sdk.jfc"),
+                StandardCharsets.UTF_8)) {
+            settings = Configuration.create(jfc);
+        }
+        Path file = dir.resolve("weather.jfr");
+        try (Recording recording = new Recording(settings)) {
+            recording.enable("ru.practicum.weather.LockWait").withThreshold(Duration.ZERO);
+            recording.start();
+
+            WeatherSdkImpl sdk = new WeatherSdkImpl("validKey", ModeSDK.ON_DEMAND_MODE, 0);
+            OpenWeatherApiClient client = new OpenWeatherApiClient("validKey", server.baseUrl());
+            ReflectionTestUtils.setField(sdk, "apiClient", client);
+            sdk.reconfigureCache(1, Duration.ofMinutes(10));
+            sdk.getWeather("Rome");
+            sdk.getWeather("Rome");
+            CompletableFuture<String> paris = CompletableFuture.supplyAsync(() -> sdk.getWeather("Paris"));
+            sdk.getWeather("Berlin");
+            paris.get(5, TimeUnit.SECONDS);
+
+            WeatherCacheManager cache = new WeatherCacheManager(10, Duration.ofMinutes(10), new FakeTicker());
+            cache.updateCache("Paris", "{\"name\":\"Paris\"}");
+            cache.updateCache("Atlantis", "{\"name\":\"Atlantis\"}");
+            WeatherUpdater updater = new WeatherUpdater(cache, client, 3600);
+            await().atMost(5, TimeUnit.SECONDS).until(() -> updater.getRefreshStats().getCycles() == 1);
+            updater.stop();
+            sdk.shutdown();
+
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            server.shutdown();
+        }
+
+        Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(file).stream()
+                .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+
+        List<RecordedEvent> lookups = events.get("ru.practicum.weather.CacheLookup");
+        assertTrue(lookups.stream().anyMatch(event -> event.getBoolean("hit")));
+        assertTrue(lookups.stream().anyMatch(event -> !event.getBoolean("hit")));
+
+        List<RecordedEvent> fetches = events.get("ru.practicum.weather.UpstreamFetch");
+        assertTrue(fetches.stream().anyMatch(event -> "Paris".equals(event.getString("target"))
+                && event.getInt("status") == 200 && event.getLong("bytes") > 100));
+        assertTrue(fetches.stream().anyMatch(event -> event.getInt("status") == 404));
+        assertTrue(fetches.stream().noneMatch(event -> event.getString("target").contains("validKey")));
+
+        RecordedEvent eviction = events.get("ru.practicum.weather.CacheEviction").get(0);
+        assertEquals("SIZE", eviction.getString("cause"));
+
+        RecordedEvent cycle = events.get("ru.practicum.weather.PollingCycle").get(0);
+        assertEquals(2, cycle.getInt("cities"));
+        assertEquals(1, cycle.getInt("failures"));
+        assertTrue(cycle.getDuration().toMillis() >= 100);
+
+        assertTrue(events.get("ru.practicum.weather.LockWait").stream()
+                .anyMatch(event -> "WeatherSdkImpl.fetch".equals(event.getString("lock"))));
+    }
+
+    @Test
+    void testFailedFetchesAndMaxAgeLookupsAreRecorded(@TempDir Path dir) throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        Path file = dir.resolve("weather.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("ru.practicum.weather.UpstreamFetch").withThreshold(Duration.ZERO);
+            recording.enable("ru.practicum.weather.CacheLookup");
+            recording.start();
+
+            OpenWeatherApiClient client = new OpenWeatherApiClient("validKey", "http://127.0.0.1:" + closedPort);
+            assertThrows(RuntimeException.class, () -> client.fetchWeather("Oslo"));
+
+            FakeTicker ticker = new FakeTicker();
+            WeatherCacheManager cache = new WeatherCacheManager(10, Duration.ofMinutes(10), ticker);
+            cache.updateCache("Lima", "{\"name\":\"Lima\"}");
+            ticker.advance(Duration.ofMinutes(2));
+            assertNotNull(cache.findFresh("Lima", TimeUnit.MINUTES.toNanos(5)));
+            assertNull(cache.findFresh("Lima", TimeUnit.MINUTES.toNanos(1)));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(file).stream()
+                .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+
+        RecordedEvent fetch = events.get("ru.practicum.weather.UpstreamFetch").get(0);
+        assertEquals("Oslo", fetch.getString("target"));
+        assertEquals(0, fetch.getInt("status"));
+        assertNotNull(fetch.getString("error"));
+
+        assertEquals(List.of(true, false), events.get("ru.practicum.weather.CacheLookup").stream()
+                .filter(event -> "Lima".equals(event.getString("city")))
+                .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                .map(event -> event.getBoolean("hit"))
+                .toList());
+    }
+}
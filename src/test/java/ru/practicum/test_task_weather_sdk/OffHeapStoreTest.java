@@ -0,0 +1,103 @@
+package ru.practicum.test_task_weather_sdk;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+import ru.practicum.test_task_weather_sdk.service.OffHeapStore;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStoreTest {
+
+    @Test
+    void testStoreAndReadRoundTrip() {
+        OffHeapStore store = new OffHeapStore(16, 2);
+        OffHeapStore.Handle first = store.store(bytes("Paris"));
+        OffHeapStore.Handle second = store.store(bytes("Berlin"));
+        OffHeapStore.Handle third = store.store(bytes("Oslo"));
+
+        assertEquals("Paris", text(store.read(first)));
+        assertEquals("Berlin", text(store.read(second)));
+        assertEquals("Oslo", text(store.read(third)));
+        assertEquals(3, store.size());
+        assertEquals(64, store.reservedBytes());
+    }
+
+    @Test
+    void testOversizedPayloadIsRejected() {
+        OffHeapStore store = new OffHeapStore(4, 2);
+
+        assertNull(store.store(bytes("London")));
+        assertEquals(0, store.size());
+        assertThrows(WeatherSdkException.class, () -> new OffHeapStore(0, 1));
+    }
+
+    @Test
+    void testReleasedSlotIsReusedAndOldHandleReadsNothing() {
+        OffHeapStore store = new OffHeapStore(16, 1);
+        OffHeapStore.Handle old = store.store(bytes("Paris"));
+        store.release(old);
+        store.release(old);
+        OffHeapStore.Handle reused = store.store(bytes("Rome"));
+
+        assertNull(store.read(old));
+        assertEquals("Rome", text(store.read(reused)));
+        assertEquals(1, store.size());
+        assertEquals(16, store.reservedBytes());
+    }
+
+    @Test
+    void testClearInvalidatesOutstandingHandles() {
+        OffHeapStore store = new OffHeapStore(16, 4);
+        OffHeapStore.Handle handle = store.store(bytes("Paris"));
+        store.clear();
+        OffHeapStore.Handle fresh = store.store(bytes("Lima"));
+        store.release(handle);
+
+        assertNull(store.read(handle));
+        assertEquals("Lima", text(store.read(fresh)));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testReadersNeverObserveTornPayloads() throws Exception {
+        OffHeapStore store = new OffHeapStore(64, 1);
+        AtomicReference<OffHeapStore.Handle> current = new AtomicReference<>(store.store(bytes("a".repeat(64))));
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; running.get(); i++) {
+                String payload = String.valueOf((char) ('a' + i % 26)).repeat(64);
+                store.release(current.getAndSet(store.store(bytes(payload))));
+            }
+        });
+        try {
+            for (int i = 0; i < 100_000; i++) {
+                byte[] payload = store.read(current.get());
+                if (payload != null) {
+                    for (byte b : payload) {
+                        assertEquals(payload[0], b);
+                    }
+                }
+            }
+        } finally {
+            running.set(false);
+            executor.shutdown();
+        }
+        writer.get();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -5,12 +5,23 @@ import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.practicum.test_task_weather_sdk.dto.ApiKeyStats;
+import ru.practicum.test_task_weather_sdk.dto.Forecast;
+import ru.practicum.test_task_weather_sdk.dto.ForecastMetric;
 import ru.practicum.test_task_weather_sdk.exception.*;
+import ru.practicum.test_task_weather_sdk.service.ApiKeyPool;
 import ru.practicum.test_task_weather_sdk.service.OpenWeatherApiClient;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
 
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 
 class OpenWeatherApiClientTest {
@@ -217,4 +228,284 @@ class OpenWeatherApiClientTest {
 
         assertThrows(UnexpectedApiException.class, () -> apiClient.fetchWeather("London"));
     }
+
+    @Test
+    void testFetchWeatherRotatesToNextPooledKeyWhenKeyIsRejected() throws InterruptedException {
+        OpenWeatherApiClient pooledClient = new OpenWeatherApiClient(
+                new ApiKeyPool(List.of("revoked-key", "valid-key")), mockWebServer.url("/").toString());
+
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(401)
+                .setBody("{\"cod\": 401, \"message\": \"Invalid API key\"}")
+                .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("""
+                        {"weather": [{"main": "Clear", "description": "clear sky"}],
+                         "main": {"temp": 51.3, "feels_like": 49.1},
+                         "visibility": 10000,
+                         "wind": {"speed": 3.1},
+                         "dt": 1740406884,
+                         "sys": {"sunrise": 1740376916, "sunset": 1740416215},
+                         "timezone": 3600,
+                         "name": "London"}
+                        """)
+                .addHeader("Content-Type", "application/json"));
+
+        String jsonResponse = pooledClient.fetchWeather("London");
+
+        assertTrue(jsonResponse.contains("\"name\":\"London\""));
+        assertTrue(mockWebServer.takeRequest().getPath().contains("appid=revoked-key"));
+        assertTrue(mockWebServer.takeRequest().getPath().contains("appid=valid-key"));
+
+        List<ApiKeyStats> stats = pooledClient.getApiKeyPool().getStats();
+        assertFalse(stats.get(0).isActive());
+        assertTrue(stats.get(1).isActive());
+    }
+
+    @Test
+    void testFetchWeatherThrowsWhenEveryPooledKeyIsRejected() {
+        OpenWeatherApiClient pooledClient = new OpenWeatherApiClient(
+                new ApiKeyPool(List.of("blocked-key-1", "blocked-key-2")), mockWebServer.url("/").toString());
+        for (int i = 0; i < 2; i++) {
+            mockWebServer.enqueue(new MockResponse()
+                    .setResponseCode(403)
+                    .setBody("{\"cod\": 403, \"message\": \"Your API key has been blocked\"}")
+                    .addHeader("Content-Type", "application/json"));
+        }
+
+        assertThrows(ApiKeyBlockedException.class, () -> pooledClient.fetchWeather("London"));
+        assertFalse(pooledClient.getApiKeyPool().hasActiveKeys());
+        assertThrows(InvalidApiKeyException.class, () -> pooledClient.fetchWeather("London"));
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testFetchWeatherGroupStreamsEveryCityToConsumer() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("""
+                        {"cnt": 2, "list": [
+                          {"weather": [{"main": "Clouds", "description": "overcast clouds"}],
+                           "main": {"temp": 48.78, "feels_like": 47.1}, "visibility": 10000,
+                           "wind": {"speed": 2.46}, "dt": 1740406884,
+                           "sys": {"sunrise": 1740376916, "sunset": 1740416215},
+                           "timezone": 3600, "id": 3163858, "name": "Zocca"},
+                          {"weather": [{"main": "Clear", "description": "clear sky"}],
+                           "main": {"temp": 51.3, "feels_like": 49.1}, "visibility": 9000,
+                           "wind": {"speed": 3.1}, "dt": 1740406890,
+                           "sys": {"sunrise": 1740376900, "sunset": 1740416200},
+                           "timezone": 0, "id": 2643743, "name": "London"}
+                        ]}
+                        """)
+                .addHeader("Content-Type", "application/json"));
+
+        Map<Long, String> received = new LinkedHashMap<>();
+        int delivered = apiClient.fetchWeatherGroup(List.of(3163858L, 2643743L), received::put);
+
+        assertEquals(2, delivered);
+        assertTrue(received.get(3163858L).contains("\"name\":\"Zocca\""));
+        assertTrue(received.get(2643743L).contains("\"name\":\"London\""));
+        String path = mockWebServer.takeRequest().getPath();
+        assertTrue(path.startsWith("/group?"));
+        assertTrue(path.contains("id=3163858,2643743"));
+    }
+
+    @Test
+    void testGroupEntriesSplitAcrossReadsKeepTheirFingerprints() {
+        String body = """
+                {"cnt": 2, "list": [
+                  {"weather": [{"main": "Clouds", "description": "overcast clouds"}],
+                   "main": {"temp": 48.78, "feels_like": 47.1}, "visibility": 10000,
+                   "wind": {"speed": 2.46}, "dt": 1740406884,
+                   "sys": {"sunrise": 1740376916, "sunset": 1740416215},
+                   "timezone": 3600, "id": 3163858, "name": "Zocca"},
+                  {"weather": [{"main": "Clear", "description": "clear sky"}],
+                   "main": {"temp": 51.3, "feels_like": 49.1}, "visibility": 9000,
+                   "wind": {"speed": 3.1}, "dt": 1740406890,
+                   "sys": {"sunrise": 1740376900, "sunset": 1740416200},
+                   "timezone": 0, "id": 2643743, "name": "London"}
+                ]}
+                """;
+        mockWebServer.enqueue(new MockResponse().setBody(body).addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse().setBody(body).addHeader("Content-Type", "application/json")
+                .throttleBody(16, 1, TimeUnit.MILLISECONDS));
+
+        Map<Long, Long> whole = new LinkedHashMap<>();
+        Map<Long, Long> split = new LinkedHashMap<>();
+        Map<Long, String> received = new LinkedHashMap<>();
+        assertEquals(2, apiClient.refreshWeatherGroup(List.of(3163858L, 2643743L), cityId -> recorder(cityId, whole, received)));
+        assertEquals(2, apiClient.refreshWeatherGroup(List.of(3163858L, 2643743L), cityId -> recorder(cityId, split, received)));
+
+        assertEquals(whole, split);
+        assertEquals(2, whole.size());
+        assertTrue(received.get(3163858L).contains("\"name\":\"Zocca\""));
+        assertTrue(received.get(2643743L).contains("\"name\":\"London\""));
+    }
+
+    private static OpenWeatherApiClient.RefreshTarget recorder(long cityId, Map<Long, Long> fingerprints,
+                                                               Map<Long, String> received) {
+        return new OpenWeatherApiClient.RefreshTarget() {
+            @Override
+            public boolean isUnchanged(long fingerprint) {
+                return false;
+            }
+
+            @Override
+            public void update(String weatherData, long fingerprint) {
+                fingerprints.put(cityId, fingerprint);
+                received.put(cityId, weatherData);
+            }
+        };
+    }
+
+    @Test
+    void testFetchWeatherGroupSkipsMalformedEntries() {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("""
+                        {"list": [
+                          {"id": 1, "name": "Broken"},
+                          {"weather": [{"main": "Clear", "description": "clear sky"}],
+                           "main": {"temp": 51.3, "feels_like": 49.1}, "visibility": 9000,
+                           "wind": {"speed": 3.1}, "dt": 1740406890,
+                           "sys": {"sunrise": 1740376900, "sunset": 1740416200},
+                           "timezone": 0, "id": 2643743, "name": "London"}
+                        ], "cnt": 2}
+                        """)
+                .addHeader("Content-Type", "application/json"));
+
+        Map<Long, String> received = new LinkedHashMap<>();
+        int delivered = apiClient.fetchWeatherGroup(List.of(1L, 2643743L), received::put);
+
+        assertEquals(1, delivered);
+        assertEquals(Set.of(2643743L), received.keySet());
+    }
+
+    @Test
+    void testFetchWeatherGroupRejectsInvalidGroups() {
+        List<Long> tooMany = LongStream.rangeClosed(1, OpenWeatherApiClient.MAX_GROUP_SIZE + 1).boxed().toList();
+
+        assertThrows(InvalidCityException.class, () -> apiClient.fetchWeatherGroup(List.of(), (id, data) -> { }));
+        assertThrows(WeatherSdkException.class, () -> apiClient.fetchWeatherGroup(tooMany, (id, data) -> { }));
+        assertEquals(0, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testFetchWeatherLearnsCityId() {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("""
+                        {"weather": [{"main": "Clear", "description": "clear sky"}],
+                         "main": {"temp": 51.3, "feels_like": 49.1}, "visibility": 9000,
+                         "wind": {"speed": 3.1}, "dt": 1740406890,
+                         "sys": {"sunrise": 1740376900, "sunset": 1740416200},
+                         "timezone": 0, "id": 2643743, "name": "London"}
+                        """)
+                .addHeader("Content-Type", "application/json"));
+
+        assertTrue(apiClient.findCityId("London").isEmpty());
+        apiClient.fetchWeather("London");
+
+        assertEquals(2643743L, apiClient.findCityId("London").getAsLong());
+    }
+
+    @Test
+    void testFetchForecastPacksHourlySeries() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("""
+                        {"lat": 48.85, "lon": 2.35, "timezone_offset": 3600, "hourly": [
+                          {"dt": 1740405600, "temp": 48.5, "feels_like": 46.0, "wind_speed": 3.5, "pop": 0.2,
+                           "weather": [{"main": "Rain", "description": "light rain"}]},
+                          {"dt": 1740409200, "temp": 49.5, "feels_like": 47.0, "wind_speed": 4.0},
+                          {"temp": 50.0}
+                        ]}
+                        """)
+                .addHeader("Content-Type", "application/json"));
+
+        Forecast forecast = apiClient.fetchForecast(48.85, 2.35);
+
+        assertEquals(2, forecast.size());
+        assertEquals(1740409200L, forecast.timestamp(1));
+        assertEquals(46.0f, forecast.value(ForecastMetric.FEELS_LIKE, 0));
+        assertEquals(0.2f, forecast.value(ForecastMetric.PRECIPITATION_PROBABILITY, 0));
+        assertTrue(Float.isNaN(forecast.value(ForecastMetric.PRECIPITATION_PROBABILITY, 1)));
+        String path = mockWebServer.takeRequest().getPath();
+        assertTrue(path.startsWith("/onecall?lat=48.85&lon=2.35&exclude=current,minutely,daily,alerts"));
+    }
+
+    @Test
+    void testHugeBodiesAreRejectedWithoutBeingBuffered() throws IOException {
+        FakeHugeBodyServer server = new FakeHugeBodyServer();
+        server.start();
+        try {
+            OpenWeatherApiClient client = new OpenWeatherApiClient("test-api-key", server.baseUrl());
+            long hugeBody = 64L * 1024 * 1024;
+            long maxWritten = 8L * 1024 * 1024;
+
+            server.respond(404, "application/json", "{\"cod\":\"404\",\"message\":\"city not found\",\"padding\":\"",
+                    hugeBody, true);
+            CityNotFoundException notFound = assertThrows(CityNotFoundException.class,
+                    () -> client.fetchWeather("Atlantis"));
+            assertEquals("City not found: city not found", notFound.getMessage());
+            await().atMost(10, TimeUnit.SECONDS).until(server::isFinished);
+            assertTrue(server.bytesWritten() < maxWritten, "read " + server.bytesWritten() + " bytes");
+
+            long allocatedBefore = allocatedBytes();
+            server.respond(502, "text/html", "<html><body><h1>Bad gateway</h1>", hugeBody, true);
+            UnexpectedApiException badGateway = assertThrows(UnexpectedApiException.class,
+                    () -> client.fetchWeather("London"));
+            assertEquals("OpenWeather API server error: Unknown error", badGateway.getMessage());
+            await().atMost(10, TimeUnit.SECONDS).until(server::isFinished);
+            assertTrue(server.bytesWritten() < maxWritten, "read " + server.bytesWritten() + " bytes");
+
+            server.respond(200, "application/json", "{\"name\":\"London\",\"padding\":\"", hugeBody, true);
+            UnexpectedApiException streamed = assertThrows(UnexpectedApiException.class,
+                    () -> client.fetchWeather("London"));
+            assertEquals("OpenWeather response exceeds 262144 bytes", streamed.getMessage());
+            await().atMost(10, TimeUnit.SECONDS).until(server::isFinished);
+            assertTrue(server.bytesWritten() < maxWritten, "read " + server.bytesWritten() + " bytes");
+
+            server.respond(200, "application/json", "{\"name\":\"London\"", hugeBody, false);
+            UnexpectedApiException declared = assertThrows(UnexpectedApiException.class,
+                    () -> client.fetchWeather("London"));
+            assertTrue(declared.getMessage().contains("Content-Length " + hugeBody), declared.getMessage());
+            await().atMost(10, TimeUnit.SECONDS).until(server::isFinished);
+            assertTrue(server.bytesWritten() < maxWritten, "read " + server.bytesWritten() + " bytes");
+
+            server.respond(200, "text/html", "<html>", hugeBody, true);
+            assertThrows(NetworkException.class, () -> client.fetchWeather("London"));
+            await().atMost(10, TimeUnit.SECONDS).until(server::isFinished);
+            assertTrue(server.bytesWritten() < maxWritten, "read " + server.bytesWritten() + " bytes");
+
+            long allocated = allocatedBytes() - allocatedBefore;
+            assertTrue(allocated < 4 * maxWritten, "allocated " + allocated + " bytes for 256 MB of bodies");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testBodyLimitsAreConfigurable() {
+        apiClient.setBodyLimits(64, 16);
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(404)
+                .setBody("{\"cod\":\"404\",\"message\":\"city not found\"}")
+                .addHeader("Content-Type", "application/json"));
+        CityNotFoundException notFound = assertThrows(CityNotFoundException.class,
+                () -> apiClient.fetchWeather("Atlantis"));
+        assertEquals("City not found: Unknown error", notFound.getMessage());
+
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("{\"name\":\"London\",\"weather\":[{\"main\":\"Clouds\",\"description\":\"overcast\"}]}")
+                .addHeader("Content-Type", "application/json"));
+        assertThrows(UnexpectedApiException.class, () -> apiClient.fetchWeather("London"));
+
+        assertThrows(WeatherSdkException.class, () -> apiClient.setBodyLimits(0, 16));
+        assertThrows(WeatherSdkException.class, () -> apiClient.setBodyLimits(64, -1));
+        assertEquals(64, apiClient.getMaxBodyBytes());
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return LongStream.of(threads.getThreadAllocatedBytes(threads.getAllThreadIds())).filter(b -> b > 0).sum();
+    }
 }
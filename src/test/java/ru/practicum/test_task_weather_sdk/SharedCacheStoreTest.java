@@ -0,0 +1,276 @@
+package ru.practicum.test_task_weather_sdk;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.test_task_weather_sdk.dto.ForecastSlice;
+import ru.practicum.test_task_weather_sdk.dto.ModeSDK;
+import ru.practicum.test_task_weather_sdk.dto.SharedEntry;
+import ru.practicum.test_task_weather_sdk.service.KeyValueCacheStore;
+import ru.practicum.test_task_weather_sdk.service.OpenWeatherApiClient;
+import ru.practicum.test_task_weather_sdk.service.WeatherCacheManager;
+import ru.practicum.test_task_weather_sdk.service.WeatherHistory;
+import ru.practicum.test_task_weather_sdk.service.WeatherSdkImpl;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedCacheStoreTest {
+
+    private static final int NODES = 4;
+    private static final List<String> CITIES = List.of("Paris,FR", "London,GB", "Berlin,DE", "Madrid,ES", "Rome,IT");
+
+    private FakeOpenWeatherServer weatherServer;
+    private FakeKeyValueServer storeServer;
+    private final List<KeyValueCacheStore> stores = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        weatherServer = new FakeOpenWeatherServer()
+                .withCity("Paris", "FR", 2988507, 60.0)
+                .withCity("London", "GB", 2643743, 50.0)
+                .withCity("Berlin", "DE", 2950159, 45.0)
+                .withCity("Madrid", "ES", 3117735, 70.0)
+                .withCity("Rome", "IT", 3169070, 65.0);
+        weatherServer.start();
+        storeServer = new FakeKeyValueServer();
+        storeServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        stores.forEach(KeyValueCacheStore::close);
+        storeServer.shutdown();
+        weatherServer.shutdown();
+    }
+
+    @Test
+    void testNodesWithoutSharedStoreEachCallUpstream() {
+        List<WeatherSdkImpl> nodes = startNodes(false);
+
+        requestAll(nodes);
+
+        assertEquals(NODES * CITIES.size(), weatherServer.requestCount("/weather"));
+        nodes.forEach(WeatherSdkImpl::shutdown);
+    }
+
+    @Test
+    void testSharedStoreCutsUpstreamCallsToOnePerCity() {
+        List<WeatherSdkImpl> nodes = startNodes(true);
+
+        requestAll(nodes);
+        requestAll(nodes);
+
+        assertEquals(CITIES.size(), weatherServer.requestCount("/weather"));
+        assertEquals(CITIES.size(), storeServer.setCount());
+        for (WeatherSdkImpl node : nodes) {
+            assertEquals(CITIES.size(), node.getCachedCities().size());
+        }
+        nodes.forEach(WeatherSdkImpl::shutdown);
+    }
+
+    @Test
+    void testMissLooksUpTheSharedStoreOnce() {
+        WeatherSdkImpl node = startNodes(true).get(0);
+
+        assertNotNull(node.getWeather("Paris,FR"));
+
+        assertEquals(1, storeServer.getCount());
+        assertEquals(1, storeServer.setCount());
+        node.shutdown();
+    }
+
+    @Test
+    void testUnresolvedNamesAreSharedUnderTheRequestedKey() {
+        List<WeatherSdkImpl> nodes = startNodes(true);
+
+        for (WeatherSdkImpl node : nodes) {
+            assertNotNull(node.getWeather("Paris"));
+        }
+
+        assertEquals(1, weatherServer.requestCount("/weather"));
+        nodes.forEach(WeatherSdkImpl::shutdown);
+    }
+
+    @Test
+    void testForecastWorksForACityLoadedFromTheSharedStore() {
+        List<WeatherSdkImpl> nodes = startNodes(true);
+        assertNotNull(nodes.get(0).getWeather("Paris,FR"));
+
+        ForecastSlice forecast = nodes.get(1).getForecast("Paris,FR", 6);
+
+        assertEquals(6, forecast.size());
+        assertEquals(2, weatherServer.requestCount("/weather"));
+        assertEquals(1, weatherServer.requestCount("/onecall"));
+        nodes.forEach(WeatherSdkImpl::shutdown);
+    }
+
+    @Test
+    void testCompactEntryMatchesAnIdenticalSharedPayload() {
+        String paris = new OpenWeatherApiClient("validKey", weatherServer.baseUrl()).fetchWeather("Paris");
+        WeatherCacheManager cacheManager = new WeatherCacheManager(10, Duration.ofMinutes(10), Ticker.systemTicker());
+        cacheManager.setCompactEntries(true);
+        cacheManager.setSharedStore(newStore());
+        AtomicInteger recorded = new AtomicInteger();
+        cacheManager.setHistory(new WeatherHistory(10, 10) {
+            @Override
+            public void record(String cityName, String weatherJson) {
+                recorded.incrementAndGet();
+                super.record(cityName, weatherJson);
+            }
+        });
+
+        cacheManager.updateCache("Paris,FR", paris);
+        assertEquals(1, cacheManager.getConditions().size());
+        assertEquals(paris, cacheManager.findCached("Paris,FR"));
+
+        assertTrue(cacheManager.pullShared("Paris,FR"));
+        assertEquals(1, recorded.get());
+    }
+
+    @Test
+    void testNearCacheEntryExpiresWithTheSharedEntry() throws InterruptedException {
+        WeatherCacheManager cacheManager = new WeatherCacheManager(10, Duration.ofMinutes(10), Ticker.systemTicker());
+        cacheManager.setSharedStore(newStore());
+        storeServer.put("Oslo", "{\"name\":\"Oslo\"}", System.currentTimeMillis() + 300);
+
+        assertEquals("{\"name\":\"Oslo\"}", cacheManager.findCached("Oslo"));
+        assertEquals(1, storeServer.getCount());
+        assertEquals("{\"name\":\"Oslo\"}", cacheManager.findCached("Oslo"));
+        assertEquals(1, storeServer.getCount());
+
+        Thread.sleep(400);
+
+        assertNull(cacheManager.findCached("Oslo"));
+        assertEquals(2, storeServer.getCount());
+    }
+
+    @Test
+    void testUnavailableStoreDegradesToLocalCache() throws IOException {
+        int unusedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            unusedPort = socket.getLocalPort();
+        }
+        WeatherCacheManager cacheManager = new WeatherCacheManager(10, Duration.ofMinutes(10), Ticker.systemTicker());
+        KeyValueCacheStore store = new KeyValueCacheStore("127.0.0.1", unusedPort, Duration.ofMillis(200));
+        stores.add(store);
+        cacheManager.setSharedStore(store);
+
+        cacheManager.updateCache("Oslo", "{\"name\":\"Oslo\"}");
+
+        assertEquals("{\"name\":\"Oslo\"}", cacheManager.findCached("Oslo"));
+        assertNull(cacheManager.findCached("Lima"));
+    }
+
+    @Test
+    void testHungStoreIsSkippedUntilBackoffExpires() throws Exception {
+        try (ServerSocket hung = new ServerSocket(0)) {
+            KeyValueCacheStore store = new KeyValueCacheStore("127.0.0.1", hung.getLocalPort(), Duration.ofMillis(200));
+            stores.add(store);
+
+            assertNull(store.get("Oslo"));
+            assertTrue(store.isOpen());
+
+            long start = System.nanoTime();
+            for (int i = 0; i < 100; i++) {
+                assertNull(store.get("Oslo"));
+                store.put("Oslo", "{}", System.currentTimeMillis() + 60_000);
+            }
+            assertTrue(System.nanoTime() - start < Duration.ofMillis(100).toNanos(),
+                    "an open breaker must not touch the network");
+        }
+
+        KeyValueCacheStore store = newStore();
+        storeServer.put("Oslo", "{\"name\":\"Oslo\"}", System.currentTimeMillis() + 60_000);
+        assertEquals("{\"name\":\"Oslo\"}", store.get("Oslo").getData());
+        assertFalse(store.isOpen());
+    }
+
+    @Test
+    void testGetAllPipelinesLookupsOverOneConnection() {
+        KeyValueCacheStore store = newStore();
+        List<String> cities = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            cities.add("City " + i);
+            if (i % 3 != 0) {
+                storeServer.put("City " + i, "{\"name\":\"City " + i + "\"}", System.currentTimeMillis() + 60_000);
+            }
+        }
+
+        Map<String, SharedEntry> entries = store.getAll(cities);
+
+        assertEquals(100, entries.size());
+        assertEquals("{\"name\":\"City 149\"}", entries.get("City 149").getData());
+        assertNull(entries.get("City 0"));
+        assertEquals(150, storeServer.getCount());
+        assertEquals(1, store.getIdleConnections());
+    }
+
+    @Test
+    void testConcurrentCallersShareThePool() throws Exception {
+        KeyValueCacheStore store = new KeyValueCacheStore(storeServer.host(), storeServer.port(),
+                Duration.ofSeconds(1), 3);
+        stores.add(store);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String city = "City" + (i % 20);
+                calls.add(callers.submit(() -> {
+                    store.put(city, "{\"name\":\"" + city + "\"}", System.currentTimeMillis() + 60_000);
+                    assertEquals("{\"name\":\"" + city + "\"}", store.get(city).getData());
+                }));
+            }
+            for (Future<?> call : calls) {
+                call.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertFalse(store.isOpen());
+        assertTrue(store.getIdleConnections() <= 3);
+        assertEquals(400, storeServer.setCount());
+    }
+
+    private List<WeatherSdkImpl> startNodes(boolean shared) {
+        List<WeatherSdkImpl> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            WeatherSdkImpl node = new WeatherSdkImpl("validKey", ModeSDK.ON_DEMAND_MODE, 0);
+            OpenWeatherApiClient client = new OpenWeatherApiClient("validKey", weatherServer.baseUrl());
+            ReflectionTestUtils.setField(node, "apiClient", client);
+            ReflectionTestUtils.setField(node, "cityIdIndex", client.getCityIdIndex());
+            if (shared) {
+                node.setSharedCacheStore(newStore());
+            }
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private void requestAll(List<WeatherSdkImpl> nodes) {
+        for (String city : CITIES) {
+            for (WeatherSdkImpl node : nodes) {
+                assertNotNull(node.getWeather(city));
+            }
+        }
+    }
+
+    private KeyValueCacheStore newStore() {
+        KeyValueCacheStore store = new KeyValueCacheStore(storeServer.host(), storeServer.port());
+        stores.add(store);
+        return store;
+    }
+}
@@ -1,14 +1,32 @@
 package ru.practicum.test_task_weather_sdk;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.practicum.test_task_weather_sdk.exception.*;
+import ru.practicum.test_task_weather_sdk.dto.ExportFormat;
+import ru.practicum.test_task_weather_sdk.dto.HistoryMetric;
+import ru.practicum.test_task_weather_sdk.dto.OutputFormat;
+import ru.practicum.test_task_weather_sdk.dto.Units;
 import ru.practicum.test_task_weather_sdk.service.WeatherCacheManager;
+import ru.practicum.test_task_weather_sdk.service.WeatherHistory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +51,24 @@ class WeatherCacheManagerTest {
         assertThrows(WeatherSdkException.class, () -> cacheManager.updateCache("New York", ""));
     }
 
+    @Test
+    void testFetchTimeBelongsToTheCachedEntry() {
+        long fourMinutes = Duration.ofMinutes(4).toNanos();
+        cacheManager.updateCache("London", "Sunny", 42L);
+        testTicker.advance(Duration.ofMinutes(5));
+        assertNull(cacheManager.findFresh("London", fourMinutes));
+
+        assertTrue(cacheManager.refreshIfUnchanged("London", 42L));
+        assertEquals("Sunny", cacheManager.findFresh("London", fourMinutes));
+
+        for (int i = 1; i <= 10; i++) {
+            cacheManager.updateCache("City" + i, "Weather" + i);
+        }
+        testTicker.advance(Duration.ofMinutes(3));
+        cacheManager.updateCache("London", "Rainy");
+        assertEquals("Rainy", cacheManager.findFresh("London", 0));
+    }
+
     @Test
     void testAddMultipleCitiesAndEviction() {
         for (int i = 1; i <= 12; i++) {
@@ -93,4 +129,302 @@ class WeatherCacheManagerTest {
         assertThrows(InvalidCityException.class, () -> cacheManager.updateCache("  ", "Weather"));
         assertThrows(InvalidCityException.class, () -> cacheManager.getCached("  "));
     }
+
+    @Test
+    void testReconfigureShrinksCacheAndKeepsNewestCities() {
+        for (int i = 1; i <= 10; i++) {
+            cacheManager.updateCache("City" + i, "Weather" + i);
+        }
+
+        cacheManager.reconfigure(3, Duration.ofMinutes(10));
+
+        assertThrows(CityNotFoundException.class, () -> cacheManager.getCached("City7"));
+        assertEquals("Weather8", cacheManager.getCached("City8"));
+        assertEquals("Weather10", cacheManager.getCached("City10"));
+        assertEquals(3, cacheManager.getMaxCities());
+    }
+
+    @Test
+    void testReconfigureGrowsCacheWithoutDroppingEntries() {
+        cacheManager.reconfigure(20, Duration.ofMinutes(10));
+        for (int i = 1; i <= 15; i++) {
+            cacheManager.updateCache("City" + i, "Weather" + i);
+        }
+
+        assertEquals("Weather1", cacheManager.getCached("City1"));
+        assertEquals("Weather15", cacheManager.getCached("City15"));
+    }
+
+    @Test
+    void testReconfigureChangesExpirationOfCachedEntries() {
+        cacheManager.updateCache("Madrid", "Sunny 15 degrees");
+        cacheManager.reconfigure(10, Duration.ofMinutes(1));
+
+        testTicker.advance(Duration.ofMinutes(2));
+
+        assertThrows(CityNotFoundException.class, () -> cacheManager.getCached("Madrid"));
+    }
+
+    @Test
+    void testReconfigureRejectsInvalidLimits() {
+        assertThrows(WeatherSdkException.class, () -> cacheManager.reconfigure(0, Duration.ofMinutes(1)));
+        assertThrows(WeatherSdkException.class, () -> cacheManager.reconfigure(10, Duration.ZERO));
+        assertThrows(WeatherSdkException.class, () -> cacheManager.reconfigure(10, null));
+    }
+
+    @Test
+    void testUpdatesAreRecordedInHistoryWhenEnabled() {
+        WeatherHistory history = new WeatherHistory(10, 24);
+        cacheManager.setHistory(history);
+
+        cacheManager.updateCache("Oslo", "{\"temperature\":{\"temp\":30.0,\"feels_like\":25.0},\"datetime\":100}");
+        cacheManager.updateCache("Oslo", "{\"temperature\":{\"temp\":34.0,\"feels_like\":29.0},\"datetime\":700}");
+
+        assertEquals(32.0, history.stats("Oslo", HistoryMetric.TEMPERATURE, 0, 1000).getAvg());
+
+        cacheManager.clearCache();
+        assertEquals(0, history.size("Oslo"));
+    }
+
+    @Test
+    void testFindCachedSignalsMissWithNull() {
+        assertNull(cacheManager.findCached("Lima"));
+        cacheManager.updateCache("Lima", "Cloudy 18 degrees");
+        assertEquals("Cloudy 18 degrees", cacheManager.findCached("Lima"));
+        assertThrows(InvalidCityException.class, () -> cacheManager.findCached(" "));
+    }
+
+    @Test
+    void testCityAddedWhileSnapshotIsBuiltIsNeverHidden() {
+        for (int readsBeforeWrite = 1; readsBeforeWrite <= 12; readsBeforeWrite++) {
+            AtomicInteger countdown = new AtomicInteger();
+            WeatherCacheManager[] manager = new WeatherCacheManager[1];
+            manager[0] = new WeatherCacheManager(10, Duration.ofMinutes(5), () -> {
+                if (countdown.get() > 0 && countdown.decrementAndGet() == 0) {
+                    manager[0].updateCache("Kyiv", "Clear");
+                }
+                return testTicker.read();
+            });
+            manager[0].updateCache("Oslo", "Snow");
+            manager[0].updateCache("Rome", "Sunny");
+
+            countdown.set(readsBeforeWrite);
+            manager[0].getCachedCityList();
+            if (countdown.getAndSet(0) > 0) {
+                manager[0].updateCache("Kyiv", "Clear");
+            }
+
+            assertEquals(Set.of("Oslo", "Rome", "Kyiv"), Set.copyOf(manager[0].getCachedCityList()),
+                    "write after " + readsBeforeWrite + " ticker reads");
+        }
+    }
+
+    @Test
+    void testCachedCityListIsReusedUntilMembershipChanges() {
+        cacheManager.updateCache("Oslo", "Snow");
+        cacheManager.updateCache("Rome", "Sunny");
+
+        List<String> first = cacheManager.getCachedCityList();
+        cacheManager.updateCache("Oslo", "Rain");
+        assertSame(first, cacheManager.getCachedCityList());
+
+        cacheManager.updateCache("Kyiv", "Clear");
+        assertEquals(Set.of("Oslo", "Rome", "Kyiv"), Set.copyOf(cacheManager.getCachedCityList()));
+        assertThrows(UnsupportedOperationException.class, () -> cacheManager.getCachedCityList().add("Lima"));
+    }
+
+    @Test
+    void testCachedCityListDropsExpiredCities() {
+        cacheManager.updateCache("Oslo", "Snow");
+        testTicker.advance(Duration.ofMinutes(6));
+        cacheManager.updateCache("Rome", "Sunny");
+        assertEquals(2, cacheManager.getCachedCityList().size());
+
+        testTicker.advance(Duration.ofMinutes(5));
+
+        assertEquals(List.of("Rome"), cacheManager.getCachedCityList());
+    }
+
+    @Test
+    void testBinaryEncodingsRoundTripAndAreEncodedOncePerUpdate() throws IOException {
+        String weather = "{\"temperature\":{\"temp\":48.78,\"feels_like\":46.1},\"visibility\":10000,\"name\":\"Oslo\"}";
+        cacheManager.updateCache("Oslo", weather);
+        ObjectMapper json = new ObjectMapper();
+
+        byte[] cbor = cacheManager.encode("Oslo", cacheManager.getCached("Oslo"), OutputFormat.CBOR);
+        byte[] smile = cacheManager.encode("Oslo", cacheManager.getCached("Oslo"), OutputFormat.SMILE);
+
+        assertEquals(json.readTree(weather), new ObjectMapper(new CBORFactory()).readTree(cbor));
+        assertEquals(json.readTree(weather), new ObjectMapper(new SmileFactory()).readTree(smile));
+        assertTrue(cbor.length < weather.length());
+        assertSame(cbor, cacheManager.encode("Oslo", cacheManager.getCached("Oslo"), OutputFormat.CBOR));
+
+        cacheManager.updateCache("Oslo", weather.replace("48.78", "50.0"));
+        assertNotSame(cbor, cacheManager.encode("Oslo", cacheManager.getCached("Oslo"), OutputFormat.CBOR));
+        assertArrayEquals(weather.getBytes(StandardCharsets.UTF_8),
+                cacheManager.encode("Lima", weather, OutputFormat.JSON));
+    }
+
+    @Test
+    void testUnitViewsAreConvertedLocallyAndMemoizedPerUpdate() throws IOException {
+        String weather = "{\"weather\":{\"main\":\"Clouds\"},\"temperature\":{\"temp\":48.78,\"feels_like\":46.1},"
+                + "\"visibility\":10000,\"wind\":{\"speed\":2.46},\"timezone\":3600,\"name\":\"Oslo\"}";
+        cacheManager.updateCache("Oslo", weather);
+        ObjectMapper json = new ObjectMapper();
+
+        String metric = cacheManager.convert("Oslo", cacheManager.getCached("Oslo"), Units.METRIC);
+        String standard = cacheManager.convert("Oslo", cacheManager.getCached("Oslo"), Units.STANDARD);
+
+        assertEquals(json.readTree(weather.replace("48.78", "9.32").replace("46.1", "7.83").replace("2.46", "1.1")),
+                json.readTree(metric));
+        assertEquals(json.readTree(weather.replace("48.78", "282.47").replace("46.1", "280.98").replace("2.46", "1.1")),
+                json.readTree(standard));
+        assertSame(metric, cacheManager.convert("Oslo", cacheManager.getCached("Oslo"), Units.METRIC));
+        assertSame(cacheManager.getCached("Oslo"), cacheManager.convert("Oslo", cacheManager.getCached("Oslo"),
+                Units.IMPERIAL));
+
+        cacheManager.updateCache("Oslo", weather.replace("48.78", "32.0"));
+        assertTrue(cacheManager.convert("Oslo", cacheManager.getCached("Oslo"), Units.METRIC).contains("\"temp\":0.0"));
+        assertThrows(WeatherSdkException.class, () -> cacheManager.convert("Oslo", weather, null));
+    }
+
+    @Test
+    void testExportWritesLiveEntriesAsJsonArrayAndNdjson() throws IOException {
+        cacheManager.updateCache("Oslo", "{\"name\":\"Oslo\",\n \"temp\":40.5}");
+        cacheManager.updateCache("Rome", "{\"name\":\"Rome\",\"temp\":60.1}");
+        ObjectMapper json = new ObjectMapper();
+
+        ByteArrayOutputStream array = new ByteArrayOutputStream();
+        assertEquals(2, cacheManager.export(array, ExportFormat.JSON_ARRAY));
+        JsonNode exported = json.readTree(array.toByteArray());
+        assertEquals(2, exported.size());
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        assertEquals(2, cacheManager.export(Channels.newChannel(ndjson), ExportFormat.NDJSON));
+        String[] lines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        for (String line : lines) {
+            assertTrue(exported.toString().contains(json.readTree(line).toString()));
+        }
+
+        testTicker.advance(Duration.ofMinutes(11));
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        assertEquals(0, cacheManager.export(empty, ExportFormat.JSON_ARRAY));
+        assertEquals("[]", empty.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExportStaysWellFormedUnderConcurrentUpdates() throws Exception {
+        ObjectMapper json = new ObjectMapper();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; running.get(); i++) {
+                String city = "City" + (i % 15);
+                cacheManager.updateCache(city, "{\"name\":\"" + city + "\",\"temp\":" + i + "}");
+            }
+        });
+        try {
+            for (int i = 0; i < 200; i++) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                int exported = cacheManager.export(out, ExportFormat.JSON_ARRAY);
+                JsonNode entries = json.readTree(out.toByteArray());
+                assertEquals(exported, entries.size());
+                for (JsonNode entry : entries) {
+                    assertTrue(entry.get("name").asText().startsWith("City"));
+                }
+            }
+        } finally {
+            running.set(false);
+            executor.shutdown();
+        }
+        writer.get();
+    }
+
+    @Test
+    void testCompactEntriesRenderEquivalentJsonAndShareConditions() throws IOException {
+        ObjectMapper json = new ObjectMapper();
+        cacheManager.setCompactEntries(true);
+        String paris = canonicalWeather("Paris", 48.78, 1740406884L);
+        String lyon = canonicalWeather("Lyon", 50.1, 1740406890L);
+
+        cacheManager.updateCache("Paris,FR", paris);
+        cacheManager.updateCache("geo:u09tv", paris);
+        cacheManager.updateCache("Lyon", lyon);
+        cacheManager.updateCache("Oslo", "Snow");
+
+        assertEquals(json.readTree(paris), json.readTree(cacheManager.getCached("Paris,FR")));
+        assertEquals(json.readTree(paris), json.readTree(cacheManager.getCached("geo:u09tv")));
+        assertEquals(json.readTree(lyon), json.readTree(cacheManager.getCached("Lyon")));
+        assertEquals("Snow", cacheManager.getCached("Oslo"));
+        assertEquals(1, cacheManager.getConditions().size());
+
+        byte[] cbor = cacheManager.encode("Lyon", cacheManager.getCached("Lyon"), OutputFormat.CBOR);
+        assertSame(cbor, cacheManager.encode("Lyon", cacheManager.getCached("Lyon"), OutputFormat.CBOR));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(4, cacheManager.export(out, ExportFormat.NDJSON));
+
+        String precise = canonicalWeather("Rome", 48.123456789, 1740406884L);
+        cacheManager.updateCache("Rome", precise);
+        assertEquals(precise, cacheManager.getCached("Rome"));
+    }
+
+    @Test
+    void testOffHeapEntriesKeepCacheSemanticsAndReleaseSlots() throws IOException {
+        cacheManager.setOffHeapEntries(true);
+        for (int i = 1; i <= 12; i++) {
+            cacheManager.updateCache("City" + i, canonicalWeather("City" + i, 40 + i, 1740406884L));
+        }
+        cacheManager.updateCache("City12", canonicalWeather("City12", 99.5, 1740406884L));
+
+        assertNull(cacheManager.findCached("City1"));
+        assertEquals(canonicalWeather("City12", 99.5, 1740406884L), cacheManager.getCached("City12"));
+        assertEquals(10, cacheManager.getOffHeapStore().size());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(10, cacheManager.export(out, ExportFormat.JSON_ARRAY));
+        assertEquals(10, new ObjectMapper().readTree(out.toByteArray()).size());
+
+        cacheManager.updateCache("Oslo", "x".repeat(1000));
+        assertEquals("x".repeat(1000), cacheManager.getCached("Oslo"));
+
+        testTicker.advance(Duration.ofMinutes(11));
+        assertNull(cacheManager.findCached("City12"));
+
+        cacheManager.clearCache();
+        assertEquals(0, cacheManager.getOffHeapStore().size());
+    }
+
+    @Test
+    void testOffHeapReadsSurviveConcurrentReplacement() throws Exception {
+        cacheManager.setOffHeapEntries(true);
+        String first = canonicalWeather("Oslo", 1.5, 1740406884L);
+        String second = canonicalWeather("Oslo", 2.5, 1740406884L);
+        cacheManager.updateCache("Oslo", first);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; running.get(); i++) {
+                cacheManager.updateCache("Oslo", i % 2 == 0 ? second : first);
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                assertNotNull(cacheManager.findCached("Oslo"));
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                assertEquals(1, cacheManager.export(out, ExportFormat.NDJSON));
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    private static String canonicalWeather(String name, double temp, long datetime) {
+        return "{\"weather\":{\"main\":\"Clouds\",\"description\":\"scattered clouds\"},"
+                + "\"temperature\":{\"temp\":" + temp + ",\"feels_like\":" + (temp - 2.5) + "},"
+                + "\"visibility\":10000,\"wind\":{\"speed\":2.46},\"datetime\":" + datetime + ","
+                + "\"sun\":{\"sunrise\":1740376916,\"sunset\":1740416215},\"timezone\":3600,"
+                + "\"name\":\"" + name + "\"}";
+    }
 }
@@ -0,0 +1,186 @@
+package ru.practicum.test_task_weather_sdk;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+import ru.practicum.test_task_weather_sdk.dto.ChangeOverflowStrategy;
+import ru.practicum.test_task_weather_sdk.dto.WeatherChangeEvent;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+import ru.practicum.test_task_weather_sdk.service.WeatherCacheManager;
+import ru.practicum.test_task_weather_sdk.service.WeatherChangePublisher;
+import ru.practicum.test_task_weather_sdk.service.WeatherChangeSubscription;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherChangePublisherTest {
+    private WeatherCacheManager cacheManager;
+    private WeatherChangePublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new WeatherCacheManager(new FakeTicker());
+        publisher = cacheManager.getChangePublisher();
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.close();
+    }
+
+    @Test
+    void testOnlyActualChangesAreEmitted() {
+        List<WeatherChangeEvent> events = new CopyOnWriteArrayList<>();
+        publisher.subscribe(events::add, 16, ChangeOverflowStrategy.DROP_OLDEST);
+
+        cacheManager.updateCache("Paris", weather(50.0, 1000));
+        cacheManager.updateCache("Paris", weather(50.0, 1600));
+        cacheManager.updateCache("Paris", weather(51.0, 2200));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> events.size() == 2);
+        assertNull(events.get(0).getPreviousData());
+        assertEquals(weather(50.0, 1600), events.get(1).getPreviousData());
+        assertEquals(weather(51.0, 2200), events.get(1).getData());
+    }
+
+    @Test
+    void testUnchangedUpdateRightAfterSubscribeIsNotEmitted() {
+        cacheManager.updateCache("Paris", weather(50.0, 1000));
+        List<WeatherChangeEvent> events = new CopyOnWriteArrayList<>();
+        publisher.subscribe(events::add, 16, ChangeOverflowStrategy.DROP_OLDEST);
+
+        cacheManager.updateCache("Paris", weather(50.0, 1600));
+        cacheManager.updateCache("Paris", weather(51.0, 2200));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> events.size() == 1);
+        assertEquals(weather(51.0, 2200), events.get(0).getData());
+    }
+
+    @Test
+    void testSlowSubscriberDoesNotStallUpdates() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<WeatherChangeEvent> events = new CopyOnWriteArrayList<>();
+        WeatherChangeSubscription subscription = publisher.subscribe(event -> {
+            awaitQuietly(release);
+            events.add(event);
+        }, 4, ChangeOverflowStrategy.DROP_LATEST);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            cacheManager.updateCache("City" + (i % 5), weather(i, i));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        assertTrue(elapsedMillis < 2000, "updates took " + elapsedMillis + " ms");
+        await().atMost(Duration.ofSeconds(5)).until(() -> subscription.getPendingEvents() == 0);
+        assertTrue(events.size() <= 5);
+        assertEquals(1000, subscription.getDroppedEvents() + subscription.getDeliveredEvents());
+    }
+
+    @Test
+    void testLatestPerCityCoalescesPendingEvents() {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<WeatherChangeEvent> events = new CopyOnWriteArrayList<>();
+        publisher.subscribe(event -> {
+            entered.countDown();
+            awaitQuietly(release);
+            events.add(event);
+        }, 16, ChangeOverflowStrategy.LATEST_PER_CITY);
+
+        cacheManager.updateCache("Oslo", weather(30.0, 1));
+        awaitQuietly(entered);
+        for (int i = 1; i <= 10; i++) {
+            cacheManager.updateCache("Oslo", weather(30.0 + i, 1 + i));
+        }
+        release.countDown();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> events.size() == 2);
+        assertEquals(weather(40.0, 11), events.get(1).getData());
+    }
+
+    @Test
+    void testDropOldestKeepsMostRecentEvents() {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<WeatherChangeEvent> events = new CopyOnWriteArrayList<>();
+        publisher.subscribe(event -> {
+            entered.countDown();
+            awaitQuietly(release);
+            events.add(event);
+        }, 2, ChangeOverflowStrategy.DROP_OLDEST);
+
+        cacheManager.updateCache("First", weather(0, 0));
+        awaitQuietly(entered);
+        for (int i = 0; i < 10; i++) {
+            cacheManager.updateCache("City" + i, weather(i, i));
+        }
+        release.countDown();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> events.size() == 3);
+        assertEquals("First", events.get(0).getCityName());
+        assertEquals("City8", events.get(1).getCityName());
+        assertEquals("City9", events.get(2).getCityName());
+    }
+
+    @Test
+    void testFluxEmitsChangesOnDemand() {
+        StepVerifier.create(publisher.changes(8, ChangeOverflowStrategy.DROP_OLDEST).map(WeatherChangeEvent::getCityName), 0)
+                .then(() -> {
+                    cacheManager.updateCache("Rome", weather(60.0, 1));
+                    cacheManager.updateCache("Rome", weather(60.0, 2));
+                    cacheManager.updateCache("Lima", weather(70.0, 1));
+                })
+                .thenRequest(1)
+                .expectNext("Rome")
+                .thenRequest(1)
+                .expectNext("Lima")
+                .then(publisher::close)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testNoEventsAfterCancel() throws InterruptedException {
+        List<WeatherChangeEvent> events = new CopyOnWriteArrayList<>();
+        WeatherChangeSubscription subscription = publisher.subscribe(events::add);
+
+        subscription.cancel();
+        cacheManager.updateCache("Paris", weather(50.0, 1));
+        Thread.sleep(50);
+
+        assertTrue(events.isEmpty());
+        assertFalse(publisher.hasSubscribers());
+    }
+
+    @Test
+    void testInvalidSubscriptionsAreRejected() {
+        assertThrows(WeatherSdkException.class, () -> publisher.subscribe(null));
+        assertThrows(WeatherSdkException.class,
+                () -> publisher.subscribe(event -> { }, 0, ChangeOverflowStrategy.DROP_OLDEST));
+        assertThrows(WeatherSdkException.class, () -> publisher.subscribe(event -> { }, 1, null));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String weather(double temp, long datetime) {
+        return String.format(Locale.ROOT,
+                "{\"temperature\":{\"temp\":%.1f,\"feels_like\":%.1f},\"datetime\":%d,\"name\":\"X\"}",
+                temp, temp, datetime);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.test_task_weather_sdk;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task_weather_sdk.dto.HistoryMetric;
+import ru.practicum.test_task_weather_sdk.dto.HistorySeries;
+import ru.practicum.test_task_weather_sdk.dto.HistoryStats;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+import ru.practicum.test_task_weather_sdk.service.WeatherHistory;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherHistoryTest {
+
+    @Test
+    void testRecordsSamplesFromSdkJson() {
+        WeatherHistory history = new WeatherHistory(10, 4);
+
+        history.record("Paris", """
+                {"weather":{"main":"Clouds","description":"overcast clouds"},
+                 "temperature":{"temp":48.5,"feels_like":46.0},
+                 "visibility":10000,"wind":{"speed":2.46},"datetime":1740406884,
+                 "sun":{"sunrise":1740376916,"sunset":1740416215},"timezone":3600,"name":"Paris"}""");
+
+        HistorySeries series = history.range("Paris", HistoryMetric.FEELS_LIKE, 0, Long.MAX_VALUE);
+        assertArrayEquals(new long[]{1740406884}, series.getTimestamps());
+        assertArrayEquals(new double[]{46.0}, series.getValues());
+        assertEquals(10000, history.stats("Paris", HistoryMetric.VISIBILITY, 0, Long.MAX_VALUE).getMax());
+    }
+
+    @Test
+    void testRingBufferKeepsMostRecentSamplesInOrder() {
+        WeatherHistory history = new WeatherHistory(10, 3);
+        for (int i = 1; i <= 5; i++) {
+            history.record("Oslo", i * 600L, i, i, i, 1000 * i);
+        }
+
+        HistorySeries series = history.range("Oslo", HistoryMetric.TEMPERATURE, 0, Long.MAX_VALUE);
+
+        assertEquals(3, history.size("Oslo"));
+        assertArrayEquals(new long[]{1800, 2400, 3000}, series.getTimestamps());
+        assertArrayEquals(new double[]{3, 4, 5}, series.getValues());
+    }
+
+    @Test
+    void testRangeAndStatsRespectBounds() {
+        WeatherHistory history = new WeatherHistory(10, 10);
+        double[] temps = {10, 14, 8, 12, 20};
+        for (int i = 0; i < temps.length; i++) {
+            history.record("Rome", 100L * (i + 1), temps[i], temps[i], 1.5, 9000);
+        }
+
+        HistorySeries series = history.range("Rome", HistoryMetric.TEMPERATURE, 200, 400);
+        HistoryStats stats = history.stats("Rome", HistoryMetric.TEMPERATURE, 200, 400);
+
+        assertArrayEquals(new long[]{200, 300, 400}, series.getTimestamps());
+        assertEquals(3, stats.getCount());
+        assertEquals(8, stats.getMin());
+        assertEquals(14, stats.getMax());
+        assertEquals(34.0 / 3, stats.getAvg(), 1e-9);
+    }
+
+    @Test
+    void testRepeatedObservationReplacesLastSample() {
+        WeatherHistory history = new WeatherHistory(10, 10);
+
+        history.record("Kyiv", 1000, 1, 1, 1, 1);
+        history.record("Kyiv", 1000, 2, 2, 2, 2);
+        history.record("Kyiv", 900, 3, 3, 3, 3);
+
+        assertEquals(1, history.size("Kyiv"));
+        assertEquals(2, history.stats("Kyiv", HistoryMetric.WIND_SPEED, 0, Long.MAX_VALUE).getMax());
+    }
+
+    @Test
+    void testStalestCityIsEvictedWhenFull() {
+        WeatherHistory history = new WeatherHistory(2, 4);
+
+        history.record("A", 100, 1, 1, 1, 1);
+        history.record("B", 300, 1, 1, 1, 1);
+        history.record("A", 200, 1, 1, 1, 1);
+        history.record("C", 400, 1, 1, 1, 1);
+
+        assertEquals(Set.of("B", "C"), Set.copyOf(history.getCities()));
+        assertEquals(0, history.stats("A", HistoryMetric.TEMPERATURE, 0, Long.MAX_VALUE).getCount());
+    }
+
+    @Test
+    void testMemoryPerCityIsFixed() {
+        WeatherHistory history = new WeatherHistory(10, WeatherHistory.DEFAULT_SAMPLES_PER_CITY);
+        for (int i = 0; i < 1000; i++) {
+            history.record("Lima", i, i, i, i, i);
+        }
+
+        assertEquals(WeatherHistory.DEFAULT_SAMPLES_PER_CITY, history.size("Lima"));
+        assertEquals(10480, WeatherHistory.bytesPerCity(WeatherHistory.DEFAULT_SAMPLES_PER_CITY));
+        assertEquals(WeatherHistory.bytesPerCity(WeatherHistory.DEFAULT_SAMPLES_PER_CITY), history.retainedBytes());
+    }
+
+    @Test
+    void testInvalidSizesAreRejected() {
+        assertThrows(WeatherSdkException.class, () -> new WeatherHistory(0, 10));
+        assertThrows(WeatherSdkException.class, () -> new WeatherHistory(10, 0));
+    }
+}
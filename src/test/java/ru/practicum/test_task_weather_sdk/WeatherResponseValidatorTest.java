@@ -0,0 +1,150 @@
+package ru.practicum.test_task_weather_sdk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task_weather_sdk.dto.WeatherResponse;
+import ru.practicum.test_task_weather_sdk.exception.InvalidWeatherDataException;
+import ru.practicum.test_task_weather_sdk.service.OpenWeatherApiClient;
+import ru.practicum.test_task_weather_sdk.service.WeatherResponseValidator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherResponseValidatorTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String VALID = """
+            {"weather":[{"id":804,"main":"Clouds","description":"overcast clouds","icon":"04d"}],
+             "main":{"temp":48.78,"feels_like":48.78},
+             "visibility":10000,
+             "wind":{"speed":2.46},
+             "dt":1740406884,
+             "sys":{"country":"IT","sunrise":1740376916,"sunset":1740416215},
+             "timezone":3600,
+             "name":"Zocca",
+             "cod":200}""";
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void setUpValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void testValidatorAgreesWithBeanValidationAnnotations() throws IOException {
+        Map<String, Consumer<ObjectNode>> cases = new LinkedHashMap<>();
+        cases.put("valid", json -> {
+        });
+        cases.put("frost, calm, fog and UTC", json -> {
+            main(json).put("temp", -12.5).put("feels_like", -20.0);
+            json.withObject("/wind").put("speed", 0);
+            json.put("visibility", 0).put("timezone", 0);
+        });
+        cases.put("date line offsets", json -> json.put("timezone", -43200));
+        cases.put("kiribati", json -> json.put("timezone", 50400));
+        cases.put("two conditions", json -> ((ArrayNode) json.get("weather"))
+                .addObject().put("main", "Mist").put("description", "mist"));
+        cases.put("no main", json -> json.remove("main"));
+        cases.put("no feels_like", json -> main(json).remove("feels_like"));
+        cases.put("blank name", json -> json.put("name", "  "));
+        cases.put("no name", json -> json.remove("name"));
+        cases.put("empty weather", json -> json.putArray("weather"));
+        cases.put("no weather", json -> json.remove("weather"));
+        cases.put("blank description", json -> ((ObjectNode) json.get("weather").get(0)).put("description", ""));
+        cases.put("negative visibility", json -> json.put("visibility", -1));
+        cases.put("negative wind", json -> json.withObject("/wind").put("speed", -2.0));
+        cases.put("no wind speed", json -> json.withObject("/wind").remove("speed"));
+        cases.put("zero dt", json -> json.put("dt", 0));
+        cases.put("no sys", json -> json.remove("sys"));
+        cases.put("no sunset", json -> json.withObject("/sys").remove("sunset"));
+        cases.put("timezone too far west", json -> json.put("timezone", -50000));
+        cases.put("timezone too far east", json -> json.put("timezone", 60000));
+        cases.put("everything missing", json -> json.removeAll().put("cod", 200));
+
+        for (Map.Entry<String, Consumer<ObjectNode>> entry : cases.entrySet()) {
+            ObjectNode json = (ObjectNode) MAPPER.readTree(VALID);
+            entry.getValue().accept(json);
+            WeatherResponse response = MAPPER.treeToValue(json, WeatherResponse.class);
+
+            List<String> expected = validator.validate(response).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .toList();
+            List<String> actual;
+            try {
+                WeatherResponseValidator.validate(response);
+                actual = List.of();
+            } catch (InvalidWeatherDataException e) {
+                actual = Arrays.stream(e.getErrorDetails().split("; ")).sorted().toList();
+            }
+            assertEquals(expected, actual, entry.getKey());
+        }
+    }
+
+    @Test
+    void testValidatorRejectsNullConditions() throws IOException {
+        ObjectNode json = (ObjectNode) MAPPER.readTree(VALID);
+        ((ArrayNode) json.get("weather")).addNull();
+        WeatherResponse response = MAPPER.treeToValue(json, WeatherResponse.class);
+
+        InvalidWeatherDataException exception = assertThrows(InvalidWeatherDataException.class,
+                () -> WeatherResponseValidator.validate(response));
+        assertEquals("Weather condition cannot be null", exception.getErrorDetails());
+    }
+
+    @Test
+    void testClientRejectsMalformedPayloadWithViolations() throws IOException {
+        MockWebServer server = new MockWebServer();
+        server.start();
+        try {
+            OpenWeatherApiClient apiClient = new OpenWeatherApiClient("test-api-key", server.url("/").toString());
+            ObjectNode json = (ObjectNode) MAPPER.readTree(VALID);
+            json.remove("main");
+            json.put("timezone", 99999);
+            server.enqueue(new MockResponse()
+                    .setBody(MAPPER.writeValueAsString(json))
+                    .addHeader("Content-Type", "application/json"));
+            server.enqueue(new MockResponse()
+                    .setBody(VALID)
+                    .addHeader("Content-Type", "application/json"));
+
+            InvalidWeatherDataException exception = assertThrows(InvalidWeatherDataException.class,
+                    () -> apiClient.fetchWeather("Zocca"));
+            assertEquals("Temperature cannot be null; Timezone cannot be east of UTC+14",
+                    exception.getErrorDetails());
+            assertTrue(exception.getMessage().startsWith("Invalid weather response: "));
+
+            assertTrue(apiClient.fetchWeather("Zocca").contains("\"name\":\"Zocca\""));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static ObjectNode main(ObjectNode json) {
+        return json.withObject("/main");
+    }
+}
@@ -2,10 +2,20 @@ package ru.practicum.test_task_weather_sdk;
 
 import org.junit.jupiter.api.Test;
 import ru.practicum.test_task_weather_sdk.dto.ModeSDK;
+import ru.practicum.test_task_weather_sdk.dto.SdkEventType;
 import ru.practicum.test_task_weather_sdk.exception.InvalidApiKeyException;
+import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
+import ru.practicum.test_task_weather_sdk.service.SdkEventListener;
 import ru.practicum.test_task_weather_sdk.service.WeatherSdk;
 import ru.practicum.test_task_weather_sdk.service.WeatherSdkFactory;
+import ru.practicum.test_task_weather_sdk.service.WeatherSdkImpl;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 
 class WeatherSdkFactoryTest {
@@ -21,25 +31,64 @@ class WeatherSdkFactoryTest {
     }
 
     @Test
-    void testFactoryOverwritesOldPollingIntervalValueWithNewOneForApiKey() {
+    void testFactoryReconfiguresPollingIntervalInPlaceForApiKey() {
         WeatherSdk sdk1 = WeatherSdkFactory.getInstance("test-key", ModeSDK.POLLING_MODE, 10);
         WeatherSdk sdk2 = WeatherSdkFactory.getInstance("test-key", ModeSDK.POLLING_MODE, 15);
 
-        assertNotSame(sdk1, sdk2, "Factory should return a different instance for the same API key");
+        assertSame(sdk1, sdk2, "Factory should reconfigure the existing instance for the same API key");
+        assertEquals(15, ((WeatherSdkImpl) sdk2).getPollingIntervalSeconds());
+        assertTrue(sdk2.isPollingEnabled());
 
         WeatherSdkFactory.removeInstance("test-key");
     }
 
     @Test
-    void testFactoryOverwritesOldModeValueWithNewOneForApiKey() {
+    void testFactoryReconfiguresModeInPlaceForApiKey() {
         WeatherSdk sdk1 = WeatherSdkFactory.getInstance("test-key", ModeSDK.POLLING_MODE, 10);
-        WeatherSdk sdk2 = WeatherSdkFactory.getInstance("test-key", ModeSDK.POLLING_MODE, 0);
+        WeatherSdk sdk2 = WeatherSdkFactory.getInstance("test-key", ModeSDK.ON_DEMAND_MODE, 0);
+
+        assertSame(sdk1, sdk2, "Factory should reconfigure the existing instance for the same API key");
+        assertEquals(ModeSDK.ON_DEMAND_MODE, ((WeatherSdkImpl) sdk2).getMode());
+        assertFalse(sdk2.isPollingEnabled());
+
+        WeatherSdkFactory.removeInstance("test-key");
+    }
+
+    @Test
+    void testFactoryReconfigurationKeepsCachedData() {
+        WeatherSdkImpl sdk = (WeatherSdkImpl) WeatherSdkFactory.getInstance("cache-key", ModeSDK.ON_DEMAND_MODE, 0);
+        sdk.getCacheManager().updateCache("London", "Sunny 15 degrees");
+
+        WeatherSdkFactory.getInstance("cache-key", ModeSDK.POLLING_MODE, 600, 50, Duration.ofMinutes(5));
 
-        assertNotSame(sdk1, sdk2, "Factory should return a different instance for the same API key");
+        assertEquals(List.of("London"), sdk.getCachedCities());
+        assertEquals(50, sdk.getCacheManager().getMaxCities());
+        assertEquals(Duration.ofMinutes(5), sdk.getCacheManager().getExpirationTime());
+
+        WeatherSdkFactory.removeInstance("cache-key");
+    }
+
+    @Test
+    void testFactoryRejectsInvalidReconfigurationAndKeepsInstance() {
+        WeatherSdk sdk = WeatherSdkFactory.getInstance("test-key", ModeSDK.POLLING_MODE, 10);
+
+        assertThrows(WeatherSdkException.class, () -> WeatherSdkFactory.getInstance("test-key", ModeSDK.POLLING_MODE, 0));
+        assertSame(sdk, WeatherSdkFactory.getInstance("test-key", ModeSDK.POLLING_MODE, 10));
 
         WeatherSdkFactory.removeInstance("test-key");
     }
 
+    @Test
+    void testFactoryReplacesInstanceThatWasShutDownDirectly() {
+        WeatherSdk sdk = WeatherSdkFactory.getInstance("shutdown-key", ModeSDK.ON_DEMAND_MODE, 0);
+        sdk.shutdown();
+
+        WeatherSdk newSdk = WeatherSdkFactory.getInstance("shutdown-key", ModeSDK.ON_DEMAND_MODE, 0);
+        assertNotSame(sdk, newSdk);
+
+        WeatherSdkFactory.removeInstance("shutdown-key");
+    }
+
     @Test
     void testFactoryCreatesDifferentInstancesForDifferentKeys() {
         WeatherSdk sdk1 = WeatherSdkFactory.getInstance("key1", ModeSDK.ON_DEMAND_MODE, 0);
@@ -51,6 +100,31 @@ class WeatherSdkFactoryTest {
         WeatherSdkFactory.removeInstance("key2");
     }
 
+    @Test
+    void testFactoryCreatesSingleInstancePerApiKeyPool() {
+        List<String> apiKeys = List.of("pool-key-1", "pool-key-2");
+        WeatherSdk sdk1 = WeatherSdkFactory.getPooledInstance(apiKeys, ModeSDK.ON_DEMAND_MODE, 0);
+        WeatherSdk sdk2 = WeatherSdkFactory.getPooledInstance(apiKeys, ModeSDK.ON_DEMAND_MODE, 0);
+
+        assertSame(sdk1, sdk2, "Factory should return the same instance for the same API key pool");
+        assertEquals(2, sdk1.getApiKeyStats().size());
+
+        WeatherSdkFactory.removePooledInstance(apiKeys);
+    }
+
+    @Test
+    void testPoolsWithCommasInKeysDoNotCollide() {
+        WeatherSdk joined = WeatherSdkFactory.getPooledInstance(List.of("comma-a,comma-b"), ModeSDK.ON_DEMAND_MODE, 0);
+        WeatherSdk split = WeatherSdkFactory.getPooledInstance(List.of("comma-a", "comma-b"), ModeSDK.ON_DEMAND_MODE, 0);
+
+        assertNotSame(joined, split);
+        assertEquals(1, joined.getApiKeyStats().size());
+        assertEquals(2, split.getApiKeyStats().size());
+
+        WeatherSdkFactory.removePooledInstance(List.of("comma-a,comma-b"));
+        WeatherSdkFactory.removePooledInstance(List.of("comma-a", "comma-b"));
+    }
+
     @Test
     void testRemoveInstanceDeletesInstance() {
         WeatherSdk sdk = WeatherSdkFactory.getInstance("removable-key", ModeSDK.ON_DEMAND_MODE, 0);
@@ -72,5 +146,35 @@ class WeatherSdkFactoryTest {
         assertThrows(InvalidApiKeyException.class, () -> WeatherSdkFactory.getInstance("", ModeSDK.ON_DEMAND_MODE, 0));
         assertThrows(InvalidApiKeyException.class, () -> WeatherSdkFactory.getInstance("   ", ModeSDK.ON_DEMAND_MODE, 10));
         assertThrows(InvalidApiKeyException.class, () -> WeatherSdkFactory.getInstance(null, ModeSDK.ON_DEMAND_MODE, 5));
+        assertThrows(InvalidApiKeyException.class, () -> WeatherSdkFactory.getPooledInstance(List.of(), ModeSDK.ON_DEMAND_MODE, 0));
+    }
+
+    @Test
+    void testFactoryRegistersEventListenersOnce() {
+        List<SdkEventType> events = new CopyOnWriteArrayList<>();
+        List<String> replaced = new CopyOnWriteArrayList<>();
+        WeatherSdkImpl sdk = (WeatherSdkImpl) WeatherSdkFactory.getInstance("events-key", ModeSDK.ON_DEMAND_MODE, 0,
+                List.of(event -> events.add(event.getType())));
+        sdk.getCacheManager().updateCache("London", "Sunny 15 degrees");
+
+        SdkEventListener listener = event -> events.add(event.getType());
+        assertSame(sdk, WeatherSdkFactory.getInstance("events-key", ModeSDK.ON_DEMAND_MODE, 0, List.of(listener)));
+        assertSame(sdk, WeatherSdkFactory.getInstance("events-key", ModeSDK.ON_DEMAND_MODE, 0,
+                List.of(listener, listener)));
+        sdk.getWeather("London");
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> sdk.getEventDispatcher().getDeliveredEvents() == 1);
+        assertEquals(List.of(SdkEventType.CACHE_LOOKUP), events);
+
+        WeatherSdkFactory.getInstance("events-key", ModeSDK.ON_DEMAND_MODE, 0,
+                List.of(event -> replaced.add(event.getTarget())));
+        sdk.getWeather("London");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> sdk.getEventDispatcher().getDeliveredEvents() == 2);
+        assertEquals(List.of(SdkEventType.CACHE_LOOKUP), events);
+        assertEquals(List.of("London"), replaced);
+        assertThrows(WeatherSdkException.class,
+                () -> WeatherSdkFactory.getInstance("events-key", ModeSDK.ON_DEMAND_MODE, 0, null));
+
+        WeatherSdkFactory.removeInstance("events-key");
     }
 }
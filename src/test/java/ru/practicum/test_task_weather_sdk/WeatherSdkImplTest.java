@@ -3,15 +3,34 @@ package ru.practicum.test_task_weather_sdk;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.test_task_weather_sdk.dto.ForecastMetric;
+import ru.practicum.test_task_weather_sdk.dto.ForecastSlice;
 import ru.practicum.test_task_weather_sdk.dto.ModeSDK;
+import ru.practicum.test_task_weather_sdk.dto.OutputFormat;
+import ru.practicum.test_task_weather_sdk.dto.SdkEventType;
 import ru.practicum.test_task_weather_sdk.exception.*;
 import ru.practicum.test_task_weather_sdk.service.OpenWeatherApiClient;
+import ru.practicum.test_task_weather_sdk.service.SdkEvent;
+import ru.practicum.test_task_weather_sdk.service.SdkEventDispatcher;
+import ru.practicum.test_task_weather_sdk.service.SdkEventListener;
 import ru.practicum.test_task_weather_sdk.service.WeatherCacheManager;
 import ru.practicum.test_task_weather_sdk.service.WeatherSdkImpl;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -62,16 +81,16 @@ class WeatherSdkImplTest {
 
     @Test
     void testGetWeatherReturnsCachedData() {
-        when(cacheManagerMock.getCached("London")).thenReturn("cached-london");
+        when(cacheManagerMock.findCached("London")).thenReturn("cached-london");
         String result = sdk.getWeather("London");
         assertEquals("cached-london", result);
-        verify(cacheManagerMock).getCached("London");
+        verify(cacheManagerMock).findCached("London");
         verifyNoMoreInteractions(cacheManagerMock);
     }
 
     @Test
     void testGetWeatherFetchesFromApiIfNotCached() {
-        when(cacheManagerMock.getCached("Zocca")).thenReturn(null);
+        when(cacheManagerMock.findCached("Zocca")).thenReturn(null);
         when(apiClientMock.fetchWeather("Zocca")).thenReturn("""
                 {"weather": {"main": "Clouds","description": "overcast clouds"},
                   "temperature": {"temp": 48.78,"feels_like": 48.78},
@@ -85,15 +104,17 @@ class WeatherSdkImplTest {
 
         String result = sdk.getWeather("Zocca");
         assertNotNull(result);
-        verify(cacheManagerMock, times(2)).getCached("Zocca");
+        verify(cacheManagerMock).findCached("Zocca");
+        verify(cacheManagerMock).findLocal("Zocca", Long.MAX_VALUE);
         verify(apiClientMock).fetchWeather("Zocca");
-        verify(cacheManagerMock).updateCache(eq("Zocca"), anyString());
+        verify(cacheManagerMock).updateLocal(eq("Zocca"), anyString());
+        verify(cacheManagerMock).share(eq("Zocca"), anyString());
     }
 
 
     @Test
     void testGetCachedCitiesReturnsCityList() {
-        when(cacheManagerMock.getCachedCities()).thenReturn(Set.of("London", "New York", "Tokyo"));
+        when(cacheManagerMock.getCachedCityList()).thenReturn(List.of("London", "New York", "Tokyo"));
 
         List<String> cities = sdk.getCachedCities();
 
@@ -106,7 +127,7 @@ class WeatherSdkImplTest {
 
     @Test
     void testGetCachedCitiesReturnsEmptyListWhenNoCitiesCach() {
-        when(cacheManagerMock.getCachedCities()).thenReturn(Set.of());
+        when(cacheManagerMock.getCachedCityList()).thenReturn(List.of());
 
         List<String> cities = sdk.getCachedCities();
 
@@ -120,6 +141,30 @@ class WeatherSdkImplTest {
         assertThrows(InvalidCityException.class, () -> sdk.getWeather("  "));
     }
 
+    @Test
+    void testWeatherBytesAreCopiedAndBuffersAreReadOnly() {
+        byte[] shared = {1, 2, 3};
+        when(cacheManagerMock.findCached("Oslo")).thenReturn("{}");
+        when(cacheManagerMock.encode(eq("Oslo"), any(), eq(OutputFormat.CBOR))).thenReturn(shared);
+
+        byte[] bytes = sdk.getWeatherBytes("Oslo", OutputFormat.CBOR);
+        bytes[0] = 9;
+
+        assertArrayEquals(new byte[]{1, 2, 3}, shared);
+        assertArrayEquals(new byte[]{1, 2, 3}, sdk.getWeatherBytes("Oslo", OutputFormat.CBOR));
+        ByteBuffer buffer = sdk.getWeatherBuffer("Oslo", OutputFormat.CBOR);
+        assertTrue(buffer.isReadOnly());
+        assertEquals(1, buffer.get(0));
+    }
+
+    @Test
+    void testCityNamesCannotReachGeoCells() {
+        assertThrows(InvalidCityException.class, () -> sdk.getWeather("geo:u09tv"));
+        assertThrows(InvalidCityException.class, () -> sdk.getWeather(" geo:u09tv", Duration.ofMinutes(1)));
+        assertThrows(InvalidCityException.class, () -> sdk.updateWeather("geo:u09tv"));
+        verifyNoInteractions(apiClientMock);
+    }
+
     @Test
     void testStopPollingWithInterval() {
         WeatherSdkImpl pollingSdk = new WeatherSdkImpl("validKey", ModeSDK.POLLING_MODE, 5);
@@ -154,53 +199,373 @@ class WeatherSdkImplTest {
                         "timezone":3600,
                         "name":"Zocca"}
                         """);
-        when(cacheManagerMock.getCached("Moscow")).thenReturn(null);
+        when(cacheManagerMock.findCached("Moscow")).thenReturn(null);
 
         assertDoesNotThrow(() -> sdk.updateWeather("Zocca"));
-        verify(cacheManagerMock).getCached("Zocca");
+        verify(cacheManagerMock).findCached("Zocca");
         verify(apiClientMock).fetchWeather("Zocca");
-        verify(cacheManagerMock).updateCache(eq("Zocca"), anyString());
+        verify(cacheManagerMock).updateLocal(eq("Zocca"), anyString());
     }
 
     @Test
     void testGetWeatherWhenApiClientThrows() {
-        when(cacheManagerMock.getCached("ExceptionCity")).thenReturn(null);
+        when(cacheManagerMock.findCached("ExceptionCity")).thenReturn(null);
         when(apiClientMock.fetchWeather("ExceptionCity")).thenThrow(new WeatherSdkException("Network error"));
 
         assertThrows(WeatherSdkException.class, () -> sdk.getWeather("ExceptionCity"));
 
-        verify(cacheManagerMock, times(2)).getCached("ExceptionCity");
+        verify(cacheManagerMock).findCached("ExceptionCity");
+        verify(cacheManagerMock).findLocal("ExceptionCity", Long.MAX_VALUE);
         verify(apiClientMock).fetchWeather("ExceptionCity");
-        verify(cacheManagerMock, never()).updateCache(anyString(), anyString());
+        verify(cacheManagerMock, never()).updateLocal(anyString(), anyString());
     }
 
     @Test
     void testGetWeatherFetchesFromApiIfDataIsStale() {
-        when(cacheManagerMock.getCached("StaleCity"))
-                .thenThrow(new CityNotFoundException("Data is stale or city not found"));
+        when(cacheManagerMock.findCached("StaleCity")).thenReturn(null);
         when(apiClientMock.fetchWeather("StaleCity")).thenReturn("{ \"weather\": [{\"main\": \"Clouds\", \"description\": \"...\"}], \"name\": \"StaleCity\" }");
 
         String result = sdk.getWeather("StaleCity");
         assertNotNull(result);
 
-        verify(cacheManagerMock, times(2)).getCached("StaleCity");
+        verify(cacheManagerMock).findCached("StaleCity");
+        verify(cacheManagerMock).findLocal("StaleCity", Long.MAX_VALUE);
         verify(apiClientMock).fetchWeather("StaleCity");
-        verify(cacheManagerMock).updateCache(eq("StaleCity"), anyString());
+        verify(cacheManagerMock).updateLocal(eq("StaleCity"), anyString());
     }
 
     @Test
     void testCacheLimitExceeded() {
-        when(cacheManagerMock.getCached("City11")).thenReturn(null);
+        when(cacheManagerMock.findCached("City11")).thenReturn(null);
         doThrow(new WeatherSdkException("Cache limit exceeded"))
-                .when(cacheManagerMock).updateCache(eq("City11"), anyString());
+                .when(cacheManagerMock).updateLocal(eq("City11"), anyString());
 
         when(apiClientMock.fetchWeather("City11"))
                 .thenReturn("{ \"weather\":[{\"main\":\"Clouds\", \"description\":\"...\"}], \"name\":\"City11\" }");
 
         assertThrows(WeatherSdkException.class, () -> sdk.getWeather("City11"));
 
-        verify(cacheManagerMock, times(2)).getCached("City11");
+        verify(cacheManagerMock).findCached("City11");
+        verify(cacheManagerMock).findLocal("City11", Long.MAX_VALUE);
         verify(apiClientMock).fetchWeather("City11");
-        verify(cacheManagerMock).updateCache(eq("City11"), anyString());
+        verify(cacheManagerMock).updateLocal(eq("City11"), anyString());
+    }
+
+    @Test
+    void testMixedCaseRequestsShareOneCacheEntry() throws IOException {
+        FakeOpenWeatherServer server = new FakeOpenWeatherServer()
+                .withCity("Paris", "FR", 2988507, 60.0)
+                .withCity("London", "GB", 2643743, 50.0);
+        server.start();
+        try {
+            WeatherSdkImpl realSdk = new WeatherSdkImpl("validKey", ModeSDK.ON_DEMAND_MODE, 0);
+            OpenWeatherApiClient client = new OpenWeatherApiClient("validKey", server.baseUrl());
+            ReflectionTestUtils.setField(realSdk, "apiClient", client);
+            ReflectionTestUtils.setField(realSdk, "cityIdIndex", client.getCityIdIndex());
+
+            List<String> workload = List.of("Paris", "paris", " Paris", "PARIS", "Paris,FR", "paris, fr",
+                    "London", "london", "LONDON ", "London,GB");
+            for (int round = 0; round < 10; round++) {
+                for (String city : workload) {
+                    assertNotNull(realSdk.getWeather(city));
+                }
+            }
+
+            assertEquals(2, server.requestCount("/weather"));
+            assertEquals(Set.of("Paris,FR", "London,GB"), Set.copyOf(realSdk.getCachedCities()));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testMaxAgeDecidesBetweenCachedAndFreshWeather() throws IOException {
+        FakeOpenWeatherServer server = new FakeOpenWeatherServer().withCity("Paris", "FR", 2988507, 60.0);
+        server.start();
+        try {
+            WeatherSdkImpl realSdk = new WeatherSdkImpl("validKey", ModeSDK.ON_DEMAND_MODE, 0);
+            FakeTicker ticker = new FakeTicker();
+            ReflectionTestUtils.setField(realSdk, "apiClient", new OpenWeatherApiClient("validKey", server.baseUrl()));
+            ReflectionTestUtils.setField(realSdk, "cacheManager",
+                    new WeatherCacheManager(10, Duration.ofMinutes(10), ticker));
+
+            realSdk.getWeather("Paris");
+            ticker.advance(Duration.ofSeconds(30));
+            assertNotNull(realSdk.getWeather("Paris", Duration.ofMinutes(1)));
+            assertEquals(1, server.requestCount("/weather"));
+
+            ticker.advance(Duration.ofMinutes(2));
+            server.setTemperature("Paris", 70.5);
+            assertTrue(realSdk.getWeather("Paris", Duration.ofMinutes(1)).contains("\"temp\":70.5"));
+            assertEquals(2, server.requestCount("/weather"));
+
+            ticker.advance(Duration.ofMinutes(5));
+            assertTrue(realSdk.getWeather("Paris", Duration.ofMinutes(30)).contains("\"temp\":70.5"));
+            assertEquals(2, server.requestCount("/weather"));
+            assertThrows(WeatherSdkException.class, () -> realSdk.getWeather("Paris", Duration.ofSeconds(-1)));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testConcurrentMaxAgeMissesShareOneFetch() throws Exception {
+        FakeOpenWeatherServer server = new FakeOpenWeatherServer().withCity("Rome", "IT", 3169070, 70.0)
+                .withLatency(300);
+        server.start();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            WeatherSdkImpl realSdk = new WeatherSdkImpl("validKey", ModeSDK.ON_DEMAND_MODE, 0);
+            ReflectionTestUtils.setField(realSdk, "apiClient", new OpenWeatherApiClient("validKey", server.baseUrl()));
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return realSdk.getWeather("Rome", Duration.ZERO);
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertTrue(result.get(5, TimeUnit.SECONDS).contains("\"name\":\"Rome\""));
+            }
+            assertEquals(1, server.requestCount("/weather"));
+        } finally {
+            executor.shutdownNow();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testMaxAgeRequestWaitsForARunningMissInsteadOfFetchingAgain() throws Exception {
+        FakeOpenWeatherServer server = new FakeOpenWeatherServer().withCity("Rome", "IT", 3169070, 70.0)
+                .withLatency(300);
+        server.start();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            WeatherSdkImpl realSdk = new WeatherSdkImpl("validKey", ModeSDK.ON_DEMAND_MODE, 0);
+            ReflectionTestUtils.setField(realSdk, "apiClient", new OpenWeatherApiClient("validKey", server.baseUrl()));
+
+            Future<String> miss = executor.submit(() -> realSdk.getWeather("Rome"));
+            await().atMost(5, TimeUnit.SECONDS).until(() -> server.peakInFlight() == 1);
+            Future<String> fresh = executor.submit(() -> realSdk.getWeather("Rome", Duration.ofMinutes(1)));
+
+            assertEquals(miss.get(5, TimeUnit.SECONDS), fresh.get(5, TimeUnit.SECONDS));
+            assertEquals(1, server.requestCount("/weather"));
+        } finally {
+            executor.shutdownNow();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testJoinersOfAFetchThatThrowsAnErrorDoNotHang() throws Exception {
+        WeatherSdkImpl realSdk = new WeatherSdkImpl("validKey", ModeSDK.ON_DEMAND_MODE, 0);
+        ReflectionTestUtils.setField(realSdk, "apiClient", apiClientMock);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(apiClientMock.fetchWeather("Rome")).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            throw new StackOverflowError("parser blew the stack");
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> realSdk.getWeather("Rome", Duration.ZERO));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Future<String> joiner = executor.submit(() -> realSdk.getWeather("Rome", Duration.ZERO));
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : List.of(leader, joiner)) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(StackOverflowError.class, e.getCause());
+            }
+            verify(apiClientMock, times(1)).fetchWeather("Rome");
+        } finally {
+            executor.shutdownNow();
+            realSdk.shutdown();
+        }
+    }
+
+    @Test
+    void testHotCitiesArePrefetchedBeforeTheyExpire() throws IOException {
+        FakeOpenWeatherServer server = new FakeOpenWeatherServer()
+                .withCity("Paris", "FR", 2988507, 60.0)
+                .withCity("Rome", "IT", 3169070, 70.0);
+        server.start();
+        WeatherSdkImpl realSdk = new WeatherSdkImpl("validKey", ModeSDK.ON_DEMAND_MODE, 0);
+        try {
+            FakeTicker ticker = new FakeTicker();
+            ReflectionTestUtils.setField(realSdk, "apiClient", new OpenWeatherApiClient("validKey", server.baseUrl()));
+            ReflectionTestUtils.setField(realSdk, "cacheManager",
+                    new WeatherCacheManager(10, Duration.ofMinutes(10), ticker));
+            realSdk.enableHotCityTracking(1, true);
+
+            for (int i = 0; i < 20; i++) {
+                realSdk.getWeather("Paris");
+            }
+            realSdk.getWeather("Rome");
+            assertEquals("Paris", realSdk.getHotCities().get(0).getCity());
+            assertEquals(2, server.requestCount("/weather"));
+
+            server.setTemperature("Paris", 75.5);
+            ticker.advance(Duration.ofMinutes(8));
+            await().atMost(5, TimeUnit.SECONDS).until(() -> realSdk.getWeather("Paris").contains("\"temp\":75.5"));
+            assertEquals(3, server.requestCount("/weather"));
+        } finally {
+            realSdk.shutdown();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testEventListenerSeesLookupsFetchesAndRefreshes() throws IOException {
+        FakeOpenWeatherServer server = new FakeOpenWeatherServer().withCity("Paris", "FR", 2988507, 60.0);
+        server.start();
+        WeatherSdkImpl realSdk = new WeatherSdkImpl("validKey", ModeSDK.ON_DEMAND_MODE, 0);
+        try {
+            ReflectionTestUtils.setField(realSdk, "apiClient", new OpenWeatherApiClient("validKey", server.baseUrl()));
+            List<String> events = new CopyOnWriteArrayList<>();
+            realSdk.addEventListener(event -> events.add(event.getType() + " " + event.getTarget() + " "
+                    + event.isHit() + " " + event.getError() + (event.getDurationNanos() > 0 ? "" : " no-duration")));
+
+            realSdk.getWeather("Paris");
+            realSdk.getWeather("Paris");
+            assertThrows(CityNotFoundException.class, () -> realSdk.getWeather("Atlantis"));
+            realSdk.reconfigure(ModeSDK.POLLING_MODE, 3600);
+
+            await().atMost(5, TimeUnit.SECONDS).until(() -> events.stream().anyMatch(e -> e.startsWith("REFRESH")));
+            assertEquals(List.of(
+                    "CACHE_LOOKUP Paris false null",
+                    "FETCH Paris false null",
+                    "CACHE_LOOKUP Paris true null",
+                    "CACHE_LOOKUP Atlantis false null",
+                    "FETCH Atlantis false CityNotFoundException"), events.subList(0, 5));
+            assertTrue(events.get(5).startsWith("REFRESH Paris"), events.get(5));
+            assertTrue(events.get(5).endsWith("false null"), events.get(5));
+            assertEquals(0, realSdk.getEventDispatcher().getDroppedEvents());
+        } finally {
+            realSdk.shutdown();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testRemovingTheLastListenerStopsDeliveryAndCopiesOutliveTheirSlot() {
+        when(cacheManagerMock.findCached("London")).thenReturn("cached-london");
+        when(cacheManagerMock.findCached("Rome")).thenReturn("cached-rome");
+        List<Thread> workers = new CopyOnWriteArrayList<>();
+        List<SdkEvent> copies = new CopyOnWriteArrayList<>();
+        SdkEventListener listener = event -> {
+            workers.add(Thread.currentThread());
+            copies.add(event.copy());
+        };
+        SdkEventDispatcher dispatcher = new SdkEventDispatcher(1);
+        ReflectionTestUtils.setField(sdk, "eventDispatcher", dispatcher);
+        sdk.addEventListener(listener);
+
+        sdk.getWeather("London");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> dispatcher.getDeliveredEvents() == 1);
+        sdk.removeEventListener(listener);
+        Thread first = workers.get(0);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !first.isAlive());
+        assertFalse(dispatcher.isActive());
+
+        sdk.addEventListener(listener);
+        sdk.getWeather("London");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> dispatcher.getDeliveredEvents() == 2);
+        sdk.getWeather("Rome");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> dispatcher.getDeliveredEvents() == 3);
+        assertNotSame(first, workers.get(1));
+        assertEquals(List.of("London", "London", "Rome"), copies.stream().map(SdkEvent::getTarget).toList());
+        assertTrue(copies.stream().allMatch(event -> event.getType() == SdkEventType.CACHE_LOOKUP && event.isHit()));
+        assertEquals(0, dispatcher.getDroppedEvents());
+        dispatcher.close();
+    }
+
+    @Test
+    void testSlowEventListenerNeverBlocksLookups() throws InterruptedException {
+        when(cacheManagerMock.findCached("London")).thenReturn("cached-london");
+        CountDownLatch release = new CountDownLatch(1);
+        sdk.addEventListener(event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("cached-london", sdk.getWeather("London"));
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertTrue(sdk.getEventDispatcher().getDroppedEvents() >= 10_000 - SdkEventDispatcher.DEFAULT_CAPACITY - 1);
+
+        release.countDown();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> sdk.getEventDispatcher().getDeliveredEvents()
+                + sdk.getEventDispatcher().getDroppedEvents() == 10_000);
+        sdk.getEventDispatcher().close();
+    }
+
+    @Test
+    void testNearbyCoordinatesShareOneCell() throws IOException {
+        FakeOpenWeatherServer server = new FakeOpenWeatherServer().withCity("Paris", "FR", 2988507, 60.0);
+        server.start();
+        try {
+            WeatherSdkImpl realSdk = new WeatherSdkImpl("validKey", ModeSDK.ON_DEMAND_MODE, 0);
+            ReflectionTestUtils.setField(realSdk, "apiClient", new OpenWeatherApiClient("validKey", server.baseUrl()));
+
+            assertNotNull(realSdk.getWeatherByCoordinates(48.8566, 2.3522));
+            assertNotNull(realSdk.getWeatherByCoordinates(48.8570, 2.3530));
+            assertEquals(1, server.requestCount("/weather"));
+            assertEquals(List.of("geo:u09tv"), realSdk.getCachedCities());
+
+            realSdk.setGeoCellPrecision(7);
+            realSdk.getWeatherByCoordinates(48.8570, 2.3530);
+            assertEquals(2, server.requestCount("/weather"));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testGetWeatherByCoordinatesRejectsInvalidCoordinates() {
+        assertThrows(InvalidCoordinatesException.class, () -> sdk.getWeatherByCoordinates(91, 0));
+        assertThrows(InvalidCoordinatesException.class, () -> sdk.getWeatherByCoordinates(0, Double.NaN));
+        verifyNoInteractions(apiClientMock);
+    }
+
+    @Test
+    void testForecastIsFetchedOncePerCellAndSliced() throws IOException {
+        FakeOpenWeatherServer server = new FakeOpenWeatherServer().withCity("Paris", "FR", 2988507, 60.0);
+        server.start();
+        try {
+            WeatherSdkImpl realSdk = new WeatherSdkImpl("validKey", ModeSDK.ON_DEMAND_MODE, 0);
+            OpenWeatherApiClient client = new OpenWeatherApiClient("validKey", server.baseUrl());
+            ReflectionTestUtils.setField(realSdk, "apiClient", client);
+            ReflectionTestUtils.setField(realSdk, "cityIdIndex", client.getCityIdIndex());
+
+            ForecastSlice next12 = realSdk.getForecast("Paris", 12);
+            ForecastSlice next6 = realSdk.getForecastByCoordinates(48.85, 2.35, 6);
+            ForecastSlice all = realSdk.getForecast("paris", 100);
+
+            assertEquals(12, next12.size());
+            assertEquals(6, next6.size());
+            assertEquals(48, all.size());
+            assertEquals(40.5f, next12.value(ForecastMetric.TEMPERATURE, 0));
+            assertEquals(next12.timestamp(0) + 3600, next12.timestamp(1));
+            assertEquals(1, server.requestCount("/weather"));
+            assertEquals(1, server.requestCount("/onecall"));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testForecastRejectsNonPositiveHours() {
+        assertThrows(WeatherSdkException.class, () -> sdk.getForecastByCoordinates(48.85, 2.35, 0));
+        verifyNoInteractions(apiClientMock);
     }
 }
@@ -2,16 +2,28 @@ package ru.practicum.test_task_weather_sdk;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import ru.practicum.test_task_weather_sdk.dto.RefreshStats;
 import ru.practicum.test_task_weather_sdk.exception.WeatherSdkException;
 import ru.practicum.test_task_weather_sdk.service.OpenWeatherApiClient;
 import ru.practicum.test_task_weather_sdk.service.WeatherCacheManager;
 import ru.practicum.test_task_weather_sdk.service.WeatherUpdater;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class WeatherUpdaterTest {
@@ -148,6 +160,188 @@ class WeatherUpdaterTest {
         assertTrue(scheduler.isShutdown());
     }
 
+    @Test
+    void testUpdaterRefreshesResolvedCitiesWithSingleGroupRequest() throws IOException {
+        FakeOpenWeatherServer server = new FakeOpenWeatherServer()
+                .withCity("London", 2643743, 50.0)
+                .withCity("Paris", 2988507, 60.0)
+                .withCity("Zocca", 3163858, 70.0);
+        server.start();
+        try {
+            OpenWeatherApiClient client = new OpenWeatherApiClient("test-api-key", server.baseUrl());
+            WeatherCacheManager cache = new WeatherCacheManager(new FakeTicker());
+            for (String city : List.of("London", "Paris", "Zocca")) {
+                cache.updateCache(city, client.fetchWeather(city));
+            }
+            server.setTemperature("Paris", 65.5);
+
+            weatherUpdater = new WeatherUpdater(cache, client, 3600);
+            await().atMost(3, TimeUnit.SECONDS).until(() -> server.requestCount("/group") == 1);
+            weatherUpdater.stop();
+
+            assertEquals(3, server.requestCount("/weather"));
+            assertTrue(cache.getCached("Paris").contains("\"temp\":65.5"));
+            assertTrue(cache.getCached("London").contains("\"temp\":50.0"));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testUpdaterSplitsLargePollingSetIntoGroupsOfTwenty() {
+        Set<String> cities = IntStream.rangeClosed(1, 45).mapToObj(i -> "City" + i).collect(Collectors.toSet());
+        when(cacheManager.getCachedCities()).thenReturn(cities);
+        when(apiClient.findCityId(anyString())).thenAnswer(invocation ->
+                OptionalLong.of(Long.parseLong(invocation.<String>getArgument(0).substring(4))));
+
+        weatherUpdater = new WeatherUpdater(cacheManager, apiClient, 3600);
+        await().atMost(3, TimeUnit.SECONDS).untilAsserted(() ->
+                verify(apiClient, times(3)).refreshWeatherGroup(anyList(), any()));
+        weatherUpdater.stop();
+
+        verify(apiClient, never()).fetchWeather(anyString());
+    }
+
+    @Test
+    void testUnchangedGroupEntriesOnlyExtendFreshness() throws IOException {
+        FakeOpenWeatherServer server = new FakeOpenWeatherServer()
+                .withCity("London", 2643743, 50.0)
+                .withCity("Paris", 2988507, 60.0);
+        server.start();
+        try {
+            OpenWeatherApiClient client = new OpenWeatherApiClient("test-api-key", server.baseUrl());
+            FakeTicker ticker = new FakeTicker();
+            WeatherCacheManager cache = new WeatherCacheManager(10, Duration.ofMinutes(10), ticker);
+            for (String city : List.of("London", "Paris")) {
+                cache.updateCache(city, client.fetchWeather(city));
+            }
+            weatherUpdater = new WeatherUpdater(cache, client, 3600);
+            await().atMost(3, TimeUnit.SECONDS).until(() -> weatherUpdater.getRefreshStats().getCycles() == 1);
+            String london = cache.getCached("London");
+            server.setTemperature("Paris", 65.5);
+
+            ticker.advance(Duration.ofMinutes(8));
+            weatherUpdater.updateWeather();
+            ticker.advance(Duration.ofMinutes(8));
+            weatherUpdater.updateWeather();
+            weatherUpdater.stop();
+
+            RefreshStats stats = weatherUpdater.getRefreshStats();
+            assertEquals(3, stats.getCycles());
+            assertEquals(6, stats.getRefreshes());
+            assertEquals(3, stats.getUnchanged());
+            assertSame(london, cache.getCached("London"));
+            assertTrue(cache.getCached("Paris").contains("\"temp\":65.5"));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void testSpreadPollingKeepsEachCityAtAStablePhaseWithinTheInterval() {
+        List<String> cities = List.of("London", "Paris", "Berlin", "Rome");
+        Set<String> cached = new LinkedHashSet<>(cities);
+        when(cacheManager.getCachedCities()).thenReturn(Set.of()).thenReturn(cached);
+        when(cacheManager.getExpirationTime()).thenReturn(Duration.ofMinutes(10));
+        for (int i = 0; i < cities.size(); i++) {
+            when(cacheManager.getAgeNanos(cities.get(i))).thenReturn(
+                    OptionalLong.of(TimeUnit.MINUTES.toNanos(1 + i)),
+                    OptionalLong.of(TimeUnit.MINUTES.toNanos(4 - i)));
+        }
+        when(apiClient.findCityId(anyString())).thenReturn(OptionalLong.empty());
+        Map<String, List<Long>> requestNanos = new ConcurrentHashMap<>();
+        when(apiClient.fetchWeather(anyString())).thenAnswer(invocation -> {
+            requestNanos.computeIfAbsent(invocation.getArgument(0), city -> new CopyOnWriteArrayList<>())
+                    .add(System.nanoTime());
+            return "{}";
+        });
+
+        weatherUpdater = new WeatherUpdater(cacheManager, apiClient, 2);
+        weatherUpdater.setSpread(true, 0);
+        await().atMost(8, TimeUnit.SECONDS).until(() -> weatherUpdater.getRefreshStats().getCycles() == 2);
+        weatherUpdater.stop();
+
+        long interval = TimeUnit.SECONDS.toNanos(2);
+        long tolerance = TimeUnit.MILLISECONDS.toNanos(150);
+        for (int cycle = 0; cycle < 2; cycle++) {
+            int index = cycle;
+            LongSummaryStatistics times = cities.stream()
+                    .mapToLong(city -> requestNanos.get(city).get(index)).summaryStatistics();
+            assertTrue(times.getMax() - times.getMin() >= TimeUnit.MILLISECONDS.toNanos(1000),
+                    "requests spanned only " + (times.getMax() - times.getMin()) + " ns");
+            assertTrue(times.getMax() - times.getMin() < interval);
+        }
+        for (String city : cities) {
+            long first = requestNanos.get(city).get(0) - requestNanos.get("London").get(0);
+            long second = requestNanos.get(city).get(1) - requestNanos.get("London").get(1);
+            assertTrue(Math.abs(first - second) < tolerance,
+                    city + " moved by " + (second - first) + " ns between cycles");
+        }
+        assertEquals(0, weatherUpdater.getRefreshStats().getOverloadedCycles());
+        assertThrows(WeatherSdkException.class, () -> weatherUpdater.setSpread(true, 1.5));
+        assertThrows(WeatherSdkException.class, () -> weatherUpdater.setSpread(true, -0.1));
+    }
+
+    @Test
+    void testStalestCitiesAreRefreshedFirstAndExpiryMissesAreCounted() {
+        when(cacheManager.getCachedCities()).thenReturn(Set.of()).thenReturn(Set.of("Fresh", "Stale", "Older"));
+        when(cacheManager.getExpirationTime()).thenReturn(Duration.ofMinutes(10));
+        long ttl = TimeUnit.MINUTES.toNanos(10);
+        when(cacheManager.getAgeNanos("Fresh")).thenReturn(OptionalLong.of(ttl - TimeUnit.MILLISECONDS.toNanos(300)));
+        when(cacheManager.getAgeNanos("Older")).thenReturn(OptionalLong.of(ttl - TimeUnit.MILLISECONDS.toNanos(200)));
+        when(cacheManager.getAgeNanos("Stale")).thenReturn(OptionalLong.of(ttl - TimeUnit.MILLISECONDS.toNanos(100)))
+                .thenReturn(OptionalLong.empty());
+        when(apiClient.findCityId(anyString())).thenReturn(OptionalLong.empty());
+        when(apiClient.fetchWeather(anyString())).thenReturn("{}");
+
+        weatherUpdater = new WeatherUpdater(cacheManager, apiClient, 1);
+        weatherUpdater.setSpread(true, 0);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> weatherUpdater.getRefreshStats().getCycles() == 1);
+        weatherUpdater.stop();
+
+        InOrder order = inOrder(apiClient);
+        order.verify(apiClient).fetchWeather("Stale");
+        order.verify(apiClient).fetchWeather("Older");
+        order.verify(apiClient).fetchWeather("Fresh");
+        RefreshStats stats = weatherUpdater.getRefreshStats();
+        assertEquals(1, stats.getExpiryMisses());
+        assertEquals(1, stats.getOverloadedCycles());
+    }
+
+    @Test
+    void testCitiesRefreshedSinceLastCycleAreSkipped() throws IOException {
+        FakeOpenWeatherServer server = new FakeOpenWeatherServer()
+                .withCity("London", 2643743, 50.0)
+                .withCity("Paris", 2988507, 60.0)
+                .withCity("Rome", 3169070, 70.0);
+        server.start();
+        try {
+            OpenWeatherApiClient client = new OpenWeatherApiClient("test-api-key", server.baseUrl());
+            FakeTicker ticker = new FakeTicker();
+            WeatherCacheManager cache = new WeatherCacheManager(10, Duration.ofMinutes(10), ticker);
+            for (String city : List.of("London", "Paris", "Rome")) {
+                cache.updateCache(city, client.fetchWeather(city));
+            }
+            weatherUpdater = new WeatherUpdater(cache, client, 3600);
+            await().atMost(3, TimeUnit.SECONDS).until(() -> weatherUpdater.getRefreshStats().getCycles() == 1);
+
+            ticker.advance(Duration.ofMinutes(8));
+            cache.updateCache("Paris", client.fetchWeather("Paris"));
+            ticker.advance(Duration.ofMinutes(1));
+            weatherUpdater.updateWeather();
+            weatherUpdater.stop();
+
+            RefreshStats stats = weatherUpdater.getRefreshStats();
+            assertEquals(2, stats.getCycles());
+            assertEquals(5, stats.getRefreshes());
+            assertEquals(1, stats.getFresh());
+            assertEquals(0, stats.getExpiryMisses());
+            assertEquals(5, server.groupCityCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+
     private boolean isSchedulerShutdown(WeatherUpdater updater) {
         ScheduledExecutorService scheduler = extractScheduler(updater);
         return scheduler.isShutdown();
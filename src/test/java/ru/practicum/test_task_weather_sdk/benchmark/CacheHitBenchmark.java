@@ -0,0 +1,94 @@
+package ru.practicum.test_task_weather_sdk.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.test_task_weather_sdk.dto.ModeSDK;
+import ru.practicum.test_task_weather_sdk.dto.Units;
+import ru.practicum.test_task_weather_sdk.exception.CityNotFoundException;
+import ru.practicum.test_task_weather_sdk.service.WeatherCacheManager;
+import ru.practicum.test_task_weather_sdk.service.WeatherSdkImpl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheHitBenchmark {
+
+    private static final String WEATHER = """
+            {"weather":{"main":"Clouds","description":"overcast clouds"},
+             "temperature":{"temp":48.78,"feels_like":48.78},"visibility":10000,"wind":{"speed":2.46},
+             "datetime":1740406884,"sun":{"sunrise":1740376916,"sunset":1740416215},"timezone":3600,"name":"Paris"}""";
+
+    private WeatherSdkImpl sdk;
+    private WeatherSdkImpl trackedSdk;
+    private WeatherSdkImpl listenedSdk;
+    private WeatherCacheManager cacheManager;
+
+    @Setup
+    public void setUp() {
+        sdk = new WeatherSdkImpl("benchmark-key", ModeSDK.ON_DEMAND_MODE, 0);
+        cacheManager = sdk.getCacheManager();
+        sdk.getCityIdIndex().register("Paris", 2988507L, "Paris", "FR");
+        cacheManager.updateCache("Paris,FR", WEATHER);
+        trackedSdk = new WeatherSdkImpl("benchmark-key", ModeSDK.ON_DEMAND_MODE, 0);
+        trackedSdk.getCityIdIndex().register("Paris", 2988507L, "Paris", "FR");
+        trackedSdk.getCacheManager().updateCache("Paris,FR", WEATHER);
+        trackedSdk.enableHotCityTracking(10, false);
+        listenedSdk = new WeatherSdkImpl("benchmark-key", ModeSDK.ON_DEMAND_MODE, 0);
+        listenedSdk.getCityIdIndex().register("Paris", 2988507L, "Paris", "FR");
+        listenedSdk.getCacheManager().updateCache("Paris,FR", WEATHER);
+        listenedSdk.addEventListener(event -> { });
+    }
+
+    @TearDown
+    public void tearDown() {
+        sdk.shutdown();
+        trackedSdk.shutdown();
+        System.out.println("Events delivered to the listener: " + listenedSdk.getEventDispatcher().getDeliveredEvents()
+                + ", dropped: " + listenedSdk.getEventDispatcher().getDroppedEvents());
+        listenedSdk.shutdown();
+    }
+
+    @Benchmark
+    public String getWeatherHit() {
+        return sdk.getWeather("Paris");
+    }
+
+    @Benchmark
+    public String getWeatherMetricHit() {
+        return sdk.getWeather("Paris", Units.METRIC);
+    }
+
+    @Benchmark
+    public String getWeatherHitTracked() {
+        return trackedSdk.getWeather("Paris");
+    }
+
+    @Benchmark
+    public String getWeatherHitWithListener() {
+        return listenedSdk.getWeather("Paris");
+    }
+
+    @Benchmark
+    public List<String> getCachedCities() {
+        return sdk.getCachedCities();
+    }
+
+    @Benchmark
+    public String findCachedMiss() {
+        return cacheManager.findCached("Lima");
+    }
+
+    @Benchmark
+    public String getCachedMissWithException() {
+        try {
+            return cacheManager.getCached("Lima");
+        } catch (CityNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.test_task_weather_sdk.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jol.info.GraphLayout;
+import ru.practicum.test_task_weather_sdk.service.CompactWeather;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactEntryBenchmark {
+
+    private static final int CITIES = 10_000;
+    private static final String[][] CONDITIONS = {
+            {"Clouds", "scattered clouds"}, {"Clouds", "overcast clouds"}, {"Clear", "clear sky"},
+            {"Rain", "light rain"}, {"Snow", "light snow"}, {"Mist", "mist"}};
+
+    private String[] keys;
+    private String[] jsonEntries;
+    private CompactWeather[] compactEntries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        keys = new String[CITIES];
+        jsonEntries = new String[CITIES];
+        compactEntries = new CompactWeather[CITIES];
+        CompactWeather.Conditions conditions = new CompactWeather.Conditions();
+        for (int i = 0; i < CITIES; i++) {
+            String name = "City" + i;
+            keys[i] = name + ",XX";
+            String[] condition = CONDITIONS[i % CONDITIONS.length];
+            jsonEntries[i] = String.format(Locale.ROOT, "{\"weather\":{\"main\":\"%s\",\"description\":\"%s\"},"
+                            + "\"temperature\":{\"temp\":%s,\"feels_like\":%s},\"visibility\":10000,"
+                            + "\"wind\":{\"speed\":%s},\"datetime\":%d,\"sun\":{\"sunrise\":1740376916,"
+                            + "\"sunset\":1740416215},\"timezone\":3600,\"name\":\"%s\"}",
+                    condition[0], condition[1], (300 + i % 600) / 10.0, (280 + i % 600) / 10.0, i % 150 / 10.0,
+                    1740406884L + i, name);
+            compactEntries[i] = CompactWeather.parse(keys[i], jsonEntries[i], conditions);
+            if (compactEntries[i] == null) {
+                throw new IllegalStateException("Entry is not in canonical form: " + jsonEntries[i]);
+            }
+        }
+        long arrayBytes = GraphLayout.parseInstance((Object) new Object[CITIES]).totalSize();
+        long jsonBytes = GraphLayout.parseInstance((Object) jsonEntries).totalSize() - arrayBytes;
+        long compactBytes = GraphLayout.parseInstance((Object) compactEntries).totalSize() - arrayBytes;
+        System.out.printf(Locale.ROOT, "%nJSON entries: %d bytes/entry, compact entries: %d bytes/entry"
+                        + " (%d cities, %d shared conditions)%n",
+                jsonBytes / CITIES, compactBytes / CITIES, CITIES, conditions.size());
+        System.out.println(GraphLayout.parseInstance(compactEntries[0]).toFootprint());
+    }
+
+    @Benchmark
+    public String jsonHit() {
+        int i = next++ % CITIES;
+        return jsonEntries[i];
+    }
+
+    @Benchmark
+    public String compactHit() {
+        int i = next++ % CITIES;
+        return compactEntries[i].toJson(keys[i]);
+    }
+}
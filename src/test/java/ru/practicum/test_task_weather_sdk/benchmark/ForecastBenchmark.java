@@ -0,0 +1,86 @@
+package ru.practicum.test_task_weather_sdk.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.test_task_weather_sdk.dto.Forecast;
+import ru.practicum.test_task_weather_sdk.dto.ForecastMetric;
+import ru.practicum.test_task_weather_sdk.dto.ForecastSlice;
+import ru.practicum.test_task_weather_sdk.service.ForecastCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForecastBenchmark {
+
+    private static final int HOURS = 48;
+    private static final long START = 1740405600L;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Param({"12"})
+    public int sliceHours;
+
+    private Forecast forecast;
+    private String forecastJson;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        long[] timestamps = new long[HOURS];
+        float[] values = new float[HOURS * Forecast.STRIDE];
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < HOURS; i++) {
+            timestamps[i] = START + i * 3600L;
+            float temp = 40 + i * 0.5f;
+            values[i * Forecast.STRIDE + ForecastMetric.TEMPERATURE.ordinal()] = temp;
+            values[i * Forecast.STRIDE + ForecastMetric.FEELS_LIKE.ordinal()] = temp - 2;
+            values[i * Forecast.STRIDE + ForecastMetric.WIND_SPEED.ordinal()] = 3 + i % 5;
+            values[i * Forecast.STRIDE + ForecastMetric.PRECIPITATION_PROBABILITY.ordinal()] = (i % 10) / 10f;
+            entries.add(String.format(Locale.ROOT, "{\"dt\":%d,\"temp\":%.2f,\"feels_like\":%.2f,\"pressure\":1015,"
+                            + "\"humidity\":80,\"wind_speed\":%d.0,\"pop\":0.%d,\"weather\":[{\"id\":500,"
+                            + "\"main\":\"Rain\",\"description\":\"light rain\",\"icon\":\"10d\"}]}",
+                    timestamps[i], temp, temp - 2, 3 + i % 5, i % 10));
+        }
+        forecast = new Forecast(timestamps, values);
+        forecastJson = "{\"lat\":48.85,\"lon\":2.35,\"timezone_offset\":3600,\"hourly\":["
+                + String.join(",", entries) + "]}";
+        now = START + 5 * 3600 + 1200;
+        System.out.printf(Locale.ROOT, "%nPacked forecast: %d bytes, JSON string: %d bytes for %d hours%n",
+                ForecastCache.retainedBytes(forecast), 40L + forecastJson.length(), HOURS);
+    }
+
+    @Benchmark
+    public double packedSlice() {
+        ForecastSlice slice = ForecastCache.nextHours(forecast, now, sliceHours);
+        double sum = 0;
+        for (int i = 0; i < slice.size(); i++) {
+            sum += slice.value(ForecastMetric.TEMPERATURE, i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double jsonSlice() throws Exception {
+        JsonNode hourly = OBJECT_MAPPER.readTree(forecastJson).get("hourly");
+        double sum = 0;
+        int taken = 0;
+        for (JsonNode hour : hourly) {
+            if (hour.get("dt").asLong() + 3600 <= now) {
+                continue;
+            }
+            if (taken++ == sliceHours) {
+                break;
+            }
+            sum += hour.get("temp").asDouble();
+        }
+        return sum;
+    }
+}
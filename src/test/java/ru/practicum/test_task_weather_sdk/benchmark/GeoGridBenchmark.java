@@ -0,0 +1,93 @@
+package ru.practicum.test_task_weather_sdk.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.test_task_weather_sdk.service.GeoGrid;
+import ru.practicum.test_task_weather_sdk.service.WeatherCacheManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoGridBenchmark {
+
+    private static final int DEVICES = 8;
+    private static final int TRACE_LENGTH = 4096;
+    private static final double METERS_PER_DEGREE = 111_320;
+
+    @Param({"4", "5", "6", "7"})
+    public int precision;
+
+    @Param({"15"})
+    public double speedMetersPerSecond;
+
+    @Param({"10"})
+    public int fixIntervalSeconds;
+
+    private GeoGrid grid;
+    private double[] latitudes;
+    private double[] longitudes;
+    private Map<String, Boolean> cache;
+    private int position;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class HitCounters {
+        public long hits;
+        public long misses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        grid = new GeoGrid(precision);
+        latitudes = new double[DEVICES * TRACE_LENGTH];
+        longitudes = new double[DEVICES * TRACE_LENGTH];
+        SplittableRandom random = new SplittableRandom(42);
+        double step = speedMetersPerSecond * fixIntervalSeconds / METERS_PER_DEGREE;
+        for (int device = 0; device < DEVICES; device++) {
+            double lat = 48.0 + random.nextDouble() * 4;
+            double lon = 2.0 + random.nextDouble() * 6;
+            double heading = random.nextDouble() * 2 * Math.PI;
+            for (int fix = 0; fix < TRACE_LENGTH; fix++) {
+                heading += (random.nextDouble() - 0.5) * 0.6;
+                lat += step * Math.cos(heading);
+                lon += step * Math.sin(heading) / Math.cos(Math.toRadians(lat));
+                int index = fix * DEVICES + device;
+                latitudes[index] = lat + (random.nextDouble() - 0.5) * 0.0002;
+                longitudes[index] = lon + (random.nextDouble() - 0.5) * 0.0002;
+            }
+        }
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > WeatherCacheManager.DEFAULT_MAX_CITIES;
+            }
+        };
+    }
+
+    @Benchmark
+    public String lookup(HitCounters counters) {
+        int index = position;
+        position = index + 1 == latitudes.length ? 0 : index + 1;
+        String key = grid.cellKey(latitudes[index], longitudes[index]);
+        if (cache.get(key) != null) {
+            counters.hits++;
+        } else {
+            counters.misses++;
+            cache.put(key, Boolean.TRUE);
+        }
+        return key;
+    }
+}
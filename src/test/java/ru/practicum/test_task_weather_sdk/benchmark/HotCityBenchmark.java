@@ -0,0 +1,104 @@
+package ru.practicum.test_task_weather_sdk.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.test_task_weather_sdk.FakeOpenWeatherServer;
+import ru.practicum.test_task_weather_sdk.dto.ModeSDK;
+import ru.practicum.test_task_weather_sdk.service.OpenWeatherApiClient;
+import ru.practicum.test_task_weather_sdk.service.WeatherSdkImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(1)
+public class HotCityBenchmark {
+
+    private static final int CITIES = 500;
+    private static final double ZIPF_EXPONENT = 1.1;
+    private static final int REQUESTS = 20_000;
+    private static final long REQUEST_GAP_NANOS = TimeUnit.MICROSECONDS.toNanos(400);
+    private static final long LATENCY_MILLIS = 20;
+    private static final Duration TTL = Duration.ofSeconds(2);
+
+    @Param({"false", "true"})
+    public boolean prefetch;
+
+    private FakeOpenWeatherServer server;
+    private WeatherSdkImpl sdk;
+    private String[] workload;
+
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+        server = new FakeOpenWeatherServer().withLatency(LATENCY_MILLIS);
+        for (int i = 0; i < CITIES; i++) {
+            server.withCity("City" + i, 1000 + i, 40);
+        }
+        server.start();
+        sdk = new WeatherSdkImpl("benchmark-key", ModeSDK.ON_DEMAND_MODE, 0);
+        ReflectionTestUtils.setField(sdk, "apiClient", new OpenWeatherApiClient("benchmark-key", server.baseUrl()));
+        sdk.reconfigureCache(100, TTL);
+        sdk.enableHotCityTracking(20, prefetch);
+        workload = zipfWorkload(new Random(42));
+        for (int i = 0; i < 20; i++) {
+            sdk.getWeather("City" + (CITIES - 1 - i));
+        }
+        sdk.clearCache();
+        server.resetLoadStats();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws IOException {
+        sdk.shutdown();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public void zipfWorkload() {
+        long[] latencies = new long[REQUESTS];
+        long missThreshold = TimeUnit.MILLISECONDS.toNanos(LATENCY_MILLIS) / 2;
+        int misses = 0;
+        long missNanos = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            long start = System.nanoTime();
+            sdk.getWeather(workload[i]);
+            latencies[i] = System.nanoTime() - start;
+            if (latencies[i] >= missThreshold) {
+                misses++;
+                missNanos += latencies[i];
+            }
+            LockSupport.parkNanos(REQUEST_GAP_NANOS);
+        }
+        long total = Arrays.stream(latencies).sum();
+        Arrays.sort(latencies);
+        System.out.printf(Locale.ROOT, "%n%s: %d requests, %d misses (%.1f%%), miss time %d ms, mean latency %.1f us, "
+                        + "p99 %.1f ms, upstream calls %d%n", prefetch ? "Prefetch" : "No prefetch", REQUESTS,
+                misses, 100.0 * misses / REQUESTS, TimeUnit.NANOSECONDS.toMillis(missNanos),
+                total / 1000.0 / REQUESTS, latencies[REQUESTS * 99 / 100] / 1e6, server.requestNanos().size());
+        System.out.println("Hot cities: " + sdk.getHotCities().subList(0, 5));
+    }
+
+    private static String[] zipfWorkload(Random random) {
+        double[] cumulative = new double[CITIES];
+        double sum = 0;
+        for (int i = 0; i < CITIES; i++) {
+            sum += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cumulative[i] = sum;
+        }
+        String[] requests = new String[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            requests[i] = "City" + (rank < 0 ? -rank - 1 : rank);
+        }
+        return requests;
+    }
+}
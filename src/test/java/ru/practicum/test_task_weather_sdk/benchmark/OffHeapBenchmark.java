@@ -0,0 +1,99 @@
+package ru.practicum.test_task_weather_sdk.benchmark;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.test_task_weather_sdk.service.WeatherCacheManager;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx512m", "-XX:+UseG1GC"})
+public class OffHeapBenchmark {
+
+    @Param({"500000"})
+    public int entries;
+
+    @Param({"false", "true"})
+    public boolean offHeap;
+
+    private WeatherCacheManager cacheManager;
+    private String[] cities;
+    private long gcCount;
+    private long gcMillis;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cacheManager = new WeatherCacheManager(entries, Duration.ofHours(1), Ticker.systemTicker());
+        cacheManager.setOffHeapEntries(offHeap);
+        cities = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            cities[i] = "City" + i + ",XX";
+            cacheManager.updateCache(cities[i], weather(i, i));
+        }
+        long fullGcNanos = 0;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            System.gc();
+            fullGcNanos += System.nanoTime() - start;
+        }
+        System.out.printf(Locale.ROOT, "%n%s cache with %d entries: full GC %.1f ms, heap used %d MB, off-heap %d MB%n",
+                offHeap ? "Off-heap" : "On-heap", entries, fullGcNanos / 3 / 1e6,
+                (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20,
+                cacheManager.getOffHeapStore().reservedBytes() >> 20);
+        gcCount = totalGcCount();
+        gcMillis = totalGcMillis();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long pauses = totalGcCount() - gcCount;
+        long millis = totalGcMillis() - gcMillis;
+        System.out.printf(Locale.ROOT, "%n%s cache: %d GC pauses, %d ms total, %.2f ms average%n",
+                offHeap ? "Off-heap" : "On-heap", pauses, millis, pauses == 0 ? 0.0 : (double) millis / pauses);
+        cacheManager.clearCache();
+    }
+
+    @Benchmark
+    public String readMostly() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int city = random.nextInt(entries);
+        if (random.nextInt(10) == 0) {
+            cacheManager.updateCache(cities[city], weather(city, random.nextInt(1000)));
+            return null;
+        }
+        return cacheManager.findCached(cities[city]);
+    }
+
+    private static String weather(int city, int sample) {
+        return "{\"weather\":{\"main\":\"Clouds\",\"description\":\"scattered clouds\"},\"temperature\":{\"temp\":"
+                + (30 + sample % 600 / 10.0) + ",\"feels_like\":" + (28 + sample % 600 / 10.0) + "},"
+                + "\"visibility\":10000,\"wind\":{\"speed\":2.46},\"datetime\":" + (1740406884L + sample) + ","
+                + "\"sun\":{\"sunrise\":1740376916,\"sunset\":1740416215},\"timezone\":3600,"
+                + "\"name\":\"City" + city + "\"}";
+    }
+
+    private static long totalGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long totalGcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+}
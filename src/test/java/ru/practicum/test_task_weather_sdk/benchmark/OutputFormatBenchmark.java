@@ -0,0 +1,59 @@
+package ru.practicum.test_task_weather_sdk.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.test_task_weather_sdk.dto.OutputFormat;
+import ru.practicum.test_task_weather_sdk.service.WeatherEncodings;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputFormatBenchmark {
+
+    private static final String WEATHER = "{\"name\":\"Zocca\",\"visibility\":10000,"
+            + "\"weather\":{\"description\":\"overcast clouds\",\"main\":\"Clouds\"},"
+            + "\"temperature\":{\"temp\":48.78,\"feels_like\":48.78},\"wind\":{\"speed\":2.46},\"timezone\":3600,"
+            + "\"datetime\":1740406884,\"sun\":{\"sunrise\":1740376916,\"sunset\":1740416215}}";
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final ObjectMapper CBOR_MAPPER = new ObjectMapper(new CBORFactory());
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public OutputFormat format;
+
+    private byte[] encoded;
+    private ObjectMapper mapper;
+
+    @Setup
+    public void setUp() {
+        encoded = WeatherEncodings.transcode(WEATHER, format);
+        mapper = switch (format) {
+            case JSON -> JSON_MAPPER;
+            case CBOR -> CBOR_MAPPER;
+            case SMILE -> SMILE_MAPPER;
+        };
+        System.out.printf(Locale.ROOT, "%n%s payload: %d bytes (JSON string: %d chars)%n",
+                format, encoded.length, WEATHER.length());
+    }
+
+    @Benchmark
+    public byte[] encodeFromJson() {
+        return WeatherEncodings.transcode(WEATHER, format);
+    }
+
+    @Benchmark
+    public JsonNode decode() throws IOException {
+        return mapper.readTree(encoded);
+    }
+}
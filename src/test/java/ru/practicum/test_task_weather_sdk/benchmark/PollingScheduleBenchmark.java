@@ -0,0 +1,87 @@
+package ru.practicum.test_task_weather_sdk.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.test_task_weather_sdk.FakeOpenWeatherServer;
+import ru.practicum.test_task_weather_sdk.FakeTicker;
+import ru.practicum.test_task_weather_sdk.service.OpenWeatherApiClient;
+import ru.practicum.test_task_weather_sdk.service.WeatherCacheManager;
+import ru.practicum.test_task_weather_sdk.service.WeatherUpdater;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(1)
+public class PollingScheduleBenchmark {
+
+    private static final int CITIES = 60;
+    private static final int INTERVAL_SECONDS = 3;
+    private static final long BUCKET_MILLIS = 100;
+
+    @Param({"false", "true"})
+    public boolean spread;
+
+    private FakeOpenWeatherServer server;
+    private WeatherCacheManager cacheManager;
+    private OpenWeatherApiClient client;
+
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+        server = new FakeOpenWeatherServer().withLatency(80);
+        for (int i = 0; i < CITIES; i++) {
+            server.withCity("City" + i, 1000 + i, 40);
+        }
+        server.start();
+        client = new OpenWeatherApiClient("test-api-key", server.baseUrl());
+        cacheManager = new WeatherCacheManager(CITIES, Duration.ofMinutes(10), new FakeTicker());
+        for (int i = 0; i < 20; i++) {
+            client.fetchWeatherByCoordinates(0, 0);
+        }
+        server.resetLoadStats();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws IOException {
+        printChart(server.requestNanos(), server.peakInFlight());
+        server.shutdown();
+    }
+
+    @Benchmark
+    public void pollingCycle() throws InterruptedException {
+        WeatherUpdater updater = new WeatherUpdater(cacheManager, client, INTERVAL_SECONDS);
+        Thread.sleep(100);
+        for (int i = 0; i < CITIES; i++) {
+            cacheManager.updateCache("City" + i, "{\"name\":\"City" + i + "\"}");
+        }
+        updater.setSpread(spread, 0.5);
+        updater.updateWeather();
+        updater.stop();
+    }
+
+    private void printChart(List<Long> requestNanos, int peak) {
+        if (requestNanos.isEmpty()) {
+            return;
+        }
+        long start = requestNanos.get(0);
+        int[] buckets = new int[(int) (TimeUnit.SECONDS.toMillis(INTERVAL_SECONDS) / BUCKET_MILLIS) + 1];
+        for (long nanos : requestNanos) {
+            int bucket = (int) Math.min(buckets.length - 1, TimeUnit.NANOSECONDS.toMillis(nanos - start) / BUCKET_MILLIS);
+            buckets[bucket]++;
+        }
+        StringBuilder chart = new StringBuilder(String.format(Locale.ROOT,
+                "%n%s schedule, %d requests in %ds interval, peak in-flight %d (requests per %d ms):%n",
+                spread ? "Spread" : "Burst", requestNanos.size(), INTERVAL_SECONDS, peak, BUCKET_MILLIS));
+        for (int i = 0; i < buckets.length; i++) {
+            chart.append(String.format(Locale.ROOT, "%5d ms |%s %d%n", i * BUCKET_MILLIS, "#".repeat(buckets[i]),
+                    buckets[i]));
+        }
+        System.out.print(chart);
+    }
+}
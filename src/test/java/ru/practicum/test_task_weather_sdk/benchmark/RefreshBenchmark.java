@@ -0,0 +1,113 @@
+package ru.practicum.test_task_weather_sdk.benchmark;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.test_task_weather_sdk.service.OpenWeatherApiClient;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RefreshBenchmark {
+
+    private final MockWebServer server = new MockWebServer();
+    private final List<Long> cityIds = new ArrayList<>();
+    private OpenWeatherApiClient client;
+    private long cpuStart;
+    private long operations;
+
+    private static final OpenWeatherApiClient.RefreshTarget CHANGED = new OpenWeatherApiClient.RefreshTarget() {
+        @Override
+        public boolean isUnchanged(long fingerprint) {
+            return false;
+        }
+
+        @Override
+        public void update(String weatherData, long fingerprint) {
+        }
+    };
+
+    private static final OpenWeatherApiClient.RefreshTarget UNCHANGED = new OpenWeatherApiClient.RefreshTarget() {
+        @Override
+        public boolean isUnchanged(long fingerprint) {
+            return true;
+        }
+
+        @Override
+        public void update(String weatherData, long fingerprint) {
+        }
+    };
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < OpenWeatherApiClient.MAX_GROUP_SIZE; i++) {
+            long id = 2_000_000L + i;
+            cityIds.add(id);
+            entries.add(String.format(Locale.ROOT, """
+                    {"coord":{"lon":2.35,"lat":48.85},
+                     "weather":[{"id":804,"main":"Clouds","description":"overcast clouds","icon":"04d"}],
+                     "base":"stations",
+                     "main":{"temp":%d.25,"feels_like":%d.5,"temp_min":47.7,"temp_max":48.79,"pressure":1026,
+                             "humidity":95},
+                     "visibility":10000,"wind":{"speed":2.46,"deg":145,"gust":4.43},"clouds":{"all":100},
+                     "dt":1740406884,"sys":{"country":"FR","sunrise":1740376916,"sunset":1740416215},
+                     "timezone":3600,"id":%d,"name":"City%d","cod":200}""", 40 + i, 38 + i, id, i));
+        }
+        String body = "{\"cnt\":" + entries.size() + ",\"list\":[" + String.join(",", entries) + "]}";
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody(body).addHeader("Content-Type", "application/json");
+            }
+        });
+        server.start();
+        client = new OpenWeatherApiClient("benchmark-key", server.url("/").toString());
+    }
+
+    @Setup(Level.Iteration)
+    public void startCpuClock() {
+        cpuStart = processCpuNanos();
+        operations = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportCpu() {
+        System.out.printf(Locale.ROOT, "%nProcess CPU per group refresh: %.1f us%n",
+                (processCpuNanos() - cpuStart) / 1000.0 / Math.max(1, operations));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public int groupRefreshAllChanged() {
+        operations++;
+        return client.refreshWeatherGroup(cityIds, cityId -> CHANGED);
+    }
+
+    @Benchmark
+    public int groupRefreshAllUnchanged() {
+        operations++;
+        return client.refreshWeatherGroup(cityIds, cityId -> UNCHANGED);
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.test_task_weather_sdk.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.test_task_weather_sdk.dto.WeatherResponse;
+import ru.practicum.test_task_weather_sdk.service.WeatherResponseValidator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final byte[] BODY = """
+            {"coord":{"lon":10.9904,"lat":44.3473},
+             "weather":[{"id":804,"main":"Clouds","description":"overcast clouds","icon":"04d"}],
+             "base":"stations",
+             "main":{"temp":48.78,"feels_like":48.78,"temp_min":47.7,"temp_max":48.79,"pressure":1026,
+                     "humidity":95,"sea_level":1026,"grnd_level":963},
+             "visibility":10000,
+             "wind":{"speed":2.46,"deg":145,"gust":4.43},
+             "clouds":{"all":100},
+             "dt":1740406884,
+             "sys":{"type":2,"id":2004688,"country":"IT","sunrise":1740376916,"sunset":1740416215},
+             "timezone":3600,
+             "id":3163858,
+             "name":"Zocca",
+             "cod":200}""".getBytes(StandardCharsets.UTF_8);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ValidatorFactory validatorFactory;
+    private Validator hibernateValidator;
+    private WeatherResponse response;
+
+    @Setup
+    public void setUp() throws IOException {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        hibernateValidator = validatorFactory.getValidator();
+        response = MAPPER.readValue(BODY, WeatherResponse.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public WeatherResponse decode() throws IOException {
+        return MAPPER.readValue(BODY, WeatherResponse.class);
+    }
+
+    @Benchmark
+    public WeatherResponse decodeAndValidate() throws IOException {
+        WeatherResponse decoded = MAPPER.readValue(BODY, WeatherResponse.class);
+        WeatherResponseValidator.validate(decoded);
+        return decoded;
+    }
+
+    @Benchmark
+    public WeatherResponse validate() {
+        WeatherResponseValidator.validate(response);
+        return response;
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<WeatherResponse>> hibernateValidate() {
+        return hibernateValidator.validate(response);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.test_task_weather_sdk.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.test_task_weather_sdk.dto.ModeSDK;
+import ru.practicum.test_task_weather_sdk.service.WeatherSdk;
+import ru.practicum.test_task_weather_sdk.service.WeatherSdkFactory;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherSdkFactoryBenchmark {
+
+    private static final String API_KEY = "benchmark-key";
+
+    @Setup
+    public void setUp() {
+        WeatherSdkFactory.getInstance(API_KEY, ModeSDK.ON_DEMAND_MODE, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        WeatherSdkFactory.removeInstance(API_KEY);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public WeatherSdk getExistingInstanceSingleThread() {
+        return WeatherSdkFactory.getInstance(API_KEY, ModeSDK.ON_DEMAND_MODE, 0);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public WeatherSdk getExistingInstanceEightThreads() {
+        return WeatherSdkFactory.getInstance(API_KEY, ModeSDK.ON_DEMAND_MODE, 0);
+    }
+}